@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.microclimate.benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+
+import org.eclipse.core.runtime.Path;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import com.ibm.microclimate.core.internal.HttpUtil;
+import com.ibm.microclimate.core.internal.MCLogger;
+import com.ibm.microclimate.core.internal.connection.MicroclimateConnection;
+import com.ibm.microclimate.core.internal.connection.OfflineConnections;
+import com.ibm.microclimate.core.internal.constants.MCConstants;
+
+/**
+ * Synthetic data for the benchmarks, shaped like what Microclimate sends but generated
+ * so that the benchmarks can run anywhere.
+ */
+public class Fixtures {
+
+	public static final URI BASE_URI = URI.create("http://localhost:9090/"); //$NON-NLS-1$
+	public static final String VERSION = "2019_M6_E"; //$NON-NLS-1$
+	public static final String WORKSPACE = "/home/user/microclimate-workspace"; //$NON-NLS-1$
+
+	public static final SyntheticTransport transport = new SyntheticTransport();
+
+	private static final PrintStream nullStream = new PrintStream(new OutputStream() {
+		@Override
+		public void write(int b) {
+			// Discard
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			// Discard
+		}
+	});
+
+	private Fixtures() {}
+
+	/**
+	 * Run the core without Eclipse: info logging off and all requests answered by the
+	 * synthetic transport. The connections are offline so their applications are plain ones.
+	 */
+	public static void setUp() {
+		MCLogger.setInfoEnabled(false);
+		HttpUtil.setTransport(transport);
+	}
+
+	/**
+	 * Outside of Eclipse the log is written to standard out, which would swamp the results.
+	 */
+	public static PrintStream discardStandardOut() {
+		PrintStream out = System.out;
+		System.setOut(nullStream);
+		return out;
+	}
+
+	public static MicroclimateConnection createConnection() throws URISyntaxException {
+		return createConnection(VERSION);
+	}
+
+	public static MicroclimateConnection createConnection(String version) throws URISyntaxException {
+		return OfflineConnections.create(BASE_URI, version, new Path(WORKSPACE));
+	}
+
+	public static String projectID(int index) {
+		return String.format("00000000-0000-0000-0000-%012d", index); //$NON-NLS-1$
+	}
+
+	public static String projectName(int index) {
+		return "project" + index; //$NON-NLS-1$
+	}
+
+	public static String projectJson(int index, String appStatus) {
+		try {
+			return project(index, appStatus).toString();
+		} catch (JSONException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	public static String projectListJson(int count, String appStatus) {
+		StringBuilder sb = new StringBuilder(count * 600);
+		sb.append('[');
+		for (int i = 0; i < count; i++) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			sb.append(projectJson(i, appStatus));
+		}
+		sb.append(']');
+		return sb.toString();
+	}
+
+	private static JSONObject project(int index, String appStatus) throws JSONException {
+		// Mix the languages the way a real workspace would
+		String[][] types = {
+				{ "liberty", "java" }, //$NON-NLS-1$ //$NON-NLS-2$
+				{ "spring", "java" }, //$NON-NLS-1$ //$NON-NLS-2$
+				{ "nodejs", "nodejs" }, //$NON-NLS-1$ //$NON-NLS-2$
+				{ "swift", "swift" }, //$NON-NLS-1$ //$NON-NLS-2$
+		};
+		String[] type = types[index % types.length];
+		String name = projectName(index);
+
+		JSONObject ports = new JSONObject();
+		ports.put(MCConstants.KEY_EXPOSED_PORT, Integer.toString(32000 + index));
+		ports.put("internalPort", "9080"); //$NON-NLS-1$ //$NON-NLS-2$
+
+		JSONObject project = new JSONObject();
+		project.put(MCConstants.KEY_PROJECT_ID, projectID(index));
+		project.put(MCConstants.KEY_NAME, name);
+		project.put(MCConstants.KEY_BUILD_TYPE, type[0]);
+		project.put(MCConstants.KEY_PROJECT_TYPE, type[0]);
+		project.put(MCConstants.KEY_LANGUAGE, type[1]);
+		project.put(MCConstants.KEY_LOC_DISK, "/microclimate-workspace/" + name); //$NON-NLS-1$
+		project.put(MCConstants.KEY_ACTION, "enable"); //$NON-NLS-1$
+		project.put(MCConstants.KEY_APP_STATUS, appStatus);
+		project.put(MCConstants.KEY_BUILD_STATUS, "success"); //$NON-NLS-1$
+		project.put(MCConstants.KEY_DETAILED_BUILD_STATUS, ""); //$NON-NLS-1$
+		project.put(MCConstants.KEY_CONTAINER_ID, String.format("%064x", index)); //$NON-NLS-1$
+		project.put(MCConstants.KEY_PORTS, ports);
+		project.put(MCConstants.KEY_CONTEXTROOT, "/"); //$NON-NLS-1$
+		project.put(MCConstants.KEY_START_MODE, "run"); //$NON-NLS-1$
+		project.put(MCConstants.KEY_AUTO_BUILD, true);
+		// Fields the client does not use but has to skip
+		project.put("workspace", "/microclimate-workspace/"); //$NON-NLS-1$ //$NON-NLS-2$
+		project.put("creationTime", 1556000000000L + index); //$NON-NLS-1$
+		project.put("lastbuild", 1556000100000L + index); //$NON-NLS-1$
+		project.put("appImageLastBuild", "1556000200000"); //$NON-NLS-1$ //$NON-NLS-2$
+		project.put("buildImageLastBuild", "1556000300000"); //$NON-NLS-1$ //$NON-NLS-2$
+		project.put("extension", JSONObject.NULL); //$NON-NLS-1$
+		return project;
+	}
+
+	/**
+	 * A log of about the given number of characters made of typical server log lines.
+	 */
+	public static String log(int chars) {
+		StringBuilder sb = new StringBuilder(chars + 200);
+		for (int line = 0; sb.length() < chars; line++) {
+			sb.append(logLine(line));
+		}
+		return sb.toString();
+	}
+
+	public static String logLine(int line) {
+		return String.format("[4/23/19 14:%02d:%02d:%03d UTC] 000000%02x com.ibm.ws.webcontainer.servlet  I SRVE0242I: [app] [/] [com.example.Servlet]: Initialization successful, request %d.%n", //$NON-NLS-1$
+				(line / 60000) % 60, (line / 1000) % 60, line % 1000, line % 256, line);
+	}
+}
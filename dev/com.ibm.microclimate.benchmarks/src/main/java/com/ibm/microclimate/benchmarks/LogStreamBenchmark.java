@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.microclimate.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ibm.microclimate.core.internal.console.LogStream;
+
+/**
+ * Working out what to write to a socket console for each log update, for logs of a growing size.
+ * The server can send the whole log so far each time, so the snapshot cases are the ones that
+ * grow with the log.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LogStreamBenchmark {
+
+	@Param({ "65536", "1048576", "8388608" })
+	public int logSize;
+
+	private String log;
+	private String extendedLog;
+	private String otherLog;
+	private String line;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Fixtures.setUp();
+		log = Fixtures.log(logSize);
+		line = Fixtures.logLine(logSize);
+		extendedLog = log + line;
+		// The same size but a different log, as after the container is rebuilt
+		otherLog = log.replace("Initialization", "Initialisation"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * The first snapshot of a log, which is all written.
+	 */
+	@Benchmark
+	public LogStream.Update firstSnapshot() {
+		return new LogStream().acceptSnapshot(log);
+	}
+
+	/**
+	 * A snapshot that adds a line to the log received so far, which only writes the line.
+	 */
+	@Benchmark
+	public LogStream.Update appendSnapshot() {
+		LogStream stream = new LogStream();
+		stream.acceptSnapshot(log);
+		return stream.acceptSnapshot(extendedLog);
+	}
+
+	/**
+	 * A snapshot of a different log, which resets the console.
+	 */
+	@Benchmark
+	public LogStream.Update replaceSnapshot() {
+		LogStream stream = new LogStream();
+		stream.acceptSnapshot(log);
+		return stream.acceptSnapshot(otherLog);
+	}
+
+	/**
+	 * A snapshot identical to the log received so far, which writes nothing.
+	 */
+	@Benchmark
+	public LogStream.Update unchangedSnapshot() {
+		LogStream stream = new LogStream();
+		stream.acceptSnapshot(log);
+		return stream.acceptSnapshot(log);
+	}
+
+	/**
+	 * A line sent as a delta at the end of the log.
+	 */
+	@Benchmark
+	public LogStream.Update delta() {
+		LogStream stream = new LogStream();
+		stream.acceptDelta(0, log, false);
+		return stream.acceptDelta(log.length(), line, false);
+	}
+
+	/**
+	 * A delta that overlaps what has been received, so the overlap is skipped.
+	 */
+	@Benchmark
+	public LogStream.Update overlappingDelta() {
+		LogStream stream = new LogStream();
+		stream.acceptDelta(0, log, false);
+		return stream.acceptDelta(0, extendedLog, false);
+	}
+}
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.microclimate.benchmarks;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ibm.microclimate.core.internal.MCLogger;
+
+/**
+ * The cost of an info log call on the calling thread, with info logging on and off. When it is
+ * on the message is formatted and queued, and written to standard out (which is discarded) on
+ * the logger's thread.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoggerBenchmark {
+
+	@Param({ "false", "true" })
+	public boolean infoEnabled;
+
+	private final String name = "project42"; //$NON-NLS-1$
+	private final int count = 4096;
+	private PrintStream out;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Fixtures.setUp();
+		out = Fixtures.discardStandardOut();
+		MCLogger.setInfoEnabled(infoEnabled);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		MCLogger.flush();
+		MCLogger.setInfoEnabled(false);
+		System.setOut(out);
+	}
+
+	@Benchmark
+	public void message() {
+		MCLogger.log("Refreshing the applications for the connection"); //$NON-NLS-1$
+	}
+
+	@Benchmark
+	public void concatenatedMessage() {
+		MCLogger.log("Appending " + count + " characters to the build log for: " + name); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Benchmark
+	public void parameterizedMessage() {
+		MCLogger.log("Appending {} characters to the build log for: {}", count, name); //$NON-NLS-1$
+	}
+}
@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.microclimate.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ibm.microclimate.core.internal.MicroclimateApplication;
+import com.ibm.microclimate.core.internal.MicroclimateApplicationFactory;
+import com.ibm.microclimate.core.internal.MicroclimateApplicationFactory.RefreshResult;
+import com.ibm.microclimate.core.internal.connection.MicroclimateConnection;
+
+/**
+ * MicroclimateApplicationFactory.getAppsFromProjectsJson for a connection with a growing number
+ * of projects: when the projects are new, when nothing has changed (the common case for a
+ * refresh) and when every project has changed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProjectListBenchmark {
+
+	private static final String STARTED = "started"; //$NON-NLS-1$
+	private static final String STOPPED = "stopped"; //$NON-NLS-1$
+	private static final long CAPABILITIES_TIMEOUT_MS = 10000;
+
+	@Param({ "10", "100", "1000" })
+	public int projects;
+
+	private String startedJson;
+	private String stoppedJson;
+	private MicroclimateConnection connection;
+	private boolean stopped;
+
+	@Setup(Level.Trial)
+	public void setUpTrial() {
+		Fixtures.setUp();
+		Fixtures.transport.setProjects(projects, STARTED);
+		startedJson = Fixtures.projectListJson(projects, STARTED);
+		stoppedJson = Fixtures.projectListJson(projects, STOPPED);
+	}
+
+	@Setup(Level.Iteration)
+	public void setUpIteration() throws Exception {
+		connection = Fixtures.createConnection();
+		MicroclimateApplicationFactory.getAppsFromProjectsJson(connection, startedJson);
+		stopped = false;
+	}
+
+	@TearDown(Level.Iteration)
+	public void tearDownIteration() {
+		connection.close();
+	}
+
+	@Benchmark
+	public RefreshResult unchanged() {
+		return MicroclimateApplicationFactory.getAppsFromProjectsJson(connection, startedJson);
+	}
+
+	@Benchmark
+	public RefreshResult allChanged() {
+		// Flip every project between started and stopped so each one is updated and its
+		// log and metrics information is requested again
+		stopped = !stopped;
+		return MicroclimateApplicationFactory.getAppsFromProjectsJson(connection, stopped ? stoppedJson : startedJson);
+	}
+
+	/**
+	 * A new connection for each call so that every project is added.
+	 */
+	@State(Scope.Thread)
+	public static class NewConnection {
+		private MicroclimateConnection connection;
+
+		@Setup(Level.Invocation)
+		public void setUp() throws Exception {
+			connection = Fixtures.createConnection();
+		}
+
+		@TearDown(Level.Invocation)
+		public void tearDown() throws InterruptedException {
+			// Let the capabilities requests for the new applications finish, otherwise closing
+			// the connection drops them and they overlap the next call
+			long end = System.currentTimeMillis() + CAPABILITIES_TIMEOUT_MS;
+			for (MicroclimateApplication app : connection.getApps()) {
+				while (app.isProjectCapabilitiesLoading() && System.currentTimeMillis() < end) {
+					Thread.sleep(1);
+				}
+			}
+			connection.close();
+		}
+	}
+
+	@Benchmark
+	public RefreshResult allAdded(NewConnection newConnection) {
+		return MicroclimateApplicationFactory.getAppsFromProjectsJson(newConnection.connection, startedJson);
+	}
+}
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.microclimate.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ibm.microclimate.core.internal.MicroclimateApplicationFactory;
+import com.ibm.microclimate.core.internal.connection.MicroclimateConnection;
+import com.ibm.microclimate.core.internal.connection.MicroclimateSocket;
+import com.ibm.microclimate.core.internal.connection.SocketEventCoalescer;
+import com.ibm.microclimate.core.internal.constants.MCConstants;
+
+import io.socket.emitter.Emitter;
+
+/**
+ * Decoding and dispatching each type of socket event, up to the handler finishing. The events
+ * are passed to the socket's listeners the way socket.io delivers them, as parsed JSON, and each
+ * batch waits for the dispatcher to go idle so the time includes handling on the event threads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-D" + SocketEventCoalescer.WINDOW_PROPERTY + "=0" })
+@State(Scope.Benchmark)
+public class SocketEventBenchmark {
+
+	private static final int PROJECTS = 50;
+	private static final int BATCH = 100;
+	private static final long IDLE_TIMEOUT_MS = 60000;
+
+	@Param({
+		MicroclimateSocket.EVENT_PROJECT_CREATION,
+		MicroclimateSocket.EVENT_PROJECT_CHANGED,
+		MicroclimateSocket.EVENT_PROJECT_SETTINGS_CHANGED,
+		MicroclimateSocket.EVENT_PROJECT_STATUS_CHANGE,
+		MicroclimateSocket.EVENT_PROJECT_RESTART,
+		MicroclimateSocket.EVENT_PROJECT_CLOSED,
+		MicroclimateSocket.EVENT_PROJECT_DELETION,
+		MicroclimateSocket.EVENT_CONTAINER_LOGS,
+		MicroclimateSocket.EVENT_LOG_UPDATE,
+		MicroclimateSocket.EVENT_PROJECT_VALIDATED,
+	})
+	public String event;
+
+	private MicroclimateConnection connection;
+	private MicroclimateSocket socket;
+	private List<Emitter.Listener> listeners;
+	private JSONObject[] payloads;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		Fixtures.setUp();
+		Fixtures.transport.setProjects(PROJECTS, "started"); //$NON-NLS-1$
+		connection = Fixtures.createConnection();
+		MicroclimateApplicationFactory.getAppsFromProjectsJson(connection, Fixtures.projectListJson(PROJECTS, "started")); //$NON-NLS-1$
+		socket = connection.getMCSocket();
+		listeners = socket.socket.listeners(event);
+		payloads = new JSONObject[BATCH];
+		for (int i = 0; i < BATCH; i++) {
+			payloads[i] = payload(event, i);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		connection.close();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public void decodeAndDispatch() throws InterruptedException {
+		for (JSONObject payload : payloads) {
+			for (Emitter.Listener listener : listeners) {
+				listener.call(payload);
+			}
+		}
+		if (!socket.awaitIdle(IDLE_TIMEOUT_MS)) {
+			throw new IllegalStateException("The " + event + " events were not handled in time"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	private static JSONObject payload(String event, int index) throws JSONException {
+		JSONObject payload = new JSONObject();
+		String projectID = Fixtures.projectID(index % PROJECTS);
+		payload.put(MCConstants.KEY_PROJECT_ID, projectID);
+		JSONObject ports = new JSONObject();
+		ports.put(MCConstants.KEY_EXPOSED_PORT, Integer.toString(32000 + index));
+		switch (event) {
+			case MicroclimateSocket.EVENT_PROJECT_CREATION:
+				payload.put(MCConstants.KEY_NAME, Fixtures.projectName(index % PROJECTS));
+				break;
+			case MicroclimateSocket.EVENT_PROJECT_CHANGED:
+				payload.put(MCConstants.KEY_CONTAINER_ID, String.format("%064x", index)); //$NON-NLS-1$
+				payload.put(MCConstants.KEY_PORTS, ports);
+				payload.put(MCConstants.KEY_AUTO_BUILD, index % 2 == 0);
+				break;
+			case MicroclimateSocket.EVENT_PROJECT_SETTINGS_CHANGED:
+				payload.put(MCConstants.KEY_CONTEXT_ROOT, "/app" + index); //$NON-NLS-1$
+				break;
+			case MicroclimateSocket.EVENT_PROJECT_STATUS_CHANGE:
+				payload.put(MCConstants.KEY_APP_STATUS, index % 2 == 0 ? "starting" : "started"); //$NON-NLS-1$ //$NON-NLS-2$
+				payload.put(MCConstants.KEY_BUILD_STATUS, "inProgress"); //$NON-NLS-1$
+				payload.put(MCConstants.KEY_DETAILED_BUILD_STATUS, "Building the image"); //$NON-NLS-1$
+				break;
+			case MicroclimateSocket.EVENT_PROJECT_RESTART:
+				payload.put(MCConstants.KEY_STATUS, MCConstants.REQUEST_STATUS_SUCCESS);
+				payload.put(MCConstants.KEY_START_MODE, "run"); //$NON-NLS-1$
+				payload.put(MCConstants.KEY_PORTS, ports);
+				break;
+			case MicroclimateSocket.EVENT_PROJECT_DELETION:
+				// An unknown project so the applications are still there for the next batch
+				payload.put(MCConstants.KEY_PROJECT_ID, Fixtures.projectID(PROJECTS + index));
+				break;
+			case MicroclimateSocket.EVENT_CONTAINER_LOGS:
+				payload.put(MCConstants.KEY_LOGS, Fixtures.log(16 * 1024));
+				break;
+			case MicroclimateSocket.EVENT_LOG_UPDATE:
+				payload.put(MCConstants.KEY_LOG_TYPE, MCConstants.KEY_LOG_APP);
+				payload.put(MCConstants.KEY_LOG_NAME, "app.log"); //$NON-NLS-1$
+				payload.put(MCConstants.KEY_LOGS, Fixtures.logLine(index));
+				payload.put(MCConstants.KEY_LOG_RESET, false);
+				break;
+			case MicroclimateSocket.EVENT_PROJECT_VALIDATED:
+				payload.put(MCConstants.KEY_VALIDATION_STATUS, MCConstants.VALUE_STATUS_SUCCESS);
+				payload.put(MCConstants.KEY_VALIDATION_RESULTS, new JSONArray());
+				break;
+			default:
+				break;
+		}
+		return payload;
+	}
+}
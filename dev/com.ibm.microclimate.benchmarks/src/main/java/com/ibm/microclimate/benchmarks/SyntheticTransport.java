@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.microclimate.benchmarks;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.json.JSONException;
+
+import com.ibm.microclimate.core.internal.HttpUtil.HttpResult;
+import com.ibm.microclimate.core.internal.IHttpTransport;
+import com.ibm.microclimate.core.internal.IResponseHandler;
+import com.ibm.microclimate.core.internal.constants.MCConstants;
+
+/**
+ * Answers the requests the core makes while refreshing applications with canned responses,
+ * so the benchmarks measure the client and not the network.
+ */
+public class SyntheticTransport implements IHttpTransport {
+
+	private static final String PROJECTS_PATH = "/" + MCConstants.APIPATH_PROJECT_LIST; //$NON-NLS-1$
+
+	private static final String CAPABILITIES = "{\"startModes\":[\"run\",\"debug\"],\"controlCommands\":[\"restart\"]}"; //$NON-NLS-1$
+	private static final String LOGS = "{\"build\":[{\"logName\":\"build.log\"}],\"app\":[{\"logName\":\"app.log\"}]}"; //$NON-NLS-1$
+	private static final String METRICS_STATUS = "{\"metricsAvailable\":true}"; //$NON-NLS-1$
+
+	private volatile String projectList = "[]"; //$NON-NLS-1$
+	private final Map<String, String> projects = new ConcurrentHashMap<String, String>();
+
+	/**
+	 * Serve the given projects from the project list and single project endpoints.
+	 */
+	public void setProjects(int count, String appStatus) {
+		projects.clear();
+		for (int i = 0; i < count; i++) {
+			projects.put(Fixtures.projectID(i), Fixtures.projectJson(i, appStatus));
+		}
+		projectList = Fixtures.projectListJson(count, appStatus);
+	}
+
+	@Override
+	public HttpResult execute(String method, URI uri, String payload, int readTimeout,
+			Map<String, String> headers, IResponseHandler<?> handler) throws IOException {
+		String path = uri.getPath();
+		if (path.equals(PROJECTS_PATH)) {
+			return respond(uri, projectList, handler);
+		}
+		if (path.startsWith(PROJECTS_PATH + "/")) { //$NON-NLS-1$
+			String projectPath = path.substring(PROJECTS_PATH.length() + 1);
+			int index = projectPath.indexOf('/');
+			if (index < 0) {
+				String project = projects.get(projectPath);
+				if (project != null) {
+					return respond(uri, project, handler);
+				}
+			} else {
+				String subPath = projectPath.substring(index + 1);
+				if (subPath.equals(MCConstants.APIPATH_CAPABILITIES)) {
+					return respond(uri, CAPABILITIES, handler);
+				}
+				if (subPath.equals(MCConstants.APIPATH_LOGS)) {
+					return respond(uri, LOGS, handler);
+				}
+				if (subPath.equals(MCConstants.APIPATH_METRICS_STATUS)) {
+					return respond(uri, METRICS_STATUS, handler);
+				}
+			}
+		}
+		return new HttpResult(uri, 404, null, "Not found: " + path, null); //$NON-NLS-1$
+	}
+
+	private static HttpResult respond(URI uri, String body, IResponseHandler<?> handler) throws IOException {
+		if (handler == null) {
+			return new HttpResult(uri, 200, body, null, null);
+		}
+		try {
+			return new HttpResult(uri, 200, null, handler.handle(new StringReader(body)), null, null);
+		} catch (JSONException e) {
+			throw new IOException("Failed to parse the synthetic response for " + uri, e); //$NON-NLS-1$
+		}
+	}
+
+	@Override
+	public void dispose() {
+		// Nothing to release
+	}
+}
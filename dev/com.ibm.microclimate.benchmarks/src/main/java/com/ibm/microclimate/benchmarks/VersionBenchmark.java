@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.microclimate.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ibm.microclimate.core.internal.connection.MicroclimateConnection;
+
+/**
+ * MicroclimateConnection.checkVersion, which is called before the requests that need a newer
+ * Microclimate, for each form of version string.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VersionBenchmark {
+
+	@Param({ "2019_M6_E", "2019_M4_E", "1905", "latest", "unknown" })
+	public String version;
+
+	private MicroclimateConnection connection;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		Fixtures.setUp();
+		connection = Fixtures.createConnection(version);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		connection.close();
+	}
+
+	@Benchmark
+	public boolean checkVersion() {
+		return connection.checkVersion(1905, "2019_M5_E"); //$NON-NLS-1$
+	}
+}
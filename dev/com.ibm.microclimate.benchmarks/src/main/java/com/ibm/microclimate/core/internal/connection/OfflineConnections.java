@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+
+package com.ibm.microclimate.core.internal.connection;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+
+import org.eclipse.core.runtime.IPath;
+
+/**
+ * Creates connections that do not contact Microclimate for the benchmarks. It is in the
+ * connection package so it can use the package private constructor, which is not part of
+ * the core plugin's API.
+ */
+public class OfflineConnections {
+
+	private OfflineConnections() {}
+
+	public static MicroclimateConnection create(URI uri, String versionStr, IPath localWorkspacePath) throws URISyntaxException {
+		return new MicroclimateConnection(uri, versionStr, localWorkspacePath);
+	}
+}
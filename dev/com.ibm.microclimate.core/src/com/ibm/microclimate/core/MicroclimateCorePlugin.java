@@ -16,14 +16,19 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.jface.util.IPropertyChangeListener;
+import org.eclipse.jface.util.PropertyChangeEvent;
 import org.eclipse.osgi.service.debug.DebugOptionsListener;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
 import org.osgi.framework.BundleContext;
 
+import com.ibm.microclimate.core.internal.HttpUtil;
 import com.ibm.microclimate.core.internal.IDebugLauncher;
 import com.ibm.microclimate.core.internal.IUpdateHandler;
 import com.ibm.microclimate.core.internal.MCEclipseApplication;
 import com.ibm.microclimate.core.internal.MCLogger;
+import com.ibm.microclimate.core.internal.connection.SocketEventRecorder;
+import com.ibm.microclimate.core.internal.console.MicroclimateConsoleFactory;
 
 /**
  * The activator class controls the plug-in life cycle
@@ -41,6 +46,9 @@ public class MicroclimateCorePlugin extends AbstractUIPlugin {
 	
 	public static final String NODEJS_DEBUG_BROWSER_PREFSKEY = "nodejsDebugBrowserName"; //$NON-NLS-1$
 
+	// Int option for the maximum number of characters kept in each console, 0 for no limit
+	public static final String CONSOLE_BUFFER_SIZE_PREFSKEY = "consoleBufferSize"; //$NON-NLS-1$
+
 	// The shared instance
 	private static MicroclimateCorePlugin plugin;
 	
@@ -69,6 +77,18 @@ public class MicroclimateCorePlugin extends AbstractUIPlugin {
 		// Set default preferences once, here
 		getPreferenceStore().setDefault(DEBUG_CONNECT_TIMEOUT_PREFSKEY,
 				MCEclipseApplication.DEFAULT_DEBUG_CONNECT_TIMEOUT);
+		getPreferenceStore().setDefault(CONSOLE_BUFFER_SIZE_PREFSKEY,
+				MicroclimateConsoleFactory.DEFAULT_CONSOLE_BUFFER_SIZE);
+
+		// Apply a new console size to the open consoles
+		getPreferenceStore().addPropertyChangeListener(new IPropertyChangeListener() {
+			@Override
+			public void propertyChange(PropertyChangeEvent event) {
+				if (CONSOLE_BUFFER_SIZE_PREFSKEY.equals(event.getProperty())) {
+					MicroclimateConsoleFactory.updateConsoleBufferSize();
+				}
+			}
+		});
 	}
 
 	/*
@@ -77,6 +97,12 @@ public class MicroclimateCorePlugin extends AbstractUIPlugin {
 	 */
 	@Override
 	public void stop(BundleContext context) throws Exception {
+		// Release the pooled HTTP connections
+		HttpUtil.dispose();
+		// Close the socket event trace, if one is being recorded
+		SocketEventRecorder.stop();
+		// Write out any queued log messages while the log is still available
+		MCLogger.flush();
 		plugin = null;
 		super.stop(context);
 	}
@@ -0,0 +1,226 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.microclimate.core.internal;
+
+import java.net.URI;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.ibm.microclimate.core.internal.HttpUtil.HttpResult;
+import com.ibm.microclimate.core.internal.constants.MCConstants;
+
+/**
+ * Short lived cache for the responses to the Microclimate REST GET requests that are made
+ * over and over.  Responses are kept for a time that depends on the kind of endpoint and
+ * once that expires they are revalidated with If-None-Match / If-Modified-Since so that an
+ * unchanged resource costs a 304 with no body.  Responses for any other endpoint are not cached.
+ * If a response handler was used then the cached content is shared with later callers so it
+ * must not be modified.
+ */
+public class HttpResponseCache {
+
+	public static final String
+			MAX_ENTRIES_PROPERTY = "com.ibm.microclimate.http.cacheSize", //$NON-NLS-1$
+			TTL_PROPERTY_PREFIX = "com.ibm.microclimate.http.cacheTTL."; //$NON-NLS-1$
+
+	private static final int DEFAULT_MAX_ENTRIES = 256;
+
+	public static final String
+			HEADER_ETAG = "ETag", //$NON-NLS-1$
+			HEADER_LAST_MODIFIED = "Last-Modified", //$NON-NLS-1$
+			HEADER_IF_NONE_MATCH = "If-None-Match", //$NON-NLS-1$
+			HEADER_IF_MODIFIED_SINCE = "If-Modified-Since"; //$NON-NLS-1$
+
+	/**
+	 * The kinds of endpoint that are cached. The time to live in milliseconds for each can be
+	 * overridden with a system property, for example com.ibm.microclimate.http.cacheTTL.capabilities.
+	 * A time to live of 0 means the response is always revalidated, a negative value disables caching.
+	 */
+	public enum EndpointClass {
+		PROJECT_LIST("projectList", 1000), //$NON-NLS-1$
+		PROJECT("project", 1000), //$NON-NLS-1$
+		PROJECT_TYPES("projectTypes", 60000), //$NON-NLS-1$
+		CAPABILITIES("capabilities", 60000), //$NON-NLS-1$
+		LOGS("logs", 5000), //$NON-NLS-1$
+		METRICS_STATUS("metricsStatus", 5000); //$NON-NLS-1$
+
+		public final String name;
+		public final long ttl;
+
+		private EndpointClass(String name, long defaultTTL) {
+			this.name = name;
+			this.ttl = Long.getLong(TTL_PROPERTY_PREFIX + name, defaultTTL);
+		}
+
+		/**
+		 * Get the endpoint class for the uri or null if responses for it should not be cached.
+		 */
+		public static EndpointClass get(URI uri) {
+			String path = uri.getPath();
+			if (path == null) {
+				return null;
+			}
+			if (path.startsWith("/")) { //$NON-NLS-1$
+				path = path.substring(1);
+			}
+			if (path.endsWith("/")) { //$NON-NLS-1$
+				path = path.substring(0, path.length() - 1);
+			}
+			if (path.equals(MCConstants.APIPATH_PROJECT_LIST)) {
+				return PROJECT_LIST;
+			}
+			if (path.equals(MCConstants.APIPATH_BASEV2 + "/" + MCConstants.APIPATH_PROJECT_TYPES)) { //$NON-NLS-1$
+				return PROJECT_TYPES;
+			}
+			if (!path.startsWith(MCConstants.APIPATH_PROJECT_LIST + "/")) { //$NON-NLS-1$
+				return null;
+			}
+			// Path relative to the project, starting with the project id
+			String projectPath = path.substring(MCConstants.APIPATH_PROJECT_LIST.length() + 1);
+			int index = projectPath.indexOf('/');
+			if (index < 0) {
+				return PROJECT;
+			}
+			String subPath = projectPath.substring(index + 1);
+			if (subPath.equals(MCConstants.APIPATH_CAPABILITIES)) {
+				return CAPABILITIES;
+			}
+			if (subPath.equals(MCConstants.APIPATH_LOGS)) {
+				return LOGS;
+			}
+			if (subPath.equals(MCConstants.APIPATH_METRICS_STATUS)) {
+				return METRICS_STATUS;
+			}
+			return null;
+		}
+	}
+
+	private static class CacheEntry {
+		private final HttpResult result;
+		private final String etag;
+		private final String lastModified;
+		private final long ttl;
+		private long storedTime;
+
+		private CacheEntry(HttpResult result, long ttl) {
+			this.result = result;
+			this.etag = result.getHeader(HEADER_ETAG);
+			this.lastModified = result.getHeader(HEADER_LAST_MODIFIED);
+			this.ttl = ttl;
+			this.storedTime = System.currentTimeMillis();
+		}
+
+		private boolean isFresh(long now) {
+			return now - storedTime < ttl;
+		}
+
+		private boolean canRevalidate() {
+			return etag != null || lastModified != null;
+		}
+	}
+
+	private final Map<String, CacheEntry> entries;
+
+	public HttpResponseCache() {
+		this(Integer.getInteger(MAX_ENTRIES_PROPERTY, DEFAULT_MAX_ENTRIES));
+	}
+
+	public HttpResponseCache(final int maxEntries) {
+		// Access ordered so that the least recently used entry is removed first
+		entries = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * Get the cached result if it is still fresh and revalidate is false, otherwise null.
+	 */
+	synchronized HttpResult getFresh(URI uri, boolean revalidate) {
+		CacheEntry entry = entries.get(uri.toString());
+		if (entry != null && !revalidate && entry.isFresh(System.currentTimeMillis())) {
+			return new HttpResult(entry.result, true);
+		}
+		return null;
+	}
+
+	/**
+	 * Get the headers for a conditional request for the uri, or null if there is nothing cached.
+	 */
+	synchronized Map<String, String> getConditionalHeaders(URI uri) {
+		CacheEntry entry = entries.get(uri.toString());
+		if (entry == null || !entry.canRevalidate()) {
+			return null;
+		}
+		Map<String, String> headers = new LinkedHashMap<String, String>();
+		if (entry.etag != null) {
+			headers.put(HEADER_IF_NONE_MATCH, entry.etag);
+		}
+		if (entry.lastModified != null) {
+			headers.put(HEADER_IF_MODIFIED_SINCE, entry.lastModified);
+		}
+		return headers;
+	}
+
+	/**
+	 * Update the cache with the result of a request and return the result to give to the caller.
+	 * A 304 is replaced with the cached result.
+	 */
+	synchronized HttpResult update(URI uri, EndpointClass endpointClass, HttpResult result) {
+		String key = uri.toString();
+		if (result.responseCode == HttpResult.NOT_MODIFIED) {
+			CacheEntry entry = entries.get(key);
+			if (entry != null) {
+				entry.storedTime = System.currentTimeMillis();
+				return new HttpResult(entry.result, true);
+			}
+			// Should not happen since the conditional headers come from the entry
+			return result;
+		}
+		if (result.isGoodResponse && (result.response != null || result.content != null)) {
+			entries.put(key, new CacheEntry(result, endpointClass.ttl));
+		} else {
+			entries.remove(key);
+		}
+		return result;
+	}
+
+	/**
+	 * Remove the cached response for the uri.
+	 */
+	public synchronized void invalidate(URI uri) {
+		entries.remove(uri.toString());
+	}
+
+	/**
+	 * Remove all cached responses for uris that start with the given uri, for example
+	 * all of the responses for a project.
+	 */
+	public synchronized void invalidatePrefix(URI uri) {
+		String prefix = uri.toString();
+		Iterator<String> iterator = entries.keySet().iterator();
+		while (iterator.hasNext()) {
+			if (iterator.next().startsWith(prefix)) {
+				iterator.remove();
+			}
+		}
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+	}
+}
@@ -11,39 +11,174 @@
 
 package com.ibm.microclimate.core.internal;
 
-import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringReader;
 import java.net.HttpURLConnection;
 import java.net.URI;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
+import org.json.JSONException;
 import org.json.JSONObject;
 
+import com.ibm.microclimate.core.internal.HttpResponseCache.EndpointClass;
+import com.ibm.microclimate.core.internal.constants.MCConstants;
+import com.ibm.microclimate.core.internal.metrics.Counter;
+import com.ibm.microclimate.core.internal.metrics.Metrics;
+
 /**
  * Static utilities to allow easy HTTP communication, and make diagnosing and handling errors a bit easier.
  */
 public class HttpUtil {
 
+	// Set to "urlconnection" to fall back to the JDK HttpURLConnection transport
+	public static final String TRANSPORT_PROPERTY = "com.ibm.microclimate.http.transport"; //$NON-NLS-1$
+
+	public static final String
+			METHOD_GET = "GET", //$NON-NLS-1$
+			METHOD_POST = "POST", //$NON-NLS-1$
+			METHOD_PUT = "PUT", //$NON-NLS-1$
+			METHOD_HEAD = "HEAD", //$NON-NLS-1$
+			METHOD_DELETE = "DELETE"; //$NON-NLS-1$
+
+	private static final int GET_READ_TIMEOUT_MS = 5000;
+
+	private static volatile IHttpTransport transport = createDefaultTransport();
+
+	private static final HttpResponseCache responseCache = new HttpResponseCache();
+
+	private static final Counter cacheHits = Metrics.counter(Metrics.HTTP_CACHE_HITS);
+
 	private HttpUtil() {}
 
+	private static IHttpTransport createDefaultTransport() {
+		if ("urlconnection".equals(System.getProperty(TRANSPORT_PROPERTY))) { //$NON-NLS-1$
+			return new URLConnectionTransport();
+		}
+		return new OkHttpTransport();
+	}
+
+	public static IHttpTransport getTransport() {
+		return transport;
+	}
+
+	/**
+	 * Replace the transport used for all requests. The previous transport is disposed.
+	 */
+	public static void setTransport(IHttpTransport newTransport) {
+		IHttpTransport oldTransport = transport;
+		transport = newTransport;
+		if (oldTransport != null && oldTransport != newTransport) {
+			oldTransport.dispose();
+		}
+	}
+
+	public static void dispose() {
+		transport.dispose();
+		responseCache.clear();
+	}
+
+	public static HttpResponseCache getResponseCache() {
+		return responseCache;
+	}
+
 	public static class HttpResult {
+		public static final int NOT_MODIFIED = 304;
+		public static final int RANGE_NOT_SATISFIABLE = 416;
+
 		public final int responseCode;
 		public final boolean isGoodResponse;
+		// True if the result came from the response cache, either because it was still
+		// fresh or because the server returned 304. The content is the same as the
+		// previous result for the uri so the caller can skip parsing it again.
+		public final boolean notModified;
 
 		// Can be null
 		public final String response;
+		// The result of the response handler if one was used, otherwise null
+		public final Object content;
 		// Can be null
 		public final String error;
 		
 		private final Map<String, List<String>> headerFields;
 
+		public HttpResult(URI uri, int responseCode, String response, String error, Map<String, List<String>> headerFields) {
+			this(uri, responseCode, response, null, error, headerFields);
+		}
+
+		public HttpResult(URI uri, int responseCode, String response, Object content, String error,
+				Map<String, List<String>> headerFields) {
+			this.responseCode = responseCode;
+			this.isGoodResponse = responseCode > 199 && responseCode < 300;
+			this.notModified = false;
+			if (isGoodResponse) {
+				this.response = response;
+				this.content = content;
+				this.error = null;
+				this.headerFields = normalizeHeaders(headerFields);
+			} else {
+				if (!isExpectedCode(responseCode)) {
+					MCLogger.logError("Received bad response code " + responseCode + " from "
+							+ uri + " - Error:\n" + error);
+				}
+				this.response = null;
+				this.content = null;
+				this.error = error;
+				// The content range is needed to handle a range that is not satisfiable
+				this.headerFields = responseCode == RANGE_NOT_SATISFIABLE ? normalizeHeaders(headerFields) : null;
+			}
+		}
+
+		// Codes that the caller asked for (with conditional or range headers) so they are not errors
+		static boolean isExpectedCode(int responseCode) {
+			return responseCode == NOT_MODIFIED || responseCode == RANGE_NOT_SATISFIABLE;
+		}
+
+		private static Map<String, List<String>> normalizeHeaders(Map<String, List<String>> headerFields) {
+			if (headerFields == null) {
+				return null;
+			}
+			// Header names are case insensitive
+			Map<String, List<String>> headers = new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+			for (Map.Entry<String, List<String>> entry : headerFields.entrySet()) {
+				// HttpURLConnection uses a null key for the status line
+				if (entry.getKey() != null) {
+					headers.put(entry.getKey(), entry.getValue());
+				}
+			}
+			return headers;
+		}
+
+		/**
+		 * Copy a cached result.
+		 */
+		public HttpResult(HttpResult cachedResult, boolean notModified) {
+			this(cachedResult, cachedResult.content, notModified);
+		}
+
+		/**
+		 * Copy a cached result, replacing the content.
+		 */
+		public HttpResult(HttpResult cachedResult, Object content, boolean notModified) {
+			this.responseCode = cachedResult.responseCode;
+			this.isGoodResponse = cachedResult.isGoodResponse;
+			this.notModified = notModified;
+			this.response = cachedResult.response;
+			this.content = content;
+			this.error = cachedResult.error;
+			this.headerFields = cachedResult.headerFields;
+		}
+
 		public HttpResult(HttpURLConnection connection) throws IOException {
 			responseCode = connection.getResponseCode();
 			isGoodResponse = responseCode > 199 && responseCode < 300;
+			notModified = false;
+			content = null;
 			
-			headerFields = isGoodResponse ? connection.getHeaderFields() : null;
+			headerFields = isGoodResponse || responseCode == RANGE_NOT_SATISFIABLE
+					? normalizeHeaders(connection.getHeaderFields()) : null;
 
 			// Read error first because sometimes if there is an error, connection.getInputStream() throws an exception
 			InputStream eis = connection.getErrorStream();
@@ -55,8 +190,10 @@ public class HttpUtil {
 			}
 
 			if (!isGoodResponse) {
-				MCLogger.logError("Received bad response code " + responseCode + " from "
-						+ connection.getURL() + " - Error:\n" + error);
+				if (!isExpectedCode(responseCode)) {
+					MCLogger.logError("Received bad response code " + responseCode + " from "
+							+ connection.getURL() + " - Error:\n" + error);
+				}
 				response = null;
 			} else {
 				InputStream is = connection.getInputStream();
@@ -82,110 +219,143 @@ public class HttpUtil {
 	}
 
 	public static HttpResult get(URI uri) throws IOException {
-		HttpURLConnection connection = null;
+		return get(uri, false);
+	}
 
-		try {
-			connection = (HttpURLConnection) uri.toURL().openConnection();
+	/**
+	 * Send a GET request, using the response cache for the endpoints that support it.
+	 * If revalidate is true a cached response is always checked with the server first.
+	 */
+	public static HttpResult get(URI uri, boolean revalidate) throws IOException {
+		return get(uri, revalidate, null);
+	}
 
-			connection.setRequestMethod("GET");
-			connection.setReadTimeout(5000);
+	/**
+	 * Send a GET request and read a good response with the handler rather than into a string.
+	 * The handler result is available from HttpResult.content.
+	 */
+	public static <T> HttpResult get(URI uri, boolean revalidate, IResponseHandler<T> handler) throws IOException {
+		EndpointClass endpointClass = EndpointClass.get(uri);
+		if (endpointClass == null || endpointClass.ttl < 0) {
+			return execute(METHOD_GET, uri, null, GET_READ_TIMEOUT_MS, null, handler);
+		}
 
-			return new HttpResult(connection);
-		} finally {
-			if (connection != null) {
-				connection.disconnect();
+		HttpResult cachedResult = adaptCachedResult(responseCache.getFresh(uri, revalidate), handler);
+		if (cachedResult != null) {
+			cacheHits.increment();
+			return cachedResult;
+		}
+		Map<String, String> headers = responseCache.getConditionalHeaders(uri);
+		HttpResult result = execute(METHOD_GET, uri, null, GET_READ_TIMEOUT_MS, headers, handler);
+		result = responseCache.update(uri, endpointClass, result);
+		if (result.notModified) {
+			cachedResult = adaptCachedResult(result, handler);
+			if (cachedResult == null) {
+				// The cached result was read differently, request the full response
+				result = execute(METHOD_GET, uri, null, GET_READ_TIMEOUT_MS, null, handler);
+				return responseCache.update(uri, endpointClass, result);
 			}
+			cacheHits.increment();
+			return cachedResult;
 		}
+		return result;
 	}
-	
-	public static HttpResult post(URI uri, JSONObject payload) throws IOException {
-		HttpURLConnection connection = null;
-
-		MCLogger.log("POST " + payload.toString() + " TO " + uri);
-		try {
-			connection = (HttpURLConnection) uri.toURL().openConnection();
 
-			connection.setRequestMethod("POST");
-			
-			if (payload != null) {
-				connection.setRequestProperty("Content-Type", "application/json");
-				connection.setDoOutput(true);
-	
-				DataOutputStream payloadStream = new DataOutputStream(connection.getOutputStream());
-				payloadStream.write(payload.toString().getBytes());
-			}
+	/**
+	 * Send a GET request with the given request headers, for example a range. The response cache
+	 * is not used.
+	 */
+	public static HttpResult get(URI uri, Map<String, String> headers) throws IOException {
+		return execute(METHOD_GET, uri, null, GET_READ_TIMEOUT_MS, headers, null);
+	}
 
-			return new HttpResult(connection);
+	/**
+	 * Send the request with the current transport, recording the count, errors and duration
+	 * for the endpoint.
+	 */
+	private static HttpResult execute(String method, URI uri, String payload, int readTimeout,
+			Map<String, String> headers, IResponseHandler<?> handler) throws IOException {
+		String endpoint = getEndpointName(method, uri);
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			HttpResult result = transport.execute(method, uri, payload, readTimeout, headers, handler);
+			failed = !result.isGoodResponse && !HttpResult.isExpectedCode(result.responseCode);
+			return result;
 		} finally {
-			if (connection != null) {
-				connection.disconnect();
+			Metrics.histogram(Metrics.HTTP_REQUESTS, endpoint).recordSince(start);
+			if (failed) {
+				Metrics.counter(Metrics.HTTP_ERRORS, endpoint).increment();
 			}
 		}
 	}
-	
-	public static HttpResult post(URI uri) throws IOException {
-		HttpURLConnection connection = null;
 
-		MCLogger.log("Empty POST TO " + uri);
-		try {
-			connection = (HttpURLConnection) uri.toURL().openConnection();
-			connection.setRequestMethod("POST");
-			return new HttpResult(connection);
-		} finally {
-			if (connection != null) {
-				connection.disconnect();
-			}
+	/**
+	 * Get the name to record metrics for a request under, which is the method and path with
+	 * the project id replaced so that all projects share one name.
+	 */
+	static String getEndpointName(String method, URI uri) {
+		String path = uri.getPath();
+		if (path == null) {
+			return method;
+		}
+		int start = path.startsWith("/") ? 1 : 0; //$NON-NLS-1$
+		if (path.startsWith(MCConstants.APIPATH_PROJECT_LIST + "/", start)) { //$NON-NLS-1$
+			int idStart = start + MCConstants.APIPATH_PROJECT_LIST.length() + 1;
+			int idEnd = path.indexOf('/', idStart);
+			path = path.substring(start, idStart) + "{id}" + (idEnd < 0 ? "" : path.substring(idEnd)); //$NON-NLS-1$ //$NON-NLS-2$
+		} else {
+			path = path.substring(start);
 		}
+		return method + " " + path; //$NON-NLS-1$
 	}
-	
-	public static HttpResult put(URI uri) throws IOException {
-		HttpURLConnection connection = null;
 
-		MCLogger.log("PUT " + uri);
+	/**
+	 * Make sure the cached result has content in the form the caller wants. Returns null if
+	 * the cached result cannot be used.
+	 */
+	private static <T> HttpResult adaptCachedResult(HttpResult cachedResult, IResponseHandler<T> handler) throws IOException {
+		if (cachedResult == null) {
+			return null;
+		}
+		if (handler == null) {
+			return cachedResult.response != null ? cachedResult : null;
+		}
+		if (cachedResult.content != null) {
+			return cachedResult;
+		}
+		if (cachedResult.response == null) {
+			return null;
+		}
 		try {
-			connection = (HttpURLConnection) uri.toURL().openConnection();
-
-			connection.setRequestMethod("PUT");
-
-			return new HttpResult(connection);
-		} finally {
-			if (connection != null) {
-				connection.disconnect();
-			}
+			return new HttpResult(cachedResult, handler.handle(new StringReader(cachedResult.response)), cachedResult.notModified);
+		} catch (JSONException e) {
+			throw new IOException("Failed to parse the cached response: " + e.getMessage(), e); //$NON-NLS-1$
 		}
 	}
 	
+	public static HttpResult post(URI uri, JSONObject payload) throws IOException {
+		MCLogger.log("POST {} TO {}", payload, uri); //$NON-NLS-1$
+		return execute(METHOD_POST, uri, payload == null ? null : payload.toString(), 0, null, null);
+	}
+	
+	public static HttpResult post(URI uri) throws IOException {
+		MCLogger.log("Empty POST TO {}", uri); //$NON-NLS-1$
+		return execute(METHOD_POST, uri, null, 0, null, null);
+	}
+	
+	public static HttpResult put(URI uri) throws IOException {
+		MCLogger.log("PUT {}", uri); //$NON-NLS-1$
+		return execute(METHOD_PUT, uri, null, 0, null, null);
+	}
+	
 	public static HttpResult head(URI uri) throws IOException {
-		HttpURLConnection connection = null;
-
-		MCLogger.log("HEAD " + uri);
-		try {
-			connection = (HttpURLConnection) uri.toURL().openConnection();
-
-			connection.setRequestMethod("HEAD");
-
-			return new HttpResult(connection);
-		} finally {
-			if (connection != null) {
-				connection.disconnect();
-			}
-		}
+		MCLogger.log("HEAD {}", uri); //$NON-NLS-1$
+		return execute(METHOD_HEAD, uri, null, 0, null, null);
 	}
 	
 	public static HttpResult delete(URI uri) throws IOException {
-		HttpURLConnection connection = null;
-
-		MCLogger.log("DELETE " + uri);
-		try {
-			connection = (HttpURLConnection) uri.toURL().openConnection();
-
-			connection.setRequestMethod("DELETE");
-
-			return new HttpResult(connection);
-		} finally {
-			if (connection != null) {
-				connection.disconnect();
-			}
-		}
+		MCLogger.log("DELETE {}", uri); //$NON-NLS-1$
+		return execute(METHOD_DELETE, uri, null, 0, null, null);
 	}
 }
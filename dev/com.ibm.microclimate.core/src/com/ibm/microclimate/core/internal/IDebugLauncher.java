@@ -19,4 +19,6 @@ public interface IDebugLauncher {
 	
 	public boolean canAttachDebugger(MicroclimateApplication app);
 	
+	public void debugPortChanged(MicroclimateApplication app);
+	
 }
@@ -0,0 +1,44 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.microclimate.core.internal;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+
+import com.ibm.microclimate.core.internal.HttpUtil.HttpResult;
+
+/**
+ * The transport used by HttpUtil to send requests. Implementations are shared by all
+ * Microclimate connections so they must be thread safe.
+ */
+public interface IHttpTransport {
+
+	/**
+	 * Send the request and read the whole response.
+	 *
+	 * @param method The HTTP method, for example GET or POST
+	 * @param uri The request URI
+	 * @param payload The JSON payload to send, can be null
+	 * @param readTimeout The read timeout in milliseconds, 0 for no timeout
+	 * @param headers Extra request headers, can be null
+	 * @param handler Reads a good response instead of reading it into a string, can be null
+	 */
+	public HttpResult execute(String method, URI uri, String payload, int readTimeout,
+			Map<String, String> headers, IResponseHandler<?> handler) throws IOException;
+
+	/**
+	 * Release any pooled connections and threads held by this transport.
+	 */
+	public void dispose();
+
+}
@@ -0,0 +1,487 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.microclimate.core.internal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+import org.json.JSONException;
+
+/**
+ * Pull parser for JSON. Reads the tokens one at a time straight from the reader so that
+ * large responses can be mapped onto objects without first building a string for the whole
+ * response and then a JSONObject / JSONArray tree.
+ *
+ * Numbers and booleans can also be read with nextString, which matches the behaviour of
+ * JSONObject.getString.
+ *
+ * A value of the wrong type throws a JSONException but the reader can still be used, for
+ * example skipToDepth gets past the rest of the enclosing object. Malformed input cannot be
+ * recovered from and every later call throws the same exception.
+ */
+public class JSONStreamReader implements Closeable {
+
+	public enum Token {
+		BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+	}
+
+	// Scopes on the stack
+	private static final int
+			EMPTY_DOCUMENT = 0,
+			NONEMPTY_DOCUMENT = 1,
+			EMPTY_ARRAY = 2,
+			NONEMPTY_ARRAY = 3,
+			EMPTY_OBJECT = 4,
+			DANGLING_NAME = 5,
+			NONEMPTY_OBJECT = 6;
+
+	private final Reader reader;
+	private final char[] buffer = new char[8192];
+	private int pos = 0;
+	private int limit = 0;
+	// Number of characters before the start of the buffer, for error messages
+	private long bufferOffset = 0;
+
+	private int[] stack = new int[32];
+	private int stackSize = 0;
+
+	private Token peeked = null;
+	// The text of a number or boolean that has been peeked
+	private String peekedLiteral = null;
+
+	// Reused for building strings
+	private final StringBuilder builder = new StringBuilder();
+
+	// Set once the input is found to be malformed
+	private JSONException syntaxError = null;
+
+	public JSONStreamReader(Reader reader) {
+		this.reader = reader;
+		push(EMPTY_DOCUMENT);
+	}
+
+	/**
+	 * Get the type of the next token without consuming it.
+	 */
+	public Token peek() throws IOException, JSONException {
+		if (syntaxError != null) {
+			throw syntaxError;
+		}
+		if (peeked == null) {
+			peeked = doPeek();
+		}
+		return peeked;
+	}
+
+	public boolean hasNext() throws IOException, JSONException {
+		Token token = peek();
+		return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+	}
+
+	public void beginObject() throws IOException, JSONException {
+		expect(Token.BEGIN_OBJECT);
+		push(EMPTY_OBJECT);
+		peeked = null;
+	}
+
+	public void endObject() throws IOException, JSONException {
+		expect(Token.END_OBJECT);
+		stackSize--;
+		peeked = null;
+	}
+
+	public void beginArray() throws IOException, JSONException {
+		expect(Token.BEGIN_ARRAY);
+		push(EMPTY_ARRAY);
+		peeked = null;
+	}
+
+	public void endArray() throws IOException, JSONException {
+		expect(Token.END_ARRAY);
+		stackSize--;
+		peeked = null;
+	}
+
+	public String nextName() throws IOException, JSONException {
+		expect(Token.NAME);
+		peeked = null;
+		return readString();
+	}
+
+	/**
+	 * Read a string value. Numbers and booleans are returned as their JSON text and
+	 * null is returned for a JSON null.
+	 */
+	public String nextString() throws IOException, JSONException {
+		Token token = peek();
+		String result;
+		if (token == Token.STRING) {
+			result = readString();
+		} else if (token == Token.NUMBER || token == Token.BOOLEAN) {
+			result = peekedLiteral;
+		} else if (token == Token.NULL) {
+			result = null;
+		} else {
+			throw typeError("Expected a string but was " + token); //$NON-NLS-1$
+		}
+		peeked = null;
+		peekedLiteral = null;
+		return result;
+	}
+
+	/**
+	 * Read a boolean value. The strings "true" and "false" are also accepted.
+	 */
+	public boolean nextBoolean() throws IOException, JSONException {
+		Token token = peek();
+		String value;
+		if (token == Token.BOOLEAN) {
+			value = peekedLiteral;
+		} else if (token == Token.STRING) {
+			value = readString();
+		} else {
+			throw typeError("Expected a boolean but was " + token); //$NON-NLS-1$
+		}
+		peeked = null;
+		peekedLiteral = null;
+		if ("true".equalsIgnoreCase(value)) { //$NON-NLS-1$
+			return true;
+		} else if ("false".equalsIgnoreCase(value)) { //$NON-NLS-1$
+			return false;
+		}
+		throw typeError("Expected a boolean but was " + value); //$NON-NLS-1$
+	}
+
+	public long nextLong() throws IOException, JSONException {
+		String value = nextString();
+		if (value == null) {
+			throw typeError("Expected a number but was " + Token.NULL); //$NON-NLS-1$
+		}
+		try {
+			return Long.parseLong(value);
+		} catch (NumberFormatException e) {
+			try {
+				return (long) Double.parseDouble(value);
+			} catch (NumberFormatException e2) {
+				throw typeError("Expected a number but was " + value); //$NON-NLS-1$
+			}
+		}
+	}
+
+	public void nextNull() throws IOException, JSONException {
+		expect(Token.NULL);
+		peeked = null;
+		peekedLiteral = null;
+	}
+
+	/**
+	 * Get the number of objects and arrays that the reader is in, plus one for the document.
+	 */
+	public int getDepth() {
+		return stackSize;
+	}
+
+	/**
+	 * Skip the rest of the objects and arrays that the reader is in until it is back at the
+	 * given depth, for getting past an element that could not be read.
+	 */
+	public void skipToDepth(int depth) throws IOException, JSONException {
+		while (stackSize > depth) {
+			Token token = peek();
+			if (token == Token.END_OBJECT) {
+				endObject();
+			} else if (token == Token.END_ARRAY) {
+				endArray();
+			} else {
+				skipValue();
+			}
+		}
+	}
+
+	/**
+	 * Skip the next value, including all of its children if it is an object or array.
+	 */
+	public void skipValue() throws IOException, JSONException {
+		int depth = 0;
+		do {
+			Token token = peek();
+			switch (token) {
+				case BEGIN_OBJECT:
+					beginObject();
+					depth++;
+					break;
+				case BEGIN_ARRAY:
+					beginArray();
+					depth++;
+					break;
+				case END_OBJECT:
+					endObject();
+					depth--;
+					break;
+				case END_ARRAY:
+					endArray();
+					depth--;
+					break;
+				case NAME:
+					peeked = null;
+					skipString();
+					break;
+				case STRING:
+					peeked = null;
+					skipString();
+					break;
+				case END_DOCUMENT:
+					throw syntaxError("Unexpected end of input"); //$NON-NLS-1$
+				default:
+					peeked = null;
+					peekedLiteral = null;
+					break;
+			}
+		} while (depth > 0);
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+
+	private Token doPeek() throws IOException, JSONException {
+		int scope = stack[stackSize - 1];
+		int c;
+		switch (scope) {
+			case EMPTY_ARRAY:
+				stack[stackSize - 1] = NONEMPTY_ARRAY;
+				c = nextNonWhitespace();
+				if (c == ']') {
+					return Token.END_ARRAY;
+				}
+				if (c != -1) {
+					pos--;
+				}
+				break;
+			case NONEMPTY_ARRAY:
+				c = nextNonWhitespace();
+				if (c == ']') {
+					return Token.END_ARRAY;
+				} else if (c != ',') {
+					throw syntaxError("Expected ',' or ']'"); //$NON-NLS-1$
+				}
+				break;
+			case EMPTY_OBJECT:
+			case NONEMPTY_OBJECT:
+				stack[stackSize - 1] = DANGLING_NAME;
+				c = nextNonWhitespace();
+				if (c == '}') {
+					return Token.END_OBJECT;
+				}
+				if (scope == NONEMPTY_OBJECT) {
+					if (c != ',') {
+						throw syntaxError("Expected ',' or '}'"); //$NON-NLS-1$
+					}
+					c = nextNonWhitespace();
+				}
+				if (c != '"') {
+					throw syntaxError("Expected a name"); //$NON-NLS-1$
+				}
+				return Token.NAME;
+			case DANGLING_NAME:
+				stack[stackSize - 1] = NONEMPTY_OBJECT;
+				c = nextNonWhitespace();
+				if (c != ':') {
+					throw syntaxError("Expected ':'"); //$NON-NLS-1$
+				}
+				break;
+			case EMPTY_DOCUMENT:
+				stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+				break;
+			case NONEMPTY_DOCUMENT:
+				c = nextNonWhitespace();
+				if (c == -1) {
+					return Token.END_DOCUMENT;
+				}
+				throw syntaxError("Unexpected content after the end of the document"); //$NON-NLS-1$
+			default:
+				throw new IllegalStateException();
+		}
+
+		// Read a value
+		c = nextNonWhitespace();
+		switch (c) {
+			case '{':
+				return Token.BEGIN_OBJECT;
+			case '[':
+				return Token.BEGIN_ARRAY;
+			case '"':
+				return Token.STRING;
+			case -1:
+				throw syntaxError("Unexpected end of input"); //$NON-NLS-1$
+			default:
+				pos--;
+				return readLiteral();
+		}
+	}
+
+	private Token readLiteral() throws IOException, JSONException {
+		builder.setLength(0);
+		while (true) {
+			int c = read();
+			if (c == -1) {
+				break;
+			}
+			if (c == ',' || c == '}' || c == ']' || c == ':' || c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+				pos--;
+				break;
+			}
+			builder.append((char) c);
+		}
+		String literal = builder.toString();
+		if (literal.isEmpty()) {
+			throw syntaxError("Expected a value"); //$NON-NLS-1$
+		}
+		if ("null".equals(literal)) { //$NON-NLS-1$
+			peekedLiteral = null;
+			return Token.NULL;
+		}
+		peekedLiteral = literal;
+		if ("true".equals(literal) || "false".equals(literal)) { //$NON-NLS-1$ //$NON-NLS-2$
+			return Token.BOOLEAN;
+		}
+		char first = literal.charAt(0);
+		if (first == '-' || (first >= '0' && first <= '9')) {
+			return Token.NUMBER;
+		}
+		throw syntaxError("Unexpected value " + literal); //$NON-NLS-1$
+	}
+
+	/**
+	 * Read a string, the opening quote has already been consumed.
+	 */
+	private String readString() throws IOException, JSONException {
+		builder.setLength(0);
+		while (true) {
+			// Copy runs of plain characters straight from the buffer
+			int start = pos;
+			while (pos < limit) {
+				char c = buffer[pos];
+				if (c == '"' || c == '\\') {
+					break;
+				}
+				pos++;
+			}
+			builder.append(buffer, start, pos - start);
+			int c = read();
+			if (c == '"') {
+				return builder.toString();
+			} else if (c == '\\') {
+				builder.append(readEscape());
+			} else if (c == -1) {
+				throw syntaxError("Unterminated string"); //$NON-NLS-1$
+			} else {
+				// Buffer was refilled
+				pos--;
+			}
+		}
+	}
+
+	private void skipString() throws IOException, JSONException {
+		while (true) {
+			int c = read();
+			if (c == '"') {
+				return;
+			} else if (c == '\\') {
+				readEscape();
+			} else if (c == -1) {
+				throw syntaxError("Unterminated string"); //$NON-NLS-1$
+			}
+		}
+	}
+
+	private char readEscape() throws IOException, JSONException {
+		int c = read();
+		switch (c) {
+			case 'b':
+				return '\b';
+			case 't':
+				return '\t';
+			case 'n':
+				return '\n';
+			case 'f':
+				return '\f';
+			case 'r':
+				return '\r';
+			case 'u':
+				int value = 0;
+				for (int i = 0; i < 4; i++) {
+					int digit = Character.digit(read(), 16);
+					if (digit < 0) {
+						throw syntaxError("Invalid unicode escape"); //$NON-NLS-1$
+					}
+					value = (value << 4) + digit;
+				}
+				return (char) value;
+			case -1:
+				throw syntaxError("Unterminated escape sequence"); //$NON-NLS-1$
+			default:
+				// Includes '"', '\\' and '/'
+				return (char) c;
+		}
+	}
+
+	private int nextNonWhitespace() throws IOException {
+		while (true) {
+			int c = read();
+			if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+				return c;
+			}
+		}
+	}
+
+	private int read() throws IOException {
+		if (pos == limit) {
+			bufferOffset += limit;
+			pos = 0;
+			limit = 0;
+			int count = reader.read(buffer, 0, buffer.length);
+			if (count <= 0) {
+				return -1;
+			}
+			limit = count;
+		}
+		return buffer[pos++];
+	}
+
+	private void expect(Token expected) throws IOException, JSONException {
+		Token token = peek();
+		if (token != expected) {
+			throw typeError("Expected " + expected + " but was " + token); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	private void push(int scope) {
+		if (stackSize == stack.length) {
+			int[] newStack = new int[stackSize * 2];
+			System.arraycopy(stack, 0, newStack, 0, stackSize);
+			stack = newStack;
+		}
+		stack[stackSize++] = scope;
+	}
+
+	private JSONException typeError(String message) {
+		return new JSONException(message + " at character " + (bufferOffset + pos)); //$NON-NLS-1$
+	}
+
+	private JSONException syntaxError(String message) {
+		syntaxError = typeError(message);
+		return syntaxError;
+	}
+}
@@ -13,9 +13,9 @@ package com.ibm.microclimate.core.internal;
 
 import java.net.MalformedURLException;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 
 import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
@@ -74,7 +74,7 @@ public class MCEclipseApplication extends MicroclimateApplication {
 	private IConsole buildConsole = null;
 	
 	// New consoles
-	private Set<SocketConsole> activeConsoles = new HashSet<SocketConsole>();
+	private Map<ProjectLogInfo, SocketConsole> activeConsoles = new HashMap<ProjectLogInfo, SocketConsole>();
 	
 	// Debug launch, null if not debugging
 	private ILaunch launch = null;
@@ -110,21 +110,16 @@ public class MCEclipseApplication extends MicroclimateApplication {
 	}
 	
 	public synchronized void addConsole(SocketConsole console) {
-		activeConsoles.add(console);
+		activeConsoles.put(console.logInfo, console);
 	}
 	
 	public synchronized SocketConsole getConsole(ProjectLogInfo logInfo) {
-		for (SocketConsole console : activeConsoles) {
-			if (console.logInfo.isThisLogInfo(logInfo)) {
-				return console;
-			}
-		}
-		return null;
+		return activeConsoles.get(logInfo);
 	}
 	
 	public synchronized void removeConsole(SocketConsole console) {
-		if (console != null) {
-			activeConsoles.remove(console);
+		if (console != null && activeConsoles.get(console.logInfo) == console) {
+			activeConsoles.remove(console.logInfo);
 		}
 	}
 	
@@ -215,6 +210,18 @@ public class MCEclipseApplication extends MicroclimateApplication {
 		}
 	}
 	
+	@Override
+	public synchronized void setDebugPort(int debugPort) {
+		boolean changed = debugPort != getDebugPort();
+		super.setDebugPort(debugPort);
+		if (changed && !projectType.isLanguage(ProjectType.LANGUAGE_JAVA)) {
+			IDebugLauncher launcher = MicroclimateCorePlugin.getDebugLauncher(projectType.language);
+			if (launcher != null) {
+				launcher.debugPortChanged(this);
+			}
+		}
+	}
+	
 	public boolean canAttachDebugger() {
 		if (projectType.isLanguage(ProjectType.LANGUAGE_JAVA)) {
 			IDebugTarget debugTarget = getDebugTarget();
@@ -267,7 +274,7 @@ public class MCEclipseApplication extends MicroclimateApplication {
 		if (buildConsole != null) {
 			consoleList.add(buildConsole);
 		}
-		consoleList.addAll(activeConsoles);
+		consoleList.addAll(activeConsoles.values());
 		if (!consoleList.isEmpty()) {
 			IConsoleManager consoleManager = ConsolePlugin.getDefault().getConsoleManager();
 			consoleManager.removeConsoles(consoleList.toArray(new IConsole[consoleList.size()]));
@@ -333,7 +340,7 @@ public class MCEclipseApplication extends MicroclimateApplication {
 	public boolean supportsDebug() {
 		// Only supported for certain project types
 		if (projectType.isType(ProjectType.TYPE_LIBERTY) || projectType.isType(ProjectType.TYPE_SPRING) || projectType.isType(ProjectType.TYPE_NODEJS)) {
-			// And only if the project supports it
+			// And only if the project supports it, reported as not supported while the capabilities are loading
 			ProjectCapabilities capabilities = getProjectCapabilities();
 			return (capabilities.supportsDebugMode() || capabilities.supportsDebugNoInitMode()) && capabilities.canRestart();
 		}
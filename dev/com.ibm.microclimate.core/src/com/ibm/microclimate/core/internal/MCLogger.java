@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2018 IBM Corporation and others.
+ * Copyright (c) 2018, 2019 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v2.0
  * which accompanies this distribution, and is available at
@@ -11,6 +11,13 @@
 
 package com.ibm.microclimate.core.internal;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
 import org.eclipse.core.runtime.ILog;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
@@ -18,13 +25,40 @@ import org.eclipse.osgi.service.debug.DebugOptions;
 import org.eclipse.osgi.service.debug.DebugOptionsListener;
 
 import com.ibm.microclimate.core.MicroclimateCorePlugin;
+import com.ibm.microclimate.core.internal.metrics.Counter;
+import com.ibm.microclimate.core.internal.metrics.IGauge;
+import com.ibm.microclimate.core.internal.metrics.Metrics;
 
 /**
  * Logging utility
+ *
+ * Messages are written to the plugin log by a background thread through a bounded queue so
+ * logging does not hold up the caller. If the queue is full info messages are dropped (and
+ * the number dropped is logged) and errors are written right away.
  */
 public class MCLogger implements DebugOptionsListener {
 
-	private static final ILog logger = MicroclimateCorePlugin.getDefault().getLog();
+	// Set to false to leave out the class, method and line number of the caller, which are costly to find
+	public static final String CALLER_INFO_PROPERTY = "com.ibm.microclimate.log.callerInfo"; //$NON-NLS-1$
+	public static final String QUEUE_SIZE_PROPERTY = "com.ibm.microclimate.log.queueSize"; //$NON-NLS-1$
+	private static final int DEFAULT_QUEUE_SIZE = 1000;
+
+	private static final boolean includeCallerInfo = !"false".equals(System.getProperty(CALLER_INFO_PROPERTY)); //$NON-NLS-1$
+
+	private static final BlockingQueue<IStatus> queue =
+			new ArrayBlockingQueue<IStatus>(Math.max(1, Integer.getInteger(QUEUE_SIZE_PROPERTY, DEFAULT_QUEUE_SIZE)));
+	private static final AtomicInteger dropped = new AtomicInteger();
+	private static final Counter droppedTotal = Metrics.counter(Metrics.LOG_DROPPED);
+	static {
+		Metrics.registerGauge(Metrics.LOG_QUEUED, new IGauge() {
+			@Override
+			public long getValue() {
+				return queue.size();
+			}
+		});
+	}
+	// Guarded by queue
+	private static Thread writerThread = null;
 
 	private static MCLogger instance;
 
@@ -43,7 +77,7 @@ public class MCLogger implements DebugOptionsListener {
 		return instance;
 	}
 
-	private static boolean
+	private static volatile boolean
 			logInfo;
 
 	private static final String
@@ -63,10 +97,71 @@ public class MCLogger implements DebugOptionsListener {
 		logInfo = debugOptions.getBooleanOption(MicroclimateCorePlugin.PLUGIN_ID + INFO_LEVEL, false);
 	}
 
+	/**
+	 * Turn info logging on or off without the debug options service, for benchmarks and tests
+	 * that run outside of Eclipse.
+	 */
+	public static void setInfoEnabled(boolean enabled) {
+		logInfo = enabled;
+	}
+
+	/**
+	 * Check this before building an expensive message for an info log.
+	 */
+	public static boolean isInfoEnabled() {
+		return logInfo;
+	}
+
 	public static void log(String msg) {
+		if (!logInfo) {
+			return;
+		}
 		writeLog(msg, false, null);
 	}
 
+	/**
+	 * Log an info message that is only built if info logging is enabled.
+	 */
+	public static void log(Supplier<String> msgSupplier) {
+		if (!logInfo) {
+			return;
+		}
+		writeLog(msgSupplier.get(), false, null);
+	}
+
+	/**
+	 * Log an info message with each {} in the pattern replaced by the next argument.
+	 * The arguments are only converted to strings if info logging is enabled.
+	 */
+	public static void log(String pattern, Object arg) {
+		if (!logInfo) {
+			return;
+		}
+		writeLog(format(pattern, arg), false, null);
+	}
+
+	public static void log(String pattern, Object arg1, Object arg2) {
+		if (!logInfo) {
+			return;
+		}
+		writeLog(format(pattern, arg1, arg2), false, null);
+	}
+
+	public static void log(String pattern, Object... args) {
+		if (!logInfo) {
+			return;
+		}
+		writeLog(format(pattern, args), false, null);
+	}
+
+	/**
+	 * Log an info message even if info logging is disabled, for output that the user asked
+	 * for such as a dump of the metrics. It is never dropped when the queue is full.
+	 */
+	public static void logAlways(String msg) {
+		queueLog(msg, false, null, true);
+	}
+
 	public static void logError(String msg) {
 		writeLog(msg, true, null);
 	}
@@ -80,55 +175,140 @@ public class MCLogger implements DebugOptionsListener {
 	}
 
 	/**
-	 * Log the given message to stdout or stderr, depending on isError.
-	 * The message is prepended with a timestamp, as well as the caller's class name, method name, and line number.
+	 * Write any queued messages now, for example when the plugin is stopping.
 	 */
-	private static void writeLog(String msg, boolean isError, Throwable t) {
-		if (!isError && !logInfo) {
-			// Not logging info at this time; do nothing.
-			return;
+	public static void flush() {
+		List<IStatus> pending = new ArrayList<IStatus>();
+		queue.drainTo(pending);
+		for (IStatus status : pending) {
+			write(status);
 		}
+		writeDroppedCount();
+	}
 
-		StackTraceElement[] ste = Thread.currentThread().getStackTrace();
-		StackTraceElement callingMethod = null;
-		for (int x = 0; x < ste.length; x++) {
-			if (ste[x].getMethodName().equals("writeLog")) { //$NON-NLS-1$
-				callingMethod = ste[x++];
-				// Skip over logging methods, we want to print their callers.
-				while (callingMethod.getMethodName().equals("writeLog") //$NON-NLS-1$
-						|| callingMethod.getMethodName().equals("log") //$NON-NLS-1$
-						|| callingMethod.getMethodName().equals("logError")) { //$NON-NLS-1$
-					callingMethod = ste[x++];
-				}
+	static String format(String pattern, Object... args) {
+		StringBuilder builder = new StringBuilder(pattern.length() + 16 * args.length);
+		int start = 0;
+		for (Object arg : args) {
+			int index = pattern.indexOf("{}", start); //$NON-NLS-1$
+			if (index < 0) {
 				break;
 			}
+			builder.append(pattern, start, index).append(arg);
+			start = index + 2;
 		}
+		builder.append(pattern, start, pattern.length());
+		return builder.toString();
+	}
 
-		// String time = TIME_SDF.format(Calendar.getInstance().getTime());
-
-		String callerInfo = "unknown"; //$NON-NLS-1$
-
-		if (callingMethod != null) {
-			String className = callingMethod.getClassName();
-			String simpleClassName = className.substring(className.lastIndexOf('.') + 1);
-
-			callerInfo = String.format("%s.%s:%s", //$NON-NLS-1$
-					simpleClassName, callingMethod.getMethodName(), callingMethod.getLineNumber());
+	/**
+	 * Queue the given message for the plugin log.
+	 * The message is prepended with the caller's class name, method name, and line number.
+	 */
+	private static void writeLog(String msg, boolean isError, Throwable t) {
+		if (!isError && !logInfo) {
+			// Not logging info at this time; do nothing.
+			return;
 		}
+		// Don't lose errors
+		queueLog(msg, isError, t, isError);
+	}
 
-		String type = isError ? "ERROR" : "INFO"; //$NON-NLS-1$ //$NON-NLS-2$
-		String fullMessage = String.format("[%s %s] %s", type, callerInfo, msg); //$NON-NLS-1$
+	private static void queueLog(String msg, boolean isError, Throwable t, boolean mustWrite) {
+		StringBuilder fullMessage = new StringBuilder(msg == null ? 32 : msg.length() + 64);
+		fullMessage.append(isError ? "[ERROR" : "[INFO"); //$NON-NLS-1$ //$NON-NLS-2$
+		if (includeCallerInfo) {
+			appendCallerInfo(fullMessage.append(' '));
+		}
+		fullMessage.append("] ").append(msg); //$NON-NLS-1$
 
 		int level = isError ? IStatus.ERROR : IStatus.INFO;
 		IStatus status;
 
 		if (t != null) {
-			status = new Status(level, MicroclimateCorePlugin.PLUGIN_ID, fullMessage, t);
+			status = new Status(level, MicroclimateCorePlugin.PLUGIN_ID, fullMessage.toString(), t);
 		}
 		else {
-			status = new Status(level, MicroclimateCorePlugin.PLUGIN_ID, fullMessage);
+			status = new Status(level, MicroclimateCorePlugin.PLUGIN_ID, fullMessage.toString());
+		}
+
+		if (queue.offer(status)) {
+			startWriter();
+		} else if (mustWrite) {
+			write(status);
+		} else {
+			dropped.incrementAndGet();
+			droppedTotal.increment();
+		}
+	}
+
+	private static void appendCallerInfo(StringBuilder builder) {
+		// Java 8 has no StackWalker, so only walk the stack for a message that is going to be logged
+		StackTraceElement[] ste = new Throwable().getStackTrace();
+		String loggerClass = MCLogger.class.getName();
+		for (StackTraceElement element : ste) {
+			// Skip over logging methods, we want to print their callers.
+			String className = element.getClassName();
+			if (!className.equals(loggerClass)) {
+				builder.append(className, className.lastIndexOf('.') + 1, className.length())
+						.append('.').append(element.getMethodName())
+						.append(':').append(element.getLineNumber());
+				return;
+			}
+		}
+		builder.append("unknown"); //$NON-NLS-1$
+	}
+
+	private static void startWriter() {
+		synchronized (queue) {
+			if (writerThread != null) {
+				return;
+			}
+			writerThread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					while (true) {
+						try {
+							IStatus status = queue.take();
+							writeDroppedCount();
+							write(status);
+						} catch (InterruptedException e) {
+							synchronized (queue) {
+								writerThread = null;
+							}
+							return;
+						} catch (Throwable t) {
+							// Keep going, there is nowhere to log this
+						}
+					}
+				}
+			}, "Microclimate log writer"); //$NON-NLS-1$
+			writerThread.setDaemon(true);
+			writerThread.start();
 		}
+	}
 
-		logger.log(status);
+	private static void writeDroppedCount() {
+		int count = dropped.getAndSet(0);
+		if (count > 0) {
+			write(new Status(IStatus.WARNING, MicroclimateCorePlugin.PLUGIN_ID,
+					count + " log messages were dropped because the log queue was full")); //$NON-NLS-1$
+		}
+	}
+
+	private static void write(IStatus status) {
+		MicroclimateCorePlugin plugin = MicroclimateCorePlugin.getDefault();
+		ILog logger = plugin == null ? null : plugin.getLog();
+		if (logger != null) {
+			logger.log(status);
+		} else if (status.getSeverity() == IStatus.ERROR) {
+			// Not running in Eclipse
+			System.err.println(status.getMessage());
+			if (status.getException() != null) {
+				status.getException().printStackTrace();
+			}
+		} else {
+			System.out.println(status.getMessage());
+		}
 	}
 }
@@ -15,6 +15,11 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
 
 import org.eclipse.core.runtime.IPath;
 import org.json.JSONObject;
@@ -33,6 +38,10 @@ import com.ibm.microclimate.core.internal.constants.StartMode;
  */
 public class MicroclimateApplication {
 
+	// Wait before fetching the capabilities again after a failure, doubling for each failure in a row
+	private static final long CAPABILITIES_RETRY_MIN_MS = 2000;
+	private static final long CAPABILITIES_RETRY_MAX_MS = 60000;
+
 	public final MicroclimateConnection mcConnection;
 	public final String projectID, name, host;
 	public final IPath fullLocalPath;
@@ -46,10 +55,23 @@ public class MicroclimateApplication {
 	private boolean autoBuild = true;
 	private boolean enabled = true;
 	private String containerId;
+	// Fetched in the background, null until loaded
 	private ProjectCapabilities projectCapabilities;
+	private boolean capabilitiesLoading = false;
+	// Completed when the current fetch finishes, with null if it did not load the capabilities
+	private CompletableFuture<ProjectCapabilities> capabilitiesFuture = null;
+	private int capabilitiesFailures = 0;
+	// No fetch is started in the background before this time after a failure
+	private long capabilitiesRetryTime = 0;
+	// Incremented when a build completes, capabilities fetched for an older build are discarded
+	private int buildGeneration = 0;
 	private String action;
 	private List<ProjectLogInfo> logInfos = Collections.emptyList();
 	private boolean metricsAvailable = false;
+	// Identifies the project state that the log and metrics information was last fetched for
+	private String extrasKey;
+	// Hash of the project json last applied to this application
+	private long fingerprint = MicroclimateApplicationFactory.NO_FINGERPRINT;
 
 	// Must be updated whenever httpPort changes. Can be null
 	private URL baseUrl;
@@ -106,6 +128,13 @@ public class MicroclimateApplication {
 				this.buildDetails = buildDetails;
 			}
 			if (hasChanged && newStatus.isComplete()) {
+				// The capabilities can change with the build so fetch them again
+				buildGeneration++;
+				projectCapabilities = null;
+				// The new build may have fixed whatever made the last fetch fail
+				capabilitiesFailures = 0;
+				capabilitiesRetryTime = 0;
+				prefetchProjectCapabilities();
 				buildComplete();
 			}
 		}
@@ -148,6 +177,30 @@ public class MicroclimateApplication {
 		metricsAvailable = value;
 	}
 	
+	public synchronized void setExtrasKey(String key) {
+		this.extrasKey = key;
+	}
+	
+	public synchronized String getExtrasKey() {
+		return extrasKey;
+	}
+	
+	public synchronized void setFingerprint(long fingerprint) {
+		this.fingerprint = fingerprint;
+	}
+	
+	public synchronized long getFingerprint() {
+		return fingerprint;
+	}
+	
+	/**
+	 * Called when the application is updated from a socket event so that the
+	 * next refresh applies the project json again.
+	 */
+	public synchronized void invalidateFingerprint() {
+		this.fingerprint = MicroclimateApplicationFactory.NO_FINGERPRINT;
+	}
+	
 	/**
 	 * Can return null if this project hasn't started yet (ie httpPort == -1)
 	 */
@@ -225,7 +278,7 @@ public class MicroclimateApplication {
 	}
 
 	public synchronized void setHttpPort(int httpPort) {
-		MCLogger.log("Set HTTP port for " + baseUrl + " to " + httpPort); //$NON-NLS-1$ //$NON-NLS-2$
+		MCLogger.log("Set HTTP port for {} to {}", baseUrl, httpPort); //$NON-NLS-1$
 		this.httpPort = httpPort;
 		try {
 			setBaseUrl();
@@ -235,7 +288,7 @@ public class MicroclimateApplication {
 	}
 
 	public synchronized void setDebugPort(int debugPort) {
-		MCLogger.log("Set debug port for " + baseUrl + " to " + debugPort); //$NON-NLS-1$ //$NON-NLS-2$
+		MCLogger.log("Set debug port for {} to {}", baseUrl, debugPort); //$NON-NLS-1$
 		this.debugPort = debugPort;
 	}
 
@@ -252,25 +305,119 @@ public class MicroclimateApplication {
 	}
 
 	/**
-	 * Get the capabilities of a project.  Cache them because they should not change
-	 * and since they are used to decide which menu items are shown/enabled this method
-	 * needs to be fast.
+	 * Get the capabilities of a project.  They are used to decide which menu items are
+	 * shown/enabled so this method never makes a request.  If the capabilities have not been
+	 * loaded yet then they are fetched in the background and the empty capabilities are returned.
 	 */
-	public ProjectCapabilities getProjectCapabilities() {
-		if (projectCapabilities == null) {
-			try {
-				JSONObject obj = mcConnection.requestProjectCapabilities(this);
-				projectCapabilities = new ProjectCapabilities(obj);
-			} catch (Exception e) {
-				MCLogger.logError("Failed to get the project capabilities for application: " + name, e); //$NON-NLS-1$
-			}
-		}
+	public synchronized ProjectCapabilities getProjectCapabilities() {
 		if (projectCapabilities == null) {
+			prefetchProjectCapabilities();
 			return ProjectCapabilities.emptyCapabilities;
 		}
 		return projectCapabilities;
 	}
 	
+	/**
+	 * Returns true if the capabilities are being fetched.
+	 */
+	public synchronized boolean isProjectCapabilitiesLoading() {
+		return capabilitiesLoading;
+	}
+	
+	/**
+	 * Fetch the capabilities in the background if they are not already loaded or loading.
+	 * The application is updated once they are loaded. After a failed fetch there is no
+	 * new fetch until the retry delay has passed.
+	 */
+	public synchronized void prefetchProjectCapabilities() {
+		if (projectCapabilities != null || capabilitiesLoading || System.currentTimeMillis() < capabilitiesRetryTime) {
+			return;
+		}
+		fetchProjectCapabilities();
+	}
+	
+	/**
+	 * Get the capabilities, waiting up to the timeout for them to be fetched if they are not
+	 * loaded yet. If there is no fetch running one is started, even if a recent one failed.
+	 * Returns null if they could not be loaded in time. This blocks so it is only for actions
+	 * that cannot go ahead without the capabilities.
+	 */
+	public ProjectCapabilities waitForProjectCapabilities(long timeoutMs) throws InterruptedException {
+		long end = System.currentTimeMillis() + timeoutMs;
+		boolean started = false;
+		while (true) {
+			CompletableFuture<ProjectCapabilities> future;
+			synchronized (this) {
+				if (projectCapabilities != null) {
+					return projectCapabilities;
+				}
+				if (!capabilitiesLoading) {
+					if (started) {
+						// The fetch this started failed
+						return null;
+					}
+					fetchProjectCapabilities();
+					started = true;
+				}
+				future = capabilitiesFuture;
+			}
+			long remaining = end - System.currentTimeMillis();
+			if (remaining <= 0) {
+				return null;
+			}
+			try {
+				// Check again whatever the result, a build may have started another fetch
+				future.get(remaining, TimeUnit.MILLISECONDS);
+			} catch (ExecutionException e) {
+				return null;
+			} catch (TimeoutException e) {
+				MCLogger.log("Timed out waiting for the project capabilities for application: " + name); //$NON-NLS-1$
+				return null;
+			}
+		}
+	}
+	
+	// Must hold the lock
+	private void fetchProjectCapabilities() {
+		capabilitiesLoading = true;
+		final CompletableFuture<ProjectCapabilities> future = new CompletableFuture<ProjectCapabilities>();
+		capabilitiesFuture = future;
+		final int generation = buildGeneration;
+		mcConnection.requestProjectCapabilitiesAsync(this).handle(new BiFunction<JSONObject, Throwable, Void>() {
+			@Override
+			public Void apply(JSONObject obj, Throwable t) {
+				ProjectCapabilities loaded = null;
+				synchronized (MicroclimateApplication.this) {
+					capabilitiesLoading = false;
+					if (t != null) {
+						capabilitiesFailures++;
+						long delay = Math.min(CAPABILITIES_RETRY_MAX_MS, CAPABILITIES_RETRY_MIN_MS << Math.min(capabilitiesFailures - 1, 10));
+						capabilitiesRetryTime = System.currentTimeMillis() + delay;
+						if (capabilitiesFailures == 1) {
+							MCLogger.logError("Failed to get the project capabilities for application: " + name, t); //$NON-NLS-1$
+						} else {
+							MCLogger.log("Failed to get the project capabilities for application: " + name //$NON-NLS-1$
+									+ " (" + capabilitiesFailures + " failures in a row, retrying after " + delay + "ms): " + t); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+						}
+					} else if (generation != buildGeneration) {
+						// A build completed while the request was running so fetch again
+						prefetchProjectCapabilities();
+					} else {
+						projectCapabilities = new ProjectCapabilities(obj);
+						capabilitiesFailures = 0;
+						capabilitiesRetryTime = 0;
+						loaded = projectCapabilities;
+					}
+				}
+				future.complete(loaded);
+				if (loaded != null) {
+					MCUtil.updateApplication(MicroclimateApplication.this);
+				}
+				return null;
+			}
+		});
+	}
+	
 	public void clearDebugger() {
 		// Override as needed
 	}
@@ -11,15 +11,21 @@
 
 package com.ibm.microclimate.core.internal;
 
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
 
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import com.ibm.microclimate.core.internal.connection.MicroclimateConnection;
+import com.ibm.microclimate.core.internal.connection.ProjectInfo;
 import com.ibm.microclimate.core.internal.console.ProjectLogInfo;
 import com.ibm.microclimate.core.internal.constants.MCConstants;
 import com.ibm.microclimate.core.internal.constants.ProjectType;
@@ -27,65 +33,172 @@ import com.ibm.microclimate.core.internal.constants.StartMode;
 
 public class MicroclimateApplicationFactory {
 	
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+	
+	public static final long NO_FINGERPRINT = 0;
+	
+	/**
+	 * The applications affected by processing the project json.
+	 */
+	public static class RefreshResult {
+		public final Set<MicroclimateApplication> changed = new LinkedHashSet<MicroclimateApplication>();
+		public final Set<MicroclimateApplication> added = new LinkedHashSet<MicroclimateApplication>();
+		public final Set<String> removed = new LinkedHashSet<String>();
+		
+		/**
+		 * True if applications were added or removed so the whole connection needs updating.
+		 */
+		public boolean isListChanged() {
+			return !added.isEmpty() || !removed.isEmpty();
+		}
+		
+		public boolean isEmpty() {
+			return changed.isEmpty() && !isListChanged();
+		}
+	}
+	
 	/**
 	 * Process the json for all projects, create or update applications as needed.
 	 */
-	public static void getAppsFromProjectsJson(MicroclimateConnection mcConnection, String projectsJson) {
-		getAppsFromProjectsJson(mcConnection, projectsJson, null);
+	public static RefreshResult getAppsFromProjectsJson(MicroclimateConnection mcConnection, String projectsJson) {
+		return getAppsFromProjectsJson(mcConnection, projectsJson, null);
 	}
 	
 	/**
 	 * Process the json for the given projectID or all projects if projectID is null.
 	 */
-	public static void getAppsFromProjectsJson(MicroclimateConnection mcConnection,
+	public static RefreshResult getAppsFromProjectsJson(MicroclimateConnection mcConnection,
 			String projectsJson, String projectID) {
-
 		try {
 			MCLogger.log(projectsJson);
-			JSONArray appArray = new JSONArray(projectsJson);
+			List<ProjectInfo> projects = ProjectInfo.readList(new JSONStreamReader(new StringReader(projectsJson)));
+			return getAppsFromProjects(mcConnection, projects, projectID);
+		} catch (Exception e) {
+			MCLogger.logError("Error parsing json for project array.", e); //$NON-NLS-1$
+		}
+		return new RefreshResult();
+	}
+	
+	/**
+	 * Process the project information for the given projectID or all projects if projectID is null.
+	 * Applications whose information has not changed since the last refresh are skipped.
+	 */
+	public static RefreshResult getAppsFromProjects(MicroclimateConnection mcConnection,
+			List<ProjectInfo> projects, String projectID) {
+
+		RefreshResult result = new RefreshResult();
+		try {
 			Set<String> idSet = new HashSet<String>();
+			List<MicroclimateApplication> extrasApps = new ArrayList<MicroclimateApplication>();
 	
-			for(int i = 0; i < appArray.length(); i++) {
-				JSONObject appJso = appArray.getJSONObject(i);
-				try {
-					String id = appJso.getString(MCConstants.KEY_PROJECT_ID);
-					idSet.add(id);
-					// If a project id was passed in then only process the JSON object for that project
-					if (projectID == null || projectID.equals(id)) {
-						synchronized(MicroclimateApplicationFactory.class) {
+			// Refreshes for different connections do not affect each other
+			synchronized(mcConnection.getRefreshLock()) {
+				for (ProjectInfo info : projects) {
+					try {
+						String id = info.projectID;
+						idSet.add(id);
+						// If a project id was passed in then only process the information for that project
+						if (projectID == null || projectID.equals(id)) {
+							long fingerprint = getFingerprint(info);
 							MicroclimateApplication app = mcConnection.getAppByID(id);
 							if (app != null) {
-								updateApp(app, appJso);
-								if (app.isDeleting()) {
-									// Remove the app from the list
-									mcConnection.removeApp(id);
+								if (app.getFingerprint() != fingerprint) {
+									updateApp(app, info);
+									app.setFingerprint(fingerprint);
+									if (app.isDeleting()) {
+										// Remove the app from the list
+										mcConnection.removeApp(id);
+										result.removed.add(id);
+									} else {
+										result.changed.add(app);
+									}
 								}
 							} else {
-								app = createApp(mcConnection, appJso);
+								app = createApp(mcConnection, info);
 								if (app != null && !app.isDeleting()) {
+									app.setFingerprint(fingerprint);
 									mcConnection.addApp(app);
+									result.added.add(app);
+								}
+							}
+							// Only fetch the log and metrics information if the relevant state has changed
+							if (app != null && !app.isDeleting()) {
+								// Does nothing if already loaded, fetched ahead of time so the menus do not have to wait
+								app.prefetchProjectCapabilities();
+								String extrasKey = getExtrasKey(info);
+								if (!extrasKey.equals(app.getExtrasKey())) {
+									app.setExtrasKey(extrasKey);
+									extrasApps.add(app);
 								}
 							}
 						}
+					} catch (Exception e) {
+						MCLogger.logError("Error processing project information: " + info, e); //$NON-NLS-1$
+					}
+				}
+				
+				// If refreshing all of the projects, remove any projects that are not in the list returned by Microclimate.
+				// This will only happen if something goes wrong and no delete event is received from Microclimate for a
+				// project.
+				if (projectID == null) {
+					for (String id : mcConnection.getAppIds()) {
+						if (!idSet.contains(id)) {
+							mcConnection.removeApp(id);
+							result.removed.add(id);
+						}
 					}
-				} catch (Exception e) {
-					MCLogger.logError("Error parsing project json: " + appJso, e); //$NON-NLS-1$
 				}
 			}
 			
-			// If refreshing all of the projects, remove any projects that are not in the list returned by Microclimate.
-			// This will only happen if something goes wrong and no delete event is received from Microclimate for a
-			// project.
-			if (projectID == null) {
-				for (String id : mcConnection.getAppIds()) {
-					if (!idSet.contains(id)) {
-						mcConnection.removeApp(id);
+			// Fetch the log and metrics information for all of the changed projects at once
+			// rather than one project at a time
+			if (!extrasApps.isEmpty()) {
+				updateAppExtras(extrasApps);
+				for (MicroclimateApplication app : extrasApps) {
+					if (!result.added.contains(app)) {
+						result.changed.add(app);
 					}
 				}
 			}
 		} catch (Exception e) {
-			MCLogger.logError("Error parsing json for project array.", e); //$NON-NLS-1$
+			MCLogger.logError("Error processing the project information.", e); //$NON-NLS-1$
 		}
+		return result;
+	}
+	
+	/**
+	 * Get a 64 bit FNV-1a hash of the project fields that are applied by updateApp.
+	 * If the hash has not changed since the application was last updated then there is nothing to do.
+	 */
+	public static long getFingerprint(ProjectInfo info) {
+		long hash = FNV_OFFSET_BASIS;
+		hash = hashField(hash, info.action);
+		hash = hashField(hash, info.appStatus);
+		hash = hashField(hash, info.buildStatus);
+		hash = hashField(hash, info.detailedBuildStatus);
+		hash = hashField(hash, info.containerId);
+		hash = hashField(hash, info.hasPorts ? "ports" : null); //$NON-NLS-1$
+		hash = hashField(hash, info.exposedPort);
+		hash = hashField(hash, info.exposedDebugPort);
+		hash = hashField(hash, info.contextRoot);
+		hash = hashField(hash, info.startMode);
+		hash = hashField(hash, info.autoBuild == null ? null : info.autoBuild.toString());
+		// Never return the value used for an application that has not been updated yet
+		return hash == NO_FINGERPRINT ? 1 : hash;
+	}
+	
+	private static long hashField(long hash, String value) {
+		if (value != null) {
+			for (int i = 0; i < value.length(); i++) {
+				hash ^= value.charAt(i);
+				hash *= FNV_PRIME;
+			}
+		}
+		// Separate the fields so that moving characters between them changes the hash
+		hash ^= value == null ? 0xfe : 0xff;
+		hash *= FNV_PRIME;
+		return hash;
 	}
 	
 	/**
@@ -93,33 +206,38 @@ public class MicroclimateApplicationFactory {
 	 */
 	public static MicroclimateApplication createApp(MicroclimateConnection mcConnection, JSONObject appJso) {
 		try {
-			// MCLogger.log("app: " + appJso.toString());
-			String name = appJso.getString(MCConstants.KEY_NAME);
-			String id = appJso.getString(MCConstants.KEY_PROJECT_ID);
+			return createApp(mcConnection, ProjectInfo.fromJSON(appJso));
+		} catch(JSONException e) {
+			MCLogger.logError("Error parsing project json: " + appJso, e); //$NON-NLS-1$
+		}
+		return null;
+	}
+	
+	/**
+	 * Use the static project information to create the application.
+	 */
+	public static MicroclimateApplication createApp(MicroclimateConnection mcConnection, ProjectInfo info) {
+		try {
+			if (info.name == null || info.projectID == null || info.locOnDisk == null) {
+				MCLogger.logError("Project information is missing the name, id or location: " + info); //$NON-NLS-1$
+				return null;
+			}
 
 			ProjectType type = ProjectType.UNKNOWN_TYPE;
-			try {
-				// from portal: projectType and buildType are equivalent - however
-				// buildType is always present, projectType is missing for disabled/stopped projects
-				// We should use projectType if it gets fixed.
-				// String typeStr = appJso.getString(MCConstants.KEY_PROJECT_TYPE);
-
-				String typeStr = appJso.getString(MCConstants.KEY_BUILD_TYPE);
-				String languageStr = appJso.getString(MCConstants.KEY_LANGUAGE);
-				type = new ProjectType(typeStr, languageStr);
-			}
-			catch(JSONException e) {
-				MCLogger.logError(e.getMessage() + " in: " + appJso); //$NON-NLS-1$
+			// from portal: projectType and buildType are equivalent - however
+			// buildType is always present, projectType is missing for disabled/stopped projects
+			// We should use projectType if it gets fixed.
+			if (info.buildType != null && info.language != null) {
+				type = new ProjectType(info.buildType, info.language);
+			} else {
+				MCLogger.logError("Missing the build type or language in: " + info); //$NON-NLS-1$
 			}
 
-			String loc = appJso.getString(MCConstants.KEY_LOC_DISK);
-			
-			MicroclimateApplication mcApp = MicroclimateObjectFactory.createMicroclimateApplication(mcConnection, id, name, type, loc);
+			MicroclimateApplication mcApp = MicroclimateObjectFactory.createMicroclimateApplication(mcConnection,
+					info.projectID, info.name, type, info.locOnDisk);
 			
-			updateApp(mcApp, appJso);
+			updateApp(mcApp, info);
 			return mcApp;
-		} catch(JSONException e) {
-			MCLogger.logError("Error parsing project json: " + appJso, e); //$NON-NLS-1$
 		} catch (Exception e) {
 			MCLogger.logError("Error creating new application for project.", e); //$NON-NLS-1$
 		}
@@ -128,122 +246,149 @@ public class MicroclimateApplicationFactory {
 	
 	/**
 	 * Update the application with the dynamic information in the JSON object.
+	 * The log and metrics information is fetched separately by updateAppExtras.
 	 */
 	public static void updateApp(MicroclimateApplication mcApp, JSONObject appJso) {
 		try {
-			// Set the action
-			if (appJso.has(MCConstants.KEY_ACTION)) {
-				String action = appJso.getString(MCConstants.KEY_ACTION);
-				mcApp.setAction(action);
-				if (MCConstants.VALUE_ACTION_DELETING.equals(action)) {
-					// No point in updating any further since this app should be removed from the list
-					return;
-				}
-			} else {
-				mcApp.setAction(null);
-			}
-			
-			// Set the app status
-			if (appJso.has(MCConstants.KEY_APP_STATUS)) {
-				String appStatus = appJso.getString(MCConstants.KEY_APP_STATUS);
-				if (appStatus != null) {
-					mcApp.setAppStatus(appStatus);
-				}
-			}
-			
-			// Set the build status
-			if (appJso.has(MCConstants.KEY_BUILD_STATUS)) {
-				String buildStatus = appJso.getString(MCConstants.KEY_BUILD_STATUS);
-				String detail = ""; //$NON-NLS-1$
-				if (appJso.has(MCConstants.KEY_DETAILED_BUILD_STATUS)) {
-					detail = appJso.getString(MCConstants.KEY_DETAILED_BUILD_STATUS);
-				}
-				mcApp.setBuildStatus(buildStatus, detail);
-			}
-			
-			// Get the container id
-			String containerId = null;
-			if (appJso.has(MCConstants.KEY_CONTAINER_ID)) {
-			    containerId = appJso.getString(MCConstants.KEY_CONTAINER_ID);
-			}
-			mcApp.setContainerId(containerId);
-			
-			// Get the ports if they are available
-			try {
-				if (appJso.has(MCConstants.KEY_PORTS) && (appJso.get(MCConstants.KEY_PORTS) instanceof JSONObject)) {
-					JSONObject portsObj = appJso.getJSONObject(MCConstants.KEY_PORTS);
-	
-					int httpPortNum = -1;
-					if (portsObj != null && portsObj.has(MCConstants.KEY_EXPOSED_PORT)) {
-						String httpPort = portsObj.getString(MCConstants.KEY_EXPOSED_PORT);
-						if (httpPort != null && !httpPort.isEmpty()) {
-							httpPortNum = MCUtil.parsePort(httpPort);
-						}
-					}
-					if (httpPortNum != -1) {
-						mcApp.setHttpPort(httpPortNum);
-					}
+			updateApp(mcApp, ProjectInfo.fromJSON(appJso));
+		} catch(JSONException e) {
+			MCLogger.logError("Error parsing project json: " + appJso, e); //$NON-NLS-1$
+		}
+	}
 	
-					int debugPortNum = -1;
-					if (portsObj != null && portsObj.has(MCConstants.KEY_EXPOSED_DEBUG_PORT)) {
-						String debugPort = portsObj.getString(MCConstants.KEY_EXPOSED_DEBUG_PORT);
-						if (debugPort != null && !debugPort.isEmpty()) {
-							debugPortNum = MCUtil.parsePort(debugPort);
-						}
-					}
-					mcApp.setDebugPort(debugPortNum);
-
-				} else {
-					MCLogger.logError("No ports object on project info for application: " + mcApp.name); //$NON-NLS-1$
-				}
-			} catch (Exception e) {
-				MCLogger.logError("Failed to get the ports for application: " + mcApp.name, e); //$NON-NLS-1$
+	/**
+	 * Update the application with the dynamic project information.
+	 * The log and metrics information is fetched separately by updateAppExtras.
+	 */
+	public static void updateApp(MicroclimateApplication mcApp, ProjectInfo info) {
+		// Set the action
+		mcApp.setAction(info.action);
+		if (info.isDeleting()) {
+			// No point in updating any further since this app should be removed from the list
+			return;
+		}
+		
+		// Set the app status
+		if (info.appStatus != null) {
+			mcApp.setAppStatus(info.appStatus);
+		}
+		
+		// Set the build status
+		if (info.buildStatus != null) {
+			String detail = info.detailedBuildStatus != null ? info.detailedBuildStatus : ""; //$NON-NLS-1$
+			mcApp.setBuildStatus(info.buildStatus, detail);
+		}
+		
+		// Set the container id
+		mcApp.setContainerId(info.containerId);
+		
+		// Set the ports if they are available
+		if (info.hasPorts) {
+			int httpPortNum = -1;
+			if (info.exposedPort != null && !info.exposedPort.isEmpty()) {
+				httpPortNum = MCUtil.parsePort(info.exposedPort);
 			}
-			
-			// Set the context root
-			String contextRoot = null;
-			if (appJso.has(MCConstants.KEY_CONTEXTROOT)) {
-				contextRoot = appJso.getString(MCConstants.KEY_CONTEXTROOT);
-			} else if (appJso.has(MCConstants.KEY_CUSTOM)) {
-				JSONObject custom = appJso.getJSONObject(MCConstants.KEY_CUSTOM);
-				if (custom.has(MCConstants.KEY_CONTEXTROOT)) {
-					contextRoot = custom.getString(MCConstants.KEY_CONTEXTROOT);
-				}
+			if (httpPortNum != -1) {
+				mcApp.setHttpPort(httpPortNum);
 			}
-			mcApp.setContextRoot(contextRoot);
-			
-			// Set the start mode
-			StartMode startMode = StartMode.get(appJso);
-			mcApp.setStartMode(startMode);
-			
-			// Set auto build
-			if (appJso.has(MCConstants.KEY_AUTO_BUILD)) {
-				boolean autoBuild = appJso.getBoolean(MCConstants.KEY_AUTO_BUILD);
-				mcApp.setAutoBuild(autoBuild);
+
+			int debugPortNum = -1;
+			if (info.exposedDebugPort != null && !info.exposedDebugPort.isEmpty()) {
+				debugPortNum = MCUtil.parsePort(info.exposedDebugPort);
 			}
-		} catch(JSONException e) {
-			MCLogger.logError("Error parsing project json: " + appJso, e); //$NON-NLS-1$
+			mcApp.setDebugPort(debugPortNum);
+		} else {
+			MCLogger.logError("No ports object on project info for application: " + mcApp.name); //$NON-NLS-1$
 		}
 		
-		try {
-			// Set the log information
-			List<ProjectLogInfo> logInfos = mcApp.mcConnection.requestProjectLogs(mcApp);
-			mcApp.setLogInfos(logInfos);
-		} catch (Exception e) {
-			MCLogger.logError("An error occurred while updating the log information for project: " + mcApp.name, e);
+		// Set the context root
+		mcApp.setContextRoot(info.contextRoot);
+		
+		// Set the start mode
+		StartMode startMode = info.startMode == null ? null : StartMode.get(info.startMode);
+		if (startMode == null) {
+			MCLogger.log("No start mode or unrecognized start mode: " + info.startMode); //$NON-NLS-1$
+			startMode = StartMode.RUN;
 		}
+		mcApp.setStartMode(startMode);
 		
-		// Check for metrics support
-		boolean metricsAvailable = true;
+		// Set auto build
+		if (info.autoBuild != null) {
+			mcApp.setAutoBuild(info.autoBuild.booleanValue());
+		}
+	}
+	
+	/**
+	 * Get a key for the parts of the project state that affect the log and metrics information.
+	 * The information only needs to be fetched again when this changes.
+	 */
+	public static String getExtrasKey(ProjectInfo info) {
+		StringBuilder key = new StringBuilder();
+		key.append(info.action).append('|');
+		key.append(info.appStatus).append('|');
+		key.append(info.buildStatus).append('|');
+		key.append(info.containerId);
+		return key.toString();
+	}
+	
+	/**
+	 * Fetch the log and metrics information for the applications in parallel and wait
+	 * for all of the requests to complete.  The concurrency is limited by the connection's
+	 * request executor.
+	 */
+	public static void updateAppExtras(Collection<MicroclimateApplication> apps) {
+		List<CompletableFuture<?>> futures = new ArrayList<CompletableFuture<?>>(apps.size() * 2);
+		for (MicroclimateApplication app : apps) {
+			futures.add(updateLogInfos(app));
+			futures.add(updateMetricsAvailable(app));
+		}
 		try {
-			JSONObject obj = mcApp.mcConnection.requestProjectMetricsStatus(mcApp);
-			if (obj != null && obj.has(MCConstants.KEY_METRICS_AVAILABLE)) {
-				metricsAvailable = obj.getBoolean(MCConstants.KEY_METRICS_AVAILABLE);
-			}
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).join();
 		} catch (Exception e) {
-			MCLogger.logError("An error occurred checking if metrics are available: " + mcApp.name, e);
+			// Failures are already handled for each request
+			MCLogger.logError("An error occurred while updating the log and metrics information", e); //$NON-NLS-1$
 		}
-		mcApp.setMetricsAvailable(metricsAvailable);
-		
+	}
+	
+	private static CompletableFuture<?> updateLogInfos(final MicroclimateApplication mcApp) {
+		return mcApp.mcConnection.requestProjectLogsAsync(mcApp).handle(new BiFunction<List<ProjectLogInfo>, Throwable, Void>() {
+			@Override
+			public Void apply(List<ProjectLogInfo> logInfos, Throwable t) {
+				if (t != null) {
+					MCLogger.logError("An error occurred while updating the log information for project: " + mcApp.name, t);
+					// Make sure the information is requested again on the next update
+					mcApp.setExtrasKey(null);
+				} else {
+					mcApp.setLogInfos(logInfos);
+				}
+				return null;
+			}
+		});
+	}
+	
+	private static CompletableFuture<?> updateMetricsAvailable(final MicroclimateApplication mcApp) {
+		return mcApp.mcConnection.requestProjectMetricsStatusAsync(mcApp).handle(new BiFunction<JSONObject, Throwable, Void>() {
+			@Override
+			public Void apply(JSONObject obj, Throwable t) {
+				if (t != null) {
+					MCLogger.logError("An error occurred checking if metrics are available: " + mcApp.name, t);
+					// Keep the previous value and make sure the status is requested again on the next update
+					mcApp.setExtrasKey(null);
+					return null;
+				}
+				
+				// Check for metrics support
+				boolean metricsAvailable = true;
+				try {
+					if (obj != null && obj.has(MCConstants.KEY_METRICS_AVAILABLE)) {
+						metricsAvailable = obj.getBoolean(MCConstants.KEY_METRICS_AVAILABLE);
+					}
+				} catch (JSONException e) {
+					MCLogger.logError("An error occurred checking if metrics are available: " + mcApp.name, e);
+				}
+				mcApp.setMetricsAvailable(metricsAvailable);
+				return null;
+			}
+		});
 	}
 }
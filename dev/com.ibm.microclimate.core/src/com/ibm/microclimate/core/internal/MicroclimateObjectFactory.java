@@ -31,6 +31,10 @@ public class MicroclimateObjectFactory {
 	
 	public static MicroclimateApplication createMicroclimateApplication(MicroclimateConnection mcConnection,
 			String id, String name, ProjectType projectType, String pathInWorkspace) throws Exception {
+		if (mcConnection.isOffline()) {
+			// Offline connections are used outside of Eclipse
+			return new MicroclimateApplication(mcConnection, id, name, projectType, pathInWorkspace);
+		}
 		return new MCEclipseApplication(mcConnection, id, name, projectType, pathInWorkspace);
 	}
 
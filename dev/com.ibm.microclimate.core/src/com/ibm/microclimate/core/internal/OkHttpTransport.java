@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.microclimate.core.internal;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONException;
+
+import com.ibm.microclimate.core.internal.HttpUtil.HttpResult;
+
+import okhttp3.ConnectionPool;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * HTTP transport backed by a single shared OkHttp client. Connections are kept alive and
+ * pooled so that the many small requests made to a Microclimate instance reuse the same
+ * sockets instead of paying for a new TCP handshake each time.
+ */
+public class OkHttpTransport implements IHttpTransport {
+
+	// Allow the pool to be tuned without a rebuild
+	public static final String
+			MAX_IDLE_CONNECTIONS_PROPERTY = "com.ibm.microclimate.http.maxIdleConnections", //$NON-NLS-1$
+			KEEP_ALIVE_PROPERTY = "com.ibm.microclimate.http.keepAliveSeconds", //$NON-NLS-1$
+			MAX_CONNECTIONS_PER_HOST_PROPERTY = "com.ibm.microclimate.http.maxConnectionsPerHost"; //$NON-NLS-1$
+
+	private static final int
+			DEFAULT_MAX_IDLE_CONNECTIONS = 10,
+			DEFAULT_KEEP_ALIVE_SECONDS = 300,
+			DEFAULT_MAX_CONNECTIONS_PER_HOST = 8,
+			CONNECT_TIMEOUT_MS = 10000;
+
+	private static final MediaType JSON_TYPE = MediaType.parse("application/json; charset=utf-8"); //$NON-NLS-1$
+	private static final byte[] EMPTY_BODY = new byte[0];
+
+	private final OkHttpClient client;
+	private final int maxConnectionsPerHost;
+
+	// Clients derived from the base client for each read timeout in use. They all share
+	// the base client's connection pool.
+	private final Map<Integer, OkHttpClient> timeoutClients = new ConcurrentHashMap<Integer, OkHttpClient>();
+
+	// OkHttp does not limit synchronous calls per host so do it here
+	private final ConcurrentHashMap<String, Semaphore> hostPermits = new ConcurrentHashMap<String, Semaphore>();
+
+	public OkHttpTransport() {
+		this(Integer.getInteger(MAX_IDLE_CONNECTIONS_PROPERTY, DEFAULT_MAX_IDLE_CONNECTIONS),
+				Integer.getInteger(KEEP_ALIVE_PROPERTY, DEFAULT_KEEP_ALIVE_SECONDS),
+				Integer.getInteger(MAX_CONNECTIONS_PER_HOST_PROPERTY, DEFAULT_MAX_CONNECTIONS_PER_HOST));
+	}
+
+	public OkHttpTransport(int maxIdleConnections, int keepAliveSeconds, int maxConnectionsPerHost) {
+		this.maxConnectionsPerHost = Math.max(1, maxConnectionsPerHost);
+		this.client = new OkHttpClient.Builder()
+				.connectionPool(new ConnectionPool(maxIdleConnections, keepAliveSeconds, TimeUnit.SECONDS))
+				.connectTimeout(CONNECT_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+				.readTimeout(0, TimeUnit.MILLISECONDS)
+				.writeTimeout(0, TimeUnit.MILLISECONDS)
+				.build();
+		this.client.dispatcher().setMaxRequestsPerHost(this.maxConnectionsPerHost);
+	}
+
+	@Override
+	public HttpResult execute(String method, URI uri, String payload, int readTimeout,
+			Map<String, String> headers, IResponseHandler<?> handler) throws IOException {
+		RequestBody body = null;
+		if (payload != null) {
+			body = RequestBody.create(JSON_TYPE, payload);
+		} else if (requiresRequestBody(method)) {
+			// OkHttp will not send a POST or PUT without a body
+			body = RequestBody.create(null, EMPTY_BODY);
+		}
+		Request.Builder requestBuilder = new Request.Builder()
+				.url(uri.toURL())
+				.method(method, body);
+		if (headers != null) {
+			for (Map.Entry<String, String> header : headers.entrySet()) {
+				requestBuilder.header(header.getKey(), header.getValue());
+			}
+		}
+		Request request = requestBuilder.build();
+
+		Semaphore permits = getPermits(uri);
+		try {
+			permits.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted waiting for a connection to " + uri.getAuthority()); //$NON-NLS-1$
+		}
+
+		try (Response response = getClient(readTimeout).newCall(request).execute()) {
+			int responseCode = response.code();
+			ResponseBody responseBody = response.body();
+			if (response.isSuccessful() && handler != null && responseBody != null) {
+				Object content;
+				try {
+					content = handler.handle(responseBody.charStream());
+				} catch (JSONException e) {
+					throw new IOException("Failed to parse the response from " + uri + ": " + e.getMessage(), e); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+				return new HttpResult(uri, responseCode, null, content, null, response.headers().toMultimap());
+			}
+			String responseString = responseBody == null ? null : responseBody.string();
+			if (response.isSuccessful()) {
+				return new HttpResult(uri, responseCode, responseString, null, response.headers().toMultimap());
+			}
+			return new HttpResult(uri, responseCode, null, responseString, response.headers().toMultimap());
+		} finally {
+			permits.release();
+		}
+	}
+
+	// The methods used with Microclimate that OkHttp requires a body for
+	private static boolean requiresRequestBody(String method) {
+		return "POST".equals(method) || "PUT".equals(method) || "PATCH".equals(method); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	private OkHttpClient getClient(int readTimeout) {
+		if (readTimeout <= 0) {
+			return client;
+		}
+		OkHttpClient timeoutClient = timeoutClients.get(readTimeout);
+		if (timeoutClient == null) {
+			timeoutClient = client.newBuilder().readTimeout(readTimeout, TimeUnit.MILLISECONDS).build();
+			timeoutClients.put(readTimeout, timeoutClient);
+		}
+		return timeoutClient;
+	}
+
+	private Semaphore getPermits(URI uri) {
+		String key = uri.getHost() + ":" + uri.getPort(); //$NON-NLS-1$
+		Semaphore permits = hostPermits.get(key);
+		if (permits == null) {
+			permits = new Semaphore(maxConnectionsPerHost, true);
+			Semaphore existing = hostPermits.putIfAbsent(key, permits);
+			if (existing != null) {
+				permits = existing;
+			}
+		}
+		return permits;
+	}
+
+	@Override
+	public void dispose() {
+		client.dispatcher().executorService().shutdown();
+		client.connectionPool().evictAll();
+	}
+}
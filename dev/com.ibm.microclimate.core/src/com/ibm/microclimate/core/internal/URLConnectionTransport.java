@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.microclimate.core.internal;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.json.JSONException;
+
+import com.ibm.microclimate.core.internal.HttpUtil.HttpResult;
+
+/**
+ * Fallback transport using the JDK HttpURLConnection. The connection is not disconnected
+ * once the response has been read so the JDK keep-alive cache can reuse the socket.
+ */
+public class URLConnectionTransport implements IHttpTransport {
+
+	@Override
+	public HttpResult execute(String method, URI uri, String payload, int readTimeout,
+			Map<String, String> headers, IResponseHandler<?> handler) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) uri.toURL().openConnection();
+		try {
+			connection.setRequestMethod(method);
+			if (readTimeout > 0) {
+				connection.setReadTimeout(readTimeout);
+			}
+			if (headers != null) {
+				for (Map.Entry<String, String> header : headers.entrySet()) {
+					connection.setRequestProperty(header.getKey(), header.getValue());
+				}
+			}
+
+			if (payload != null) {
+				connection.setRequestProperty("Content-Type", "application/json"); //$NON-NLS-1$ //$NON-NLS-2$
+				connection.setDoOutput(true);
+
+				try (OutputStream payloadStream = connection.getOutputStream()) {
+					payloadStream.write(payload.getBytes(StandardCharsets.UTF_8));
+				}
+			}
+
+			if (handler != null) {
+				int responseCode = connection.getResponseCode();
+				if (responseCode > 199 && responseCode < 300) {
+					Object content;
+					try (Reader reader = new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8)) {
+						content = handler.handle(reader);
+					} catch (JSONException e) {
+						throw new IOException("Failed to parse the response from " + uri + ": " + e.getMessage(), e); //$NON-NLS-1$ //$NON-NLS-2$
+					}
+					return new HttpResult(uri, responseCode, null, content, null, connection.getHeaderFields());
+				}
+			}
+
+			return new HttpResult(connection);
+		} catch (IOException e) {
+			// The connection may be in a bad state so don't return it to the keep-alive cache
+			connection.disconnect();
+			throw e;
+		}
+	}
+
+	@Override
+	public void dispose() {
+		// Nothing to do, the JDK manages the keep-alive cache
+	}
+}
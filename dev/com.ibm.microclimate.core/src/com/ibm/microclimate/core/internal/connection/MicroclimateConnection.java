@@ -13,15 +13,18 @@ package com.ibm.microclimate.core.internal.connection;
 
 import java.io.IOException;
 import java.net.ConnectException;
+import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -32,17 +35,22 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import com.ibm.microclimate.core.internal.HttpResponseCache;
 import com.ibm.microclimate.core.internal.HttpUtil;
 import com.ibm.microclimate.core.internal.HttpUtil.HttpResult;
 import com.ibm.microclimate.core.internal.MCLogger;
 import com.ibm.microclimate.core.internal.MCUtil;
 import com.ibm.microclimate.core.internal.MicroclimateApplication;
 import com.ibm.microclimate.core.internal.MicroclimateApplicationFactory;
+import com.ibm.microclimate.core.internal.MicroclimateApplicationFactory.RefreshResult;
+import com.ibm.microclimate.core.internal.connection.MicroclimateRequestExecutor.IRequest;
 import com.ibm.microclimate.core.internal.console.ProjectLogInfo;
 import com.ibm.microclimate.core.internal.console.ProjectTemplateInfo;
 import com.ibm.microclimate.core.internal.constants.MCConstants;
 import com.ibm.microclimate.core.internal.constants.ProjectType;
 import com.ibm.microclimate.core.internal.messages.Messages;
+import com.ibm.microclimate.core.internal.metrics.Histogram;
+import com.ibm.microclimate.core.internal.metrics.Metrics;
 
 /**
  * Represents a connection to a Microclimate instance
@@ -53,6 +61,10 @@ public class MicroclimateConnection {
 	private static final String UNKNOWN_VERSION = "unknown"; //$NON-NLS-1$
 	private static final String BRANCH_VERSION = "\\d{4}_M\\d{1,2}_\\D";
 	private static final Pattern pattern = Pattern.compile(BRANCH_VERSION);
+	private static final long PROJECT_LIST_TTL_MS = Long.getLong("com.ibm.microclimate.projectListTTL", 2000); //$NON-NLS-1$
+
+	private static final Histogram refreshAllTime = Metrics.histogram(Metrics.REFRESH_TIME, "all"); //$NON-NLS-1$
+	private static final Histogram refreshProjectTime = Metrics.histogram(Metrics.REFRESH_TIME, "project"); //$NON-NLS-1$
 
 	public final URI baseUrl;
 	private IPath localWorkspacePath;
@@ -62,19 +74,37 @@ public class MicroclimateConnection {
 
 	private MicroclimateSocket mcSocket;
 	
+	// Runs the REST requests for this connection
+	private final MicroclimateRequestExecutor requestExecutor;
+	
 	private volatile boolean isConnected = true;
+	
+	// True if created for benchmarks or tests without contacting Microclimate
+	private final boolean offline;
 
 	private Map<String, MicroclimateApplication> appMap = new LinkedHashMap<String, MicroclimateApplication>();
+	
+	private final Object refreshLock = new Object();
+	
+	// Whether the api/v1/projects/{id} endpoint is available, null until known
+	private volatile Boolean singleProjectSupported = null;
+	
+	// Recent download of the full project list, shared by requests in a short window
+	private final Object projectListLock = new Object();
+	private CompletableFuture<List<ProjectInfo>> projectListFuture = null;
+	private long projectListTime;
 
 	public static URI buildUrl(String host, int port) throws URISyntaxException {
 		return new URI("http", null, host, port, null, null, null); //$NON-NLS-1$
 	}
 
 	public MicroclimateConnection (URI uri) throws IOException, URISyntaxException, JSONException {
+		this.offline = false;
 		if (!uri.toString().endsWith("/")) { //$NON-NLS-1$
 			uri = uri.resolve("/"); //$NON-NLS-1$
 		}
 		this.baseUrl = uri;
+		this.requestExecutor = new MicroclimateRequestExecutor(uri.getAuthority());
 
 		if (MicroclimateConnectionManager.getActiveConnection(uri.toString()) != null) {
 			onInitFail(NLS.bind(Messages.MicroclimateConnection_ErrConnection_AlreadyExists, baseUrl));
@@ -114,6 +144,32 @@ public class MicroclimateConnection {
 		MCLogger.log("Created " + this); //$NON-NLS-1$
 	}
 	
+	/**
+	 * Create a connection that does not contact Microclimate, for benchmarks that feed it synthetic
+	 * data. The socket is created but not connected, the applications are plain ones and any requests
+	 * go through the HttpUtil transport, which the caller can replace. Not part of the API, the
+	 * benchmarks reach it from a class of their own in this package.
+	 */
+	MicroclimateConnection(URI uri, String versionStr, IPath localWorkspacePath) throws URISyntaxException {
+		this.offline = true;
+		if (!uri.toString().endsWith("/")) { //$NON-NLS-1$
+			uri = uri.resolve("/"); //$NON-NLS-1$
+		}
+		this.baseUrl = uri;
+		this.requestExecutor = new MicroclimateRequestExecutor(uri.getAuthority());
+		this.versionStr = versionStr;
+		this.localWorkspacePath = localWorkspacePath;
+		mcSocket = new MicroclimateSocket(this, false);
+	}
+	
+	/**
+	 * True if this connection does not contact Microclimate, see the package private constructor.
+	 * Its applications have no Eclipse launches, consoles or markers.
+	 */
+	public boolean isOffline() {
+		return offline;
+	}
+	
 	public String getSocketNamespace() {
 		return socketNamespace;
 	}
@@ -136,6 +192,7 @@ public class MicroclimateConnection {
 		if (mcSocket != null) {
 			mcSocket.close();
 		}
+		requestExecutor.shutdown();
 		for (MicroclimateApplication app : appMap.values()) {
 			app.dispose();
 		}
@@ -275,20 +332,164 @@ public class MicroclimateConnection {
 
 	/**
 	 * Refresh this connection's apps using the Microclimate project list endpoint.
-	 * If projectID is not null then only refresh the corresponding application.
+	 * If projectID is not null then only refresh the corresponding application,
+	 * using the single project endpoint if Microclimate supports it.
+	 * Update events are only fired for applications that have changed.
 	 */
 	public void refreshApps(String projectID) {
 
-		final URI projectsURL = baseUrl.resolve(MCConstants.APIPATH_PROJECT_LIST);
-
+		long start = System.nanoTime();
 		try {
-			String projectsResponse = HttpUtil.get(projectsURL).response;
-			MicroclimateApplicationFactory.getAppsFromProjectsJson(this, projectsResponse, projectID);
+			RefreshResult result = null;
+			HttpResult singleResult = null;
+			if (projectID != null) {
+				singleResult = getProjectInfo(projectID);
+				if (isProjectInfo(singleResult)) {
+					result = MicroclimateApplicationFactory.getAppsFromProjects(this,
+							Collections.singletonList((ProjectInfo) singleResult.content), projectID);
+				}
+			}
+			if (result == null) {
+				List<ProjectInfo> projects = getProjectList(true);
+				result = MicroclimateApplicationFactory.getAppsFromProjects(this, projects, projectID);
+				if (projectID != null) {
+					for (ProjectInfo info : projects) {
+						if (info.projectID.equals(projectID)) {
+							onSingleProjectFailed(singleResult);
+							break;
+						}
+					}
+				}
+			}
 			MCLogger.log("App list update success"); //$NON-NLS-1$
+			fireRefreshEvents(result);
 		}
 		catch(Exception e) {
 			MCUtil.openDialog(true, Messages.MicroclimateConnection_ErrGettingProjectListTitle, e.getMessage());
 		}
+		finally {
+			(projectID == null ? refreshAllTime : refreshProjectTime).recordSince(start);
+		}
+	}
+	
+	/**
+	 * Get the project information using the single project endpoint.
+	 * Returns null if the endpoint is not supported or the request failed, otherwise the
+	 * result which has the project information as its content if it was successful.
+	 * The caller falls back to the project list if there is no project information.
+	 */
+	private HttpResult getProjectInfo(String projectID) {
+		if (Boolean.FALSE.equals(singleProjectSupported)) {
+			return null;
+		}
+		
+		final URI projectURL = baseUrl.resolve(MCConstants.APIPATH_PROJECT_LIST + "/" + projectID); //$NON-NLS-1$
+		HttpResult result;
+		try {
+			result = HttpUtil.get(projectURL, false, ProjectInfo.HANDLER);
+		} catch (IOException e) {
+			// Could be a timeout, the project list may still work
+			MCLogger.log("Single project request failed for " + projectID + ": " + e.getMessage()); //$NON-NLS-1$ //$NON-NLS-2$
+			return null;
+		}
+		if (isProjectInfo(result)) {
+			singleProjectSupported = Boolean.TRUE;
+		}
+		return result;
+	}
+	
+	private static boolean isProjectInfo(HttpResult result) {
+		return result != null && result.isGoodResponse && result.content instanceof ProjectInfo;
+	}
+	
+	/**
+	 * Called when the single project endpoint failed for a project that is in the project list.
+	 * The endpoint is only marked as unsupported if the server said it does not know the path
+	 * or method, other failures such as timeouts or server errors may be transient.
+	 */
+	private void onSingleProjectFailed(HttpResult result) {
+		if (isUnsupportedResult(result)) {
+			MCLogger.log("The single project endpoint is not supported by " + baseUrl); //$NON-NLS-1$
+			singleProjectSupported = Boolean.FALSE;
+		}
+	}
+	
+	private boolean isUnsupportedResult(HttpResult result) {
+		return singleProjectSupported == null && result != null
+				&& (result.responseCode == HttpURLConnection.HTTP_NOT_FOUND
+				|| result.responseCode == HttpURLConnection.HTTP_BAD_METHOD);
+	}
+	
+	/**
+	 * Get the full project list. Callers within a short time of each other share one download.
+	 * If forceRefresh is true then a new download is started unless one is already in progress.
+	 * The list is read straight from the response stream and is shared so cannot be modified.
+	 */
+	@SuppressWarnings("unchecked")
+	private List<ProjectInfo> getProjectList(boolean forceRefresh) throws IOException, JSONException {
+		CompletableFuture<List<ProjectInfo>> future;
+		boolean download = false;
+		synchronized(projectListLock) {
+			long now = System.currentTimeMillis();
+			if (projectListFuture == null || (projectListFuture.isDone()
+					&& (forceRefresh || projectListFuture.isCompletedExceptionally() || now - projectListTime > PROJECT_LIST_TTL_MS))) {
+				projectListFuture = new CompletableFuture<List<ProjectInfo>>();
+				projectListTime = now;
+				download = true;
+			}
+			future = projectListFuture;
+		}
+		
+		if (download) {
+			try {
+				final URI projectsURL = baseUrl.resolve(MCConstants.APIPATH_PROJECT_LIST);
+				// An unchanged list comes back from the response cache without being parsed again
+				HttpResult result = HttpUtil.get(projectsURL, forceRefresh, ProjectInfo.LIST_HANDLER);
+				checkResult(result, projectsURL, false);
+				if (result.content == null) {
+					throw new IOException("Server returned good response code, but the content of the result is null for uri: " + projectsURL); //$NON-NLS-1$
+				}
+				future.complete((List<ProjectInfo>) result.content);
+			} catch (Exception e) {
+				future.completeExceptionally(e);
+			}
+		}
+		
+		return MicroclimateRequestExecutor.await(future);
+	}
+	
+	/**
+	 * Remove any cached REST responses for the project, or for all projects if
+	 * projectID is null. Called when a socket event says that the project has changed.
+	 */
+	public void invalidateCache(String projectID) {
+		HttpResponseCache cache = HttpUtil.getResponseCache();
+		URI projectsURL = baseUrl.resolve(MCConstants.APIPATH_PROJECT_LIST);
+		if (projectID == null) {
+			cache.invalidatePrefix(projectsURL);
+		} else {
+			cache.invalidate(projectsURL);
+			URI projectURL = baseUrl.resolve(MCConstants.APIPATH_PROJECT_LIST + "/" + projectID); //$NON-NLS-1$
+			cache.invalidate(projectURL);
+			cache.invalidatePrefix(baseUrl.resolve(MCConstants.APIPATH_PROJECT_LIST + "/" + projectID + "/")); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+	
+	private void fireRefreshEvents(RefreshResult result) {
+		if (result.isListChanged()) {
+			MCUtil.updateConnection(this);
+		} else {
+			for (MicroclimateApplication app : result.changed) {
+				MCUtil.updateApplication(app);
+			}
+		}
+	}
+	
+	/**
+	 * Lock held while the applications for this connection are being created or updated.
+	 */
+	public Object getRefreshLock() {
+		return refreshLock;
 	}
 	
 	public void addApp(MicroclimateApplication app) {
@@ -338,92 +539,139 @@ public class MicroclimateConnection {
 
 	public void requestProjectRestart(MicroclimateApplication app, String launchMode)
 			throws JSONException, IOException {
-
-		String restartEndpoint = MCConstants.APIPATH_PROJECT_LIST + "/" 	//$NON-NLS-1$
-				+ app.projectID + "/" 										//$NON-NLS-1$
-				+ MCConstants.APIPATH_RESTART;
-
-        URI url = baseUrl.resolve(restartEndpoint);
-
-		JSONObject restartProjectPayload = new JSONObject();
-		restartProjectPayload.put(MCConstants.KEY_START_MODE, launchMode);
-
-		// This initiates the restart
-		HttpResult result = HttpUtil.post(url, restartProjectPayload);
-		if (!result.isGoodResponse) {
-			final String msg = String.format("Received bad response from server %d with error message %s", //$NON-NLS-1$
-					result.responseCode, result.error);
-			throw new IOException(msg);
-		}
-		app.invalidatePorts();
+		requestExecutor.execute(projectRestartRequest(app, launchMode));
+	}
+	
+	public CompletableFuture<Void> requestProjectRestartAsync(MicroclimateApplication app, String launchMode) {
+		return requestExecutor.submit(projectRestartRequest(app, launchMode));
+	}
+	
+	private IRequest<Void> projectRestartRequest(final MicroclimateApplication app, final String launchMode) {
+		return new IRequest<Void>() {
+			@Override
+			public Void call() throws IOException, JSONException {
+				String restartEndpoint = MCConstants.APIPATH_PROJECT_LIST + "/" 	//$NON-NLS-1$
+						+ app.projectID + "/" 										//$NON-NLS-1$
+						+ MCConstants.APIPATH_RESTART;
+
+		        URI url = baseUrl.resolve(restartEndpoint);
+
+				JSONObject restartProjectPayload = new JSONObject();
+				restartProjectPayload.put(MCConstants.KEY_START_MODE, launchMode);
+
+				// This initiates the restart
+				HttpResult result = HttpUtil.post(url, restartProjectPayload);
+				if (!result.isGoodResponse) {
+					final String msg = String.format("Received bad response from server %d with error message %s", //$NON-NLS-1$
+							result.responseCode, result.error);
+					throw new IOException(msg);
+				}
+				app.invalidatePorts();
+				return null;
+			}
+		};
 	}
 	
 	public void requestProjectOpenClose(MicroclimateApplication app, boolean enable)
 			throws JSONException, IOException {
-		
-		String action = enable ? MCConstants.APIPATH_OPEN : MCConstants.APIPATH_CLOSE;
-
-		String restartEndpoint = MCConstants.APIPATH_PROJECT_LIST + "/" 	//$NON-NLS-1$
-				+ app.projectID + "/" 										//$NON-NLS-1$
-				+ action;
-
-		URI url = baseUrl.resolve(restartEndpoint);
-
-		// This initiates the restart
-		HttpResult result = HttpUtil.put(url);
-		if (!result.isGoodResponse) {
-			final String msg = String.format("Received bad response from server %d with error message %s", //$NON-NLS-1$
-					result.responseCode, result.error);
-			throw new IOException(msg);
-		}
+		requestExecutor.execute(projectOpenCloseRequest(app, enable));
+	}
+	
+	public CompletableFuture<Void> requestProjectOpenCloseAsync(MicroclimateApplication app, boolean enable) {
+		return requestExecutor.submit(projectOpenCloseRequest(app, enable));
+	}
+	
+	private IRequest<Void> projectOpenCloseRequest(final MicroclimateApplication app, final boolean enable) {
+		return new IRequest<Void>() {
+			@Override
+			public Void call() throws IOException, JSONException {
+				String action = enable ? MCConstants.APIPATH_OPEN : MCConstants.APIPATH_CLOSE;
+
+				String restartEndpoint = MCConstants.APIPATH_PROJECT_LIST + "/" 	//$NON-NLS-1$
+						+ app.projectID + "/" 										//$NON-NLS-1$
+						+ action;
+
+				URI url = baseUrl.resolve(restartEndpoint);
+
+				// This initiates the restart
+				HttpResult result = HttpUtil.put(url);
+				if (!result.isGoodResponse) {
+					final String msg = String.format("Received bad response from server %d with error message %s", //$NON-NLS-1$
+							result.responseCode, result.error);
+					throw new IOException(msg);
+				}
+				return null;
+			}
+		};
 	}
 
 	/**
-	 * Get the project status endpoint, and filter the response for the JSON corresponding to the given project.
+	 * Get the status information for the project from the single project endpoint, or from
+	 * the project list if that is not available.
 	 * @return
-	 * 	The JSON containing the status info for the given project,
+	 * 	The status info for the given project,
 	 * 	or null if the project is not found in the status info.
 	 */
-	public JSONObject requestProjectStatus(MicroclimateApplication app) throws IOException, JSONException {
-		final URI statusUrl = baseUrl.resolve(MCConstants.APIPATH_PROJECT_LIST);
-
-		HttpResult result = HttpUtil.get(statusUrl);
+	public ProjectInfo requestProjectStatus(MicroclimateApplication app) throws IOException, JSONException {
+		return requestExecutor.execute(projectStatusRequest(app));
+	}
+	
+	public CompletableFuture<ProjectInfo> requestProjectStatusAsync(MicroclimateApplication app) {
+		return requestExecutor.submit(projectStatusRequest(app));
+	}
+	
+	private IRequest<ProjectInfo> projectStatusRequest(final MicroclimateApplication app) {
+		return new IRequest<ProjectInfo>() {
+			@Override
+			public ProjectInfo call() throws IOException, JSONException {
+				// Try the single project endpoint first
+				HttpResult singleResult = getProjectInfo(app.projectID);
+				if (isProjectInfo(singleResult)) {
+					return (ProjectInfo) singleResult.content;
+				}
 
-		if (!result.isGoodResponse) {
-			final String msg = String.format("Received bad response from server %d with error message %s", //$NON-NLS-1$
-					result.responseCode, result.error);
-			throw new IOException(msg);
-		}
-		else if (result.response == null) {
-			// I don't think this will ever happen.
-			throw new IOException("Server returned good response code, but null response when getting initial state"); //$NON-NLS-1$
-		}
+				// Fall back to the full project list, shared with any other recent requests. If the failure
+				// could mean the endpoint is unsupported then get a new list since the project may have
+				// been deleted since the shared one was downloaded.
+				for (ProjectInfo info : getProjectList(isUnsupportedResult(singleResult))) {
+					if (info.projectID.equals(app.projectID)) {
+						// Success - found the project of interest
+						onSingleProjectFailed(singleResult);
+						return info;
+					}
+				}
 
-		JSONArray allProjectStatuses = new JSONArray(result.response);
-		for (int i = 0; i < allProjectStatuses.length(); i++) {
-			JSONObject projectStatus = allProjectStatuses.getJSONObject(i);
-			if (projectStatus.getString(MCConstants.KEY_PROJECT_ID).equals(app.projectID)) {
-				// Success - found the project of interest
-				return projectStatus;
+				MCLogger.log("Didn't find status info for project " + app.name); //$NON-NLS-1$
+				return null;
 			}
-		}
-
-		MCLogger.log("Didn't find status info for project " + app.name); //$NON-NLS-1$
-		return null;
+		};
 	}
 	
 	public JSONObject requestProjectMetricsStatus(MicroclimateApplication app) throws IOException, JSONException {
-		if (!app.mcConnection.checkVersion(1905, "2019_M5_E")) {
-			return null;
-		}
-		String endpoint = MCConstants.APIPATH_PROJECT_LIST + "/" 	//$NON-NLS-1$
-				+ app.projectID + "/" 								//$NON-NLS-1$
-				+ MCConstants.APIPATH_METRICS_STATUS;
-
-		URI uri = baseUrl.resolve(endpoint);
-		HttpResult result = HttpUtil.get(uri);
-		checkResult(result, uri, true);
-		return new JSONObject(result.response);
+		return requestExecutor.execute(projectMetricsStatusRequest(app));
+	}
+	
+	public CompletableFuture<JSONObject> requestProjectMetricsStatusAsync(MicroclimateApplication app) {
+		return requestExecutor.submit(projectMetricsStatusRequest(app));
+	}
+	
+	private IRequest<JSONObject> projectMetricsStatusRequest(final MicroclimateApplication app) {
+		return new IRequest<JSONObject>() {
+			@Override
+			public JSONObject call() throws IOException, JSONException {
+				if (!app.mcConnection.checkVersion(1905, "2019_M5_E")) {
+					return null;
+				}
+				String endpoint = MCConstants.APIPATH_PROJECT_LIST + "/" 	//$NON-NLS-1$
+						+ app.projectID + "/" 								//$NON-NLS-1$
+						+ MCConstants.APIPATH_METRICS_STATUS;
+
+				URI uri = baseUrl.resolve(endpoint);
+				HttpResult result = HttpUtil.get(uri);
+				checkResult(result, uri, true);
+				return new JSONObject(result.response);
+			}
+		};
 	}
 
 	/**
@@ -432,40 +680,66 @@ public class MicroclimateConnection {
 	 */
 	public void requestProjectBuild(MicroclimateApplication app, String action)
 			throws JSONException, IOException {
-
-		String buildEndpoint = MCConstants.APIPATH_PROJECT_LIST + "/" 	//$NON-NLS-1$
-				+ app.projectID + "/" 									//$NON-NLS-1$
-				+ MCConstants.APIPATH_BUILD;
-
-		URI url = baseUrl.resolve(buildEndpoint);
-
-		JSONObject buildPayload = new JSONObject();
-		buildPayload.put(MCConstants.KEY_ACTION, action);
-
-		// This initiates the build
-		HttpUtil.post(url, buildPayload);
+		requestExecutor.execute(projectBuildRequest(app, action));
+	}
+	
+	public CompletableFuture<Void> requestProjectBuildAsync(MicroclimateApplication app, String action) {
+		return requestExecutor.submit(projectBuildRequest(app, action));
+	}
+	
+	private IRequest<Void> projectBuildRequest(final MicroclimateApplication app, final String action) {
+		return new IRequest<Void>() {
+			@Override
+			public Void call() throws IOException, JSONException {
+				String buildEndpoint = MCConstants.APIPATH_PROJECT_LIST + "/" 	//$NON-NLS-1$
+						+ app.projectID + "/" 									//$NON-NLS-1$
+						+ MCConstants.APIPATH_BUILD;
+
+				URI url = baseUrl.resolve(buildEndpoint);
+
+				JSONObject buildPayload = new JSONObject();
+				buildPayload.put(MCConstants.KEY_ACTION, action);
+
+				// This initiates the build
+				HttpUtil.post(url, buildPayload);
+				return null;
+			}
+		};
 	}
 	
 	public List<ProjectLogInfo> requestProjectLogs(MicroclimateApplication app) throws JSONException, IOException {
-		List<ProjectLogInfo> logList = new ArrayList<ProjectLogInfo>();
-		if (!app.mcConnection.checkVersion(1905, "2019_M5_E")) {
-			return logList;
-		}
+		return requestExecutor.execute(projectLogsRequest(app));
+	}
+	
+	public CompletableFuture<List<ProjectLogInfo>> requestProjectLogsAsync(MicroclimateApplication app) {
+		return requestExecutor.submit(projectLogsRequest(app));
+	}
+	
+	private IRequest<List<ProjectLogInfo>> projectLogsRequest(final MicroclimateApplication app) {
+		return new IRequest<List<ProjectLogInfo>>() {
+			@Override
+			public List<ProjectLogInfo> call() throws IOException, JSONException {
+				List<ProjectLogInfo> logList = new ArrayList<ProjectLogInfo>();
+				if (!app.mcConnection.checkVersion(1905, "2019_M5_E")) {
+					return logList;
+				}
 		
-		String endpoint = MCConstants.APIPATH_PROJECT_LIST + "/"	//$NON-NLS-1$
-				+ app.projectID + "/"								//$NON-NLS-1$
-				+ MCConstants.APIPATH_LOGS;
+				String endpoint = MCConstants.APIPATH_PROJECT_LIST + "/"	//$NON-NLS-1$
+						+ app.projectID + "/"								//$NON-NLS-1$
+						+ MCConstants.APIPATH_LOGS;
 		
-		URI uri = baseUrl.resolve(endpoint);
-		HttpResult result = HttpUtil.get(uri);
-		checkResult(result, uri, true);
+				URI uri = baseUrl.resolve(endpoint);
+				HttpResult result = HttpUtil.get(uri);
+				checkResult(result, uri, true);
         
-		JSONObject logs = new JSONObject(result.response);
-		JSONArray buildLogs = logs.getJSONArray(MCConstants.KEY_LOG_BUILD);
-		logList.addAll(getLogs(buildLogs, MCConstants.KEY_LOG_BUILD));
-		JSONArray appLogs = logs.getJSONArray(MCConstants.KEY_LOG_APP);
-		logList.addAll(getLogs(appLogs, MCConstants.KEY_LOG_APP));
-		return logList;
+				JSONObject logs = new JSONObject(result.response);
+				JSONArray buildLogs = logs.getJSONArray(MCConstants.KEY_LOG_BUILD);
+				logList.addAll(getLogs(buildLogs, MCConstants.KEY_LOG_BUILD));
+				JSONArray appLogs = logs.getJSONArray(MCConstants.KEY_LOG_APP);
+				logList.addAll(getLogs(appLogs, MCConstants.KEY_LOG_APP));
+				return logList;
+			}
+		};
 	}
 	
 	private List<ProjectLogInfo> getLogs(JSONArray logs, String type) throws JSONException {
@@ -490,144 +764,247 @@ public class MicroclimateConnection {
 	}
 	
 	public void requestEnableLogStream(MicroclimateApplication app, ProjectLogInfo logInfo) throws IOException {
-		String endpoint = MCConstants.APIPATH_PROJECT_LIST + "/" 	//$NON-NLS-1$
-				+ app.projectID + "/" 								//$NON-NLS-1$
-				+ MCConstants.APIPATH_LOGS + "/"					//$NON-NLS-1$
-				+ logInfo.type + "/"								//$NON-NLS-1$
-				+ logInfo.logName;
+		try {
+			requestExecutor.execute(enableLogStreamRequest(app, logInfo));
+		} catch (JSONException e) {
+			throw new IOException(e.getMessage(), e);
+		}
+	}
+	
+	public CompletableFuture<Void> requestEnableLogStreamAsync(MicroclimateApplication app, ProjectLogInfo logInfo) {
+		return requestExecutor.submit(enableLogStreamRequest(app, logInfo));
+	}
+	
+	private IRequest<Void> enableLogStreamRequest(final MicroclimateApplication app, final ProjectLogInfo logInfo) {
+		return new IRequest<Void>() {
+			@Override
+			public Void call() throws IOException, JSONException {
+				String endpoint = MCConstants.APIPATH_PROJECT_LIST + "/" 	//$NON-NLS-1$
+						+ app.projectID + "/" 								//$NON-NLS-1$
+						+ MCConstants.APIPATH_LOGS + "/"					//$NON-NLS-1$
+						+ logInfo.type + "/"								//$NON-NLS-1$
+						+ logInfo.logName;
 		
-		URI uri = baseUrl.resolve(endpoint);
-		HttpResult result = HttpUtil.post(uri);
-        checkResult(result, uri, false);
+				URI uri = baseUrl.resolve(endpoint);
+				HttpResult result = HttpUtil.post(uri);
+		        checkResult(result, uri, false);
+				return null;
+			}
+		};
 	}
 	
 	public void requestDisableLogStream(MicroclimateApplication app, ProjectLogInfo logInfo) throws IOException {
-		String endpoint = MCConstants.APIPATH_PROJECT_LIST + "/" 	//$NON-NLS-1$
-				+ app.projectID + "/" 								//$NON-NLS-1$
-				+ MCConstants.APIPATH_LOGS + "/"					//$NON-NLS-1$
-				+ logInfo.type + "/"								//$NON-NLS-1$
-				+ logInfo.logName;
+		try {
+			requestExecutor.execute(disableLogStreamRequest(app, logInfo));
+		} catch (JSONException e) {
+			throw new IOException(e.getMessage(), e);
+		}
+	}
+	
+	public CompletableFuture<Void> requestDisableLogStreamAsync(MicroclimateApplication app, ProjectLogInfo logInfo) {
+		return requestExecutor.submit(disableLogStreamRequest(app, logInfo));
+	}
+	
+	private IRequest<Void> disableLogStreamRequest(final MicroclimateApplication app, final ProjectLogInfo logInfo) {
+		return new IRequest<Void>() {
+			@Override
+			public Void call() throws IOException, JSONException {
+				String endpoint = MCConstants.APIPATH_PROJECT_LIST + "/" 	//$NON-NLS-1$
+						+ app.projectID + "/" 								//$NON-NLS-1$
+						+ MCConstants.APIPATH_LOGS + "/"					//$NON-NLS-1$
+						+ logInfo.type + "/"								//$NON-NLS-1$
+						+ logInfo.logName;
 		
-		URI uri = baseUrl.resolve(endpoint);
-		HttpResult result = HttpUtil.delete(uri);
-        checkResult(result, uri, false);
+				URI uri = baseUrl.resolve(endpoint);
+				HttpResult result = HttpUtil.delete(uri);
+		        checkResult(result, uri, false);
+				return null;
+			}
+		};
 	}
 	
 	public void requestValidate(MicroclimateApplication app) throws JSONException, IOException {
-		boolean projectIdInPath = checkVersion(1901, "2019_M1_E");
+		requestExecutor.execute(validateRequest(app));
+	}
+	
+	public CompletableFuture<Void> requestValidateAsync(MicroclimateApplication app) {
+		return requestExecutor.submit(validateRequest(app));
+	}
+	
+	private IRequest<Void> validateRequest(final MicroclimateApplication app) {
+		return new IRequest<Void>() {
+			@Override
+			public Void call() throws IOException, JSONException {
+				boolean projectIdInPath = checkVersion(1901, "2019_M1_E");
 		
-		String endpoint;
-		if (projectIdInPath) {
-			endpoint = MCConstants.APIPATH_PROJECT_LIST + "/"	//$NON-NLS-1$
-					+ app.projectID + "/"	//$NON-NLS-1$
-					+ MCConstants.APIPATH_VALIDATE;
-		} else {
-			endpoint = MCConstants.APIPATH_BASE	+ "/"	//$NON-NLS-1$
-					+ MCConstants.APIPATH_VALIDATE;
+				String endpoint;
+				if (projectIdInPath) {
+					endpoint = MCConstants.APIPATH_PROJECT_LIST + "/"	//$NON-NLS-1$
+							+ app.projectID + "/"	//$NON-NLS-1$
+							+ MCConstants.APIPATH_VALIDATE;
+				} else {
+					endpoint = MCConstants.APIPATH_BASE	+ "/"	//$NON-NLS-1$
+							+ MCConstants.APIPATH_VALIDATE;
 					
-		}
+				}
 		
-		URI url = baseUrl.resolve(endpoint);
+				URI url = baseUrl.resolve(endpoint);
 		
-		JSONObject buildPayload = new JSONObject();
-		if (!projectIdInPath) {
-			buildPayload.put(MCConstants.KEY_PROJECT_ID, app.projectID);
-		}
-		buildPayload.put(MCConstants.KEY_PROJECT_TYPE, app.projectType.type);
+				JSONObject buildPayload = new JSONObject();
+				if (!projectIdInPath) {
+					buildPayload.put(MCConstants.KEY_PROJECT_ID, app.projectID);
+				}
+				buildPayload.put(MCConstants.KEY_PROJECT_TYPE, app.projectType.type);
 		
-		HttpResult result = HttpUtil.post(url, buildPayload);
-		if (!result.isGoodResponse) {
-			final String msg = String.format("Received bad response from server %d with error message %s", //$NON-NLS-1$
-					result.responseCode, result.error);
-			throw new IOException(msg);
-		}
+				HttpResult result = HttpUtil.post(url, buildPayload);
+				if (!result.isGoodResponse) {
+					final String msg = String.format("Received bad response from server %d with error message %s", //$NON-NLS-1$
+							result.responseCode, result.error);
+					throw new IOException(msg);
+				}
+				return null;
+			}
+		};
 	}
 	
 	public void requestValidateGenerate(MicroclimateApplication app) throws JSONException, IOException {
-		boolean projectIdInPath = checkVersion(1901, "2019_M1_E");
+		requestExecutor.execute(validateGenerateRequest(app));
+	}
+	
+	public CompletableFuture<Void> requestValidateGenerateAsync(MicroclimateApplication app) {
+		return requestExecutor.submit(validateGenerateRequest(app));
+	}
+	
+	private IRequest<Void> validateGenerateRequest(final MicroclimateApplication app) {
+		return new IRequest<Void>() {
+			@Override
+			public Void call() throws IOException, JSONException {
+				boolean projectIdInPath = checkVersion(1901, "2019_M1_E");
 		
-		String endpoint;
-		if (projectIdInPath) {
-			endpoint = MCConstants.APIPATH_PROJECT_LIST + "/"	//$NON-NLS-1$
-					+ app.projectID + "/"	//$NON-NLS-1$
-					+ MCConstants.APIPATH_VALIDATE_GENERATE;
-		} else {
-			endpoint = MCConstants.APIPATH_BASE	+ "/"	//$NON-NLS-1$
-					+ MCConstants.APIPATH_VALIDATE_GENERATE;
+				String endpoint;
+				if (projectIdInPath) {
+					endpoint = MCConstants.APIPATH_PROJECT_LIST + "/"	//$NON-NLS-1$
+							+ app.projectID + "/"	//$NON-NLS-1$
+							+ MCConstants.APIPATH_VALIDATE_GENERATE;
+				} else {
+					endpoint = MCConstants.APIPATH_BASE	+ "/"	//$NON-NLS-1$
+							+ MCConstants.APIPATH_VALIDATE_GENERATE;
 					
-		}
+				}
 		
-		URI url = baseUrl.resolve(endpoint);
+				URI url = baseUrl.resolve(endpoint);
 		
-		JSONObject buildPayload = new JSONObject();
-		if (!projectIdInPath) {
-			buildPayload.put(MCConstants.KEY_PROJECT_ID, app.projectID);
-		}
-		buildPayload.put(MCConstants.KEY_PROJECT_TYPE, app.projectType.type);
-		buildPayload.put(MCConstants.KEY_AUTO_GENERATE, true);
+				JSONObject buildPayload = new JSONObject();
+				if (!projectIdInPath) {
+					buildPayload.put(MCConstants.KEY_PROJECT_ID, app.projectID);
+				}
+				buildPayload.put(MCConstants.KEY_PROJECT_TYPE, app.projectType.type);
+				buildPayload.put(MCConstants.KEY_AUTO_GENERATE, true);
 		
-		HttpResult result = HttpUtil.post(url, buildPayload);
-		if (!result.isGoodResponse) {
-			final String msg = String.format("Received bad response from server %d with error message %s", //$NON-NLS-1$
-					result.responseCode, result.error);
-			throw new IOException(msg);
-		}
+				HttpResult result = HttpUtil.post(url, buildPayload);
+				if (!result.isGoodResponse) {
+					final String msg = String.format("Received bad response from server %d with error message %s", //$NON-NLS-1$
+							result.responseCode, result.error);
+					throw new IOException(msg);
+				}
 		
-		// Perform validation again to clear the errors/warnings that have been fixed
-		requestValidate(app);
+				// Perform validation again to clear the errors/warnings that have been fixed
+				requestValidate(app);
+				return null;
+			}
+		};
 	}
 	
 	public JSONObject requestProjectCapabilities(MicroclimateApplication app) throws IOException, JSONException {
-		final URI statusUrl = baseUrl.resolve(MCConstants.APIPATH_PROJECT_LIST + "/" + app.projectID + "/" + MCConstants.APIPATH_CAPABILITIES);
-
-		HttpResult result = HttpUtil.get(statusUrl);
-
-		if (!result.isGoodResponse) {
-			final String msg = String.format("Received bad response from server %d with error message %s", //$NON-NLS-1$
-					result.responseCode, result.error);
-			throw new IOException(msg);
-		} else if (result.response == null) {
-			// I don't think this will ever happen.
-			throw new IOException("Server returned good response code, but empty content when getting project capabilities"); //$NON-NLS-1$
-		}
+		return requestExecutor.execute(projectCapabilitiesRequest(app));
+	}
+	
+	public CompletableFuture<JSONObject> requestProjectCapabilitiesAsync(MicroclimateApplication app) {
+		return requestExecutor.submit(projectCapabilitiesRequest(app));
+	}
+	
+	private IRequest<JSONObject> projectCapabilitiesRequest(final MicroclimateApplication app) {
+		return new IRequest<JSONObject>() {
+			@Override
+			public JSONObject call() throws IOException, JSONException {
+				final URI statusUrl = baseUrl.resolve(MCConstants.APIPATH_PROJECT_LIST + "/" + app.projectID + "/" + MCConstants.APIPATH_CAPABILITIES);
+
+				HttpResult result = HttpUtil.get(statusUrl);
+
+				if (!result.isGoodResponse) {
+					final String msg = String.format("Received bad response from server %d with error message %s", //$NON-NLS-1$
+							result.responseCode, result.error);
+					throw new IOException(msg);
+				} else if (result.response == null) {
+					// I don't think this will ever happen.
+					throw new IOException("Server returned good response code, but empty content when getting project capabilities"); //$NON-NLS-1$
+				}
 
-		JSONObject capabilities = new JSONObject(result.response);
-		return capabilities;
+				JSONObject capabilities = new JSONObject(result.response);
+				return capabilities;
+			}
+		};
 	}
 	
 	public List<ProjectTemplateInfo> requestProjectTemplates() throws IOException, JSONException {
-		List<ProjectTemplateInfo> templates = new ArrayList<ProjectTemplateInfo>();
-		final URI uri = baseUrl.resolve(MCConstants.APIPATH_BASEV2 + "/" + MCConstants.APIPATH_PROJECT_TYPES);
-		HttpResult result = HttpUtil.get(uri);
-		checkResult(result, uri, true);
+		return requestExecutor.execute(projectTemplatesRequest());
+	}
+	
+	public CompletableFuture<List<ProjectTemplateInfo>> requestProjectTemplatesAsync() {
+		return requestExecutor.submit(projectTemplatesRequest());
+	}
+	
+	private IRequest<List<ProjectTemplateInfo>> projectTemplatesRequest() {
+		return new IRequest<List<ProjectTemplateInfo>>() {
+			@Override
+			public List<ProjectTemplateInfo> call() throws IOException, JSONException {
+				List<ProjectTemplateInfo> templates = new ArrayList<ProjectTemplateInfo>();
+				final URI uri = baseUrl.resolve(MCConstants.APIPATH_BASEV2 + "/" + MCConstants.APIPATH_PROJECT_TYPES);
+				HttpResult result = HttpUtil.get(uri);
+				checkResult(result, uri, true);
 		
-		JSONArray templateArray = new JSONArray(result.response);
-		for (int i = 0; i < templateArray.length(); i++) {
-			templates.add(new ProjectTemplateInfo(templateArray.getJSONObject(i)));
-		}
+				JSONArray templateArray = new JSONArray(result.response);
+				for (int i = 0; i < templateArray.length(); i++) {
+					templates.add(new ProjectTemplateInfo(templateArray.getJSONObject(i)));
+				}
 		
-		return templates;
+				return templates;
+			}
+		};
 	}
 	
 	public void requestProjectCreate(ProjectTemplateInfo templateInfo, String name)
 			throws JSONException, IOException {
-		
-		// Special case node.js projects which don't have a template
-		if (ProjectType.LANGUAGE_NODEJS.equals(templateInfo.getLanguage())) {
-			requestNodeProjectCreate(name);
-			return;
-		}
+		requestExecutor.execute(projectCreateRequest(templateInfo, name));
+	}
+	
+	public CompletableFuture<Void> requestProjectCreateAsync(ProjectTemplateInfo templateInfo, String name) {
+		return requestExecutor.submit(projectCreateRequest(templateInfo, name));
+	}
+	
+	private IRequest<Void> projectCreateRequest(final ProjectTemplateInfo templateInfo, final String name) {
+		return new IRequest<Void>() {
+			@Override
+			public Void call() throws IOException, JSONException {
+				// Special case node.js projects which don't have a template
+				if (ProjectType.LANGUAGE_NODEJS.equals(templateInfo.getLanguage())) {
+					requestNodeProjectCreate(name);
+					return null;
+				}
 
-		String endpoint = MCConstants.APIPATH_BASEV2 + "/" + MCConstants.APIPATH_PROJECTS;
+				String endpoint = MCConstants.APIPATH_BASEV2 + "/" + MCConstants.APIPATH_PROJECTS;
 
-		URI uri = baseUrl.resolve(endpoint);
+				URI uri = baseUrl.resolve(endpoint);
 
-		JSONObject createProjectPayload = new JSONObject();
-		createProjectPayload.put(MCConstants.KEY_NAME, name);
-		createProjectPayload.put(MCConstants.KEY_EXTENSION, templateInfo.getExtension());
+				JSONObject createProjectPayload = new JSONObject();
+				createProjectPayload.put(MCConstants.KEY_NAME, name);
+				createProjectPayload.put(MCConstants.KEY_EXTENSION, templateInfo.getExtension());
 
-		HttpResult result = HttpUtil.post(uri, createProjectPayload);
-		checkResult(result, uri, false);
+				HttpResult result = HttpUtil.post(uri, createProjectPayload);
+				checkResult(result, uri, false);
+				return null;
+			}
+		};
 	}
 	
 	private void checkResult(HttpResult result, URI uri, boolean checkContent) throws IOException {
@@ -713,6 +1090,8 @@ public class MicroclimateConnection {
 		
 		this.connectionErrorMsg = null;
 		isConnected = true;
+		// Events may have been missed while disconnected
+		invalidateCache(null);
 		refreshApps(null);
 		MCUtil.updateConnection(this);
 	}
@@ -733,71 +1112,137 @@ public class MicroclimateConnection {
 	
 	public void requestProjectCreate(ProjectType type, String name)
 			throws JSONException, IOException {
-		if (type.isType(ProjectType.TYPE_LIBERTY)) {
-			requestMicroprofileProjectCreate(name);
-		} else if (type.isType(ProjectType.TYPE_SPRING)) {
-			requestSpringProjectCreate(name);
-		} else if (type.isType(ProjectType.TYPE_NODEJS)) {
-			requestNodeProjectCreate(name);
-		} else {
-			MCLogger.log("Creation of projects with type " + type + " is not supported.");  //$NON-NLS-1$ //$NON-NLS-2$
-		}	
+		requestExecutor.execute(projectCreateRequest(type, name));
+	}
+	
+	public CompletableFuture<Void> requestProjectCreateAsync(ProjectType type, String name) {
+		return requestExecutor.submit(projectCreateRequest(type, name));
+	}
+	
+	private IRequest<Void> projectCreateRequest(final ProjectType type, final String name) {
+		return new IRequest<Void>() {
+			@Override
+			public Void call() throws IOException, JSONException {
+				if (type.isType(ProjectType.TYPE_LIBERTY)) {
+					requestMicroprofileProjectCreate(name);
+				} else if (type.isType(ProjectType.TYPE_SPRING)) {
+					requestSpringProjectCreate(name);
+				} else if (type.isType(ProjectType.TYPE_NODEJS)) {
+					requestNodeProjectCreate(name);
+				} else {
+					MCLogger.log("Creation of projects with type " + type + " is not supported.");  //$NON-NLS-1$ //$NON-NLS-2$
+				}	
+				return null;
+			}
+		};
 	}
 
 	public void requestMicroprofileProjectCreate(String name)
 			throws JSONException, IOException {
+		requestExecutor.execute(microprofileProjectCreateRequest(name));
+	}
+	
+	public CompletableFuture<Void> requestMicroprofileProjectCreateAsync(String name) {
+		return requestExecutor.submit(microprofileProjectCreateRequest(name));
+	}
+	
+	private IRequest<Void> microprofileProjectCreateRequest(final String name) {
+		return new IRequest<Void>() {
+			@Override
+			public Void call() throws IOException, JSONException {
+				String createEndpoint = MCConstants.APIPATH_PROJECT_LIST;
 
-		String createEndpoint = MCConstants.APIPATH_PROJECT_LIST;
-
-        URI url = baseUrl.resolve(createEndpoint);
+		        URI url = baseUrl.resolve(createEndpoint);
 
-		JSONObject createProjectPayload = new JSONObject();
-		createProjectPayload.put(MCConstants.KEY_NAME, name);
-		createProjectPayload.put(MCConstants.KEY_LANGUAGE, "java");
-		createProjectPayload.put(MCConstants.KEY_FRAMEWORK, "microprofile");
+				JSONObject createProjectPayload = new JSONObject();
+				createProjectPayload.put(MCConstants.KEY_NAME, name);
+				createProjectPayload.put(MCConstants.KEY_LANGUAGE, "java");
+				createProjectPayload.put(MCConstants.KEY_FRAMEWORK, "microprofile");
 
-		HttpUtil.post(url, createProjectPayload);
+				HttpUtil.post(url, createProjectPayload);
+				return null;
+			}
+		};
 	}
 	
 	public void requestSpringProjectCreate(String name)
 			throws JSONException, IOException {
+		requestExecutor.execute(springProjectCreateRequest(name));
+	}
+	
+	public CompletableFuture<Void> requestSpringProjectCreateAsync(String name) {
+		return requestExecutor.submit(springProjectCreateRequest(name));
+	}
+	
+	private IRequest<Void> springProjectCreateRequest(final String name) {
+		return new IRequest<Void>() {
+			@Override
+			public Void call() throws IOException, JSONException {
+				String createEndpoint = MCConstants.APIPATH_PROJECT_LIST;
 
-		String createEndpoint = MCConstants.APIPATH_PROJECT_LIST;
-
-        URI url = baseUrl.resolve(createEndpoint);
+		        URI url = baseUrl.resolve(createEndpoint);
 
-		JSONObject createProjectPayload = new JSONObject();
-		createProjectPayload.put(MCConstants.KEY_NAME, name);
-		createProjectPayload.put(MCConstants.KEY_LANGUAGE, "java");
-		createProjectPayload.put(MCConstants.KEY_FRAMEWORK, "spring");
+				JSONObject createProjectPayload = new JSONObject();
+				createProjectPayload.put(MCConstants.KEY_NAME, name);
+				createProjectPayload.put(MCConstants.KEY_LANGUAGE, "java");
+				createProjectPayload.put(MCConstants.KEY_FRAMEWORK, "spring");
 
-		HttpUtil.post(url, createProjectPayload);
+				HttpUtil.post(url, createProjectPayload);
+				return null;
+			}
+		};
 	}
 	
 	public void requestNodeProjectCreate(String name)
 			throws JSONException, IOException {
+		requestExecutor.execute(nodeProjectCreateRequest(name));
+	}
+	
+	public CompletableFuture<Void> requestNodeProjectCreateAsync(String name) {
+		return requestExecutor.submit(nodeProjectCreateRequest(name));
+	}
+	
+	private IRequest<Void> nodeProjectCreateRequest(final String name) {
+		return new IRequest<Void>() {
+			@Override
+			public Void call() throws IOException, JSONException {
+				String createEndpoint = MCConstants.APIPATH_PROJECT_LIST;
 
-		String createEndpoint = MCConstants.APIPATH_PROJECT_LIST;
-
-		URI uri = baseUrl.resolve(createEndpoint);
+				URI uri = baseUrl.resolve(createEndpoint);
 
-		JSONObject createProjectPayload = new JSONObject();
-		createProjectPayload.put(MCConstants.KEY_NAME, name);
-		createProjectPayload.put(MCConstants.KEY_LANGUAGE, "nodejs");
+				JSONObject createProjectPayload = new JSONObject();
+				createProjectPayload.put(MCConstants.KEY_NAME, name);
+				createProjectPayload.put(MCConstants.KEY_LANGUAGE, "nodejs");
 
-		HttpResult result = HttpUtil.post(uri, createProjectPayload);
-		checkResult(result, uri, false);
+				HttpResult result = HttpUtil.post(uri, createProjectPayload);
+				checkResult(result, uri, false);
+				return null;
+			}
+		};
 	}
 
 	public void requestProjectDelete(String projectId)
 			throws JSONException, IOException {
+		requestExecutor.execute(projectDeleteRequest(projectId));
+	}
+	
+	public CompletableFuture<Void> requestProjectDeleteAsync(String projectId) {
+		return requestExecutor.submit(projectDeleteRequest(projectId));
+	}
+	
+	private IRequest<Void> projectDeleteRequest(final String projectId) {
+		return new IRequest<Void>() {
+			@Override
+			public Void call() throws IOException, JSONException {
+				String endpoint = MCConstants.APIPATH_PROJECT_LIST + "/" + projectId;
 
-		String endpoint = MCConstants.APIPATH_PROJECT_LIST + "/" + projectId;
-
-		URI uri = baseUrl.resolve(endpoint);
+				URI uri = baseUrl.resolve(endpoint);
 
-		HttpResult result = HttpUtil.delete(uri);
-		checkResult(result, uri, false);
+				HttpResult result = HttpUtil.delete(uri);
+				checkResult(result, uri, false);
+				return null;
+			}
+		};
 	}
 
 	public IPath getWorkspacePath() {
@@ -164,7 +164,7 @@ public class MicroclimateConnectionManager {
 			prefsBuilder.append(mcc).append('\n');
 		}
 
-		MCLogger.log("Writing connections to preferences: " + prefsBuilder.toString()); //$NON-NLS-1$
+		MCLogger.log("Writing connections to preferences: {}", prefsBuilder); //$NON-NLS-1$
 
 		MicroclimateCorePlugin.getDefault().getPreferenceStore()
 				.setValue(CONNECTION_LIST_PREFSKEY, prefsBuilder.toString());
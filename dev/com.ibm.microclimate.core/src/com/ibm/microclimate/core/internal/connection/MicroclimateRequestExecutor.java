@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.microclimate.core.internal.connection;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import org.json.JSONException;
+
+/**
+ * Runs the REST requests for a Microclimate connection on a bounded pool of daemon threads.
+ * Each connection owns one executor which is shut down when the connection is closed.
+ */
+public class MicroclimateRequestExecutor {
+
+	public static final String MAX_THREADS_PROPERTY = "com.ibm.microclimate.connection.maxConcurrentRequests"; //$NON-NLS-1$
+	private static final int DEFAULT_MAX_THREADS = 6;
+	private static final long IDLE_THREAD_TIMEOUT_SECONDS = 30;
+
+	/**
+	 * A single REST request. Implementations are run on the executor's threads
+	 * or inline when called from one of them.
+	 */
+	public interface IRequest<T> {
+		public T call() throws IOException, JSONException;
+	}
+
+	// Shared by all connections, only used to fire timeouts
+	private static final ScheduledExecutorService timeoutScheduler;
+	static {
+		ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "Microclimate request timeout"); //$NON-NLS-1$
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		scheduler.setRemoveOnCancelPolicy(true);
+		timeoutScheduler = scheduler;
+	}
+
+	private final ThreadPoolExecutor executor;
+
+	public MicroclimateRequestExecutor(final String name) {
+		this(name, Integer.getInteger(MAX_THREADS_PROPERTY, DEFAULT_MAX_THREADS));
+	}
+
+	public MicroclimateRequestExecutor(final String name, int maxThreads) {
+		maxThreads = Math.max(1, maxThreads);
+		executor = new ThreadPoolExecutor(maxThreads, maxThreads, IDLE_THREAD_TIMEOUT_SECONDS, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+					private final AtomicInteger count = new AtomicInteger();
+
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread thread = new RequestThread(r, "Microclimate request " + name + " #" + count.incrementAndGet()); //$NON-NLS-1$ //$NON-NLS-2$
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Run the request asynchronously. Cancelling the returned future interrupts the request
+	 * if it is running.
+	 */
+	public <T> CompletableFuture<T> submit(final IRequest<T> request) {
+		final RequestFuture<T> future = new RequestFuture<T>();
+		try {
+			future.task = executor.submit(new Runnable() {
+				@Override
+				public void run() {
+					if (future.isDone()) {
+						// Cancelled or timed out while queued
+						return;
+					}
+					try {
+						future.complete(request.call());
+					} catch (Throwable t) {
+						future.completeExceptionally(t);
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			future.completeExceptionally(new IOException("The connection has been closed", e)); //$NON-NLS-1$
+		}
+		return future;
+	}
+
+	/**
+	 * Run the request asynchronously, failing with a TimeoutException if it has not
+	 * completed in the given time.
+	 */
+	public <T> CompletableFuture<T> submit(IRequest<T> request, long timeout, TimeUnit unit) {
+		return withTimeout(submit(request), timeout, unit);
+	}
+
+	/**
+	 * Run the request and wait for the result. If called from one of the request threads the
+	 * request is run inline so that requests which make other requests cannot deadlock the pool.
+	 */
+	public <T> T execute(IRequest<T> request) throws IOException, JSONException {
+		if (Thread.currentThread() instanceof RequestThread) {
+			return request.call();
+		}
+		return await(submit(request));
+	}
+
+	/**
+	 * Complete the future exceptionally with a TimeoutException and cancel it if it has
+	 * not completed in the given time.
+	 */
+	public static <T> CompletableFuture<T> withTimeout(final CompletableFuture<T> future, final long timeout, final TimeUnit unit) {
+		if (timeout <= 0 || future.isDone()) {
+			return future;
+		}
+		final Future<?> timer = timeoutScheduler.schedule(new Runnable() {
+			@Override
+			public void run() {
+				if (future.completeExceptionally(new TimeoutException("The request did not complete within " //$NON-NLS-1$
+						+ unit.toMillis(timeout) + "ms"))) { //$NON-NLS-1$
+					future.cancel(true);
+				}
+			}
+		}, timeout, unit);
+		future.whenComplete(new BiConsumer<T, Throwable>() {
+			@Override
+			public void accept(T result, Throwable t) {
+				timer.cancel(false);
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * Wait for the future and unwrap any failure into the exception types thrown by
+	 * the synchronous request methods.
+	 */
+	public static <T> T await(CompletableFuture<T> future) throws IOException, JSONException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted waiting for the request to complete"); //$NON-NLS-1$
+		} catch (CancellationException e) {
+			throw new InterruptedIOException("The request was cancelled"); //$NON-NLS-1$
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			} else if (cause instanceof JSONException) {
+				throw (JSONException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IOException(cause.getMessage(), cause);
+		}
+	}
+
+	/**
+	 * Cancel any queued or running requests and stop the threads.
+	 */
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	private static class RequestThread extends Thread {
+		public RequestThread(Runnable r, String name) {
+			super(r, name);
+		}
+	}
+
+	private static class RequestFuture<T> extends CompletableFuture<T> {
+		private volatile Future<?> task;
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			boolean cancelled = super.cancel(mayInterruptIfRunning);
+			// Also called after a timeout so always try to stop the running task
+			Future<?> runningTask = task;
+			if (runningTask != null) {
+				runningTask.cancel(true);
+			}
+			return cancelled;
+		}
+	}
+}
@@ -14,10 +14,8 @@ package com.ibm.microclimate.core.internal.connection;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.osgi.util.NLS;
 import org.json.JSONArray;
@@ -27,12 +25,27 @@ import org.json.JSONObject;
 import com.ibm.microclimate.core.internal.MCLogger;
 import com.ibm.microclimate.core.internal.MCUtil;
 import com.ibm.microclimate.core.internal.MicroclimateApplication;
+import com.ibm.microclimate.core.internal.connection.SocketEvent.ContainerLogs;
+import com.ibm.microclimate.core.internal.connection.SocketEvent.LogUpdate;
+import com.ibm.microclimate.core.internal.connection.SocketEvent.ProjectChanged;
+import com.ibm.microclimate.core.internal.connection.SocketEvent.ProjectClosed;
+import com.ibm.microclimate.core.internal.connection.SocketEvent.ProjectCreation;
+import com.ibm.microclimate.core.internal.connection.SocketEvent.ProjectDeletion;
+import com.ibm.microclimate.core.internal.connection.SocketEvent.ProjectRestart;
+import com.ibm.microclimate.core.internal.connection.SocketEvent.ProjectSettingsChanged;
+import com.ibm.microclimate.core.internal.connection.SocketEvent.ProjectValidated;
+import com.ibm.microclimate.core.internal.connection.SocketEvent.StatusChanged;
+import com.ibm.microclimate.core.internal.console.BuildLogMonitor;
+import com.ibm.microclimate.core.internal.console.ConsoleRegistry;
 import com.ibm.microclimate.core.internal.console.OldSocketConsole;
 import com.ibm.microclimate.core.internal.console.SocketConsole;
 import com.ibm.microclimate.core.internal.constants.MCConstants;
 import com.ibm.microclimate.core.internal.constants.ProjectType;
 import com.ibm.microclimate.core.internal.constants.StartMode;
 import com.ibm.microclimate.core.internal.messages.Messages;
+import com.ibm.microclimate.core.internal.metrics.Counter;
+import com.ibm.microclimate.core.internal.metrics.Histogram;
+import com.ibm.microclimate.core.internal.metrics.Metrics;
 
 import io.socket.client.IO;
 import io.socket.client.Socket;
@@ -56,17 +69,24 @@ public class MicroclimateSocket {
 
 	private volatile boolean hasConnected = false;
 
-	private Set<OldSocketConsole> oldSocketConsoles = new HashSet<>();
+	// The handlers run on the dispatcher threads so these must be thread safe
+	private final ConsoleRegistry<OldSocketConsole> oldSocketConsoles = new ConsoleRegistry<OldSocketConsole>();
 	
-	private Set<SocketConsole> socketConsoles = new HashSet<>();
+	private final ConsoleRegistry<SocketConsole> socketConsoles = new ConsoleRegistry<SocketConsole>();
 	
-	private Map<String, IOperationHandler> projectCreateHandlers = new HashMap<String, IOperationHandler>();
+	private Map<String, IOperationHandler> projectCreateHandlers = new ConcurrentHashMap<String, IOperationHandler>();
+	
+	// Runs the event handlers so they never block the socket.io event thread
+	private final SocketEventDispatcher dispatcher;
+	
+	// Merges bursts of status and project changed events before they are dispatched
+	private final SocketEventCoalescer coalescer;
 
 	// Track the previous Exception so we don't spam the logs with the same connection failure message
 	private Exception previousException;
 
 	// SocketIO Event names
-	private static final String
+	public static final String
 			EVENT_PROJECT_CREATION = "projectCreation",				//$NON-NLS-1$
 			EVENT_PROJECT_CHANGED = "projectChanged", 				//$NON-NLS-1$
 			EVENT_PROJECT_STATUS_CHANGE = "projectStatusChanged", 	//$NON-NLS-1$
@@ -79,6 +99,14 @@ public class MicroclimateSocket {
 			EVENT_PROJECT_SETTINGS_CHANGED = "projectSettingsChanged";	//$NON-NLS-1$
 
 	public MicroclimateSocket(MicroclimateConnection mcConnection) throws URISyntaxException {
+		this(mcConnection, true);
+	}
+
+	/**
+	 * Create the socket and its listeners. If connect is false the socket is left unconnected so
+	 * that benchmarks can call the listeners directly with synthetic events.
+	 */
+	MicroclimateSocket(MicroclimateConnection mcConnection, boolean connect) throws URISyntaxException {
 		this.mcConnection = mcConnection;
 		
 		URI uri = mcConnection.baseUrl;
@@ -86,6 +114,8 @@ public class MicroclimateSocket {
 			uri = uri.resolve(mcConnection.getSocketNamespace());
 		}
 		socketUri = uri;
+		dispatcher = new SocketEventDispatcher(socketUri.toString());
+		coalescer = new SocketEventCoalescer(this, mcConnection, dispatcher);
 
 		socket = IO.socket(socketUri);
 		
@@ -98,8 +128,14 @@ public class MicroclimateSocket {
 					hasConnected = true;
 				}
 				if (hasLostConnection) {
-					mcConnection.clearConnectionError();
 					previousException = null;
+					// Checks the connection with Microclimate so don't block the socket thread
+					dispatcher.dispatch(SocketEventDispatcher.CONNECTION_KEY, new Runnable() {
+						@Override
+						public void run() {
+							mcConnection.clearConnectionError();
+						}
+					});
 				}
 			}
 		})
@@ -113,8 +149,13 @@ public class MicroclimateSocket {
 						MCLogger.logError("SocketIO Connect Error @ " + socketUri, e); //$NON-NLS-1$
 					}
 				}
-				mcConnection.onConnectionError();
 				hasLostConnection = true;
+				dispatcher.dispatch(SocketEventDispatcher.CONNECTION_KEY, new Runnable() {
+					@Override
+					public void run() {
+						mcConnection.onConnectionError();
+					}
+				});
 			}
 		})
 		.on(Socket.EVENT_ERROR, new Emitter.Listener() {
@@ -130,148 +171,191 @@ public class MicroclimateSocket {
 			@Override
 			public void call(Object... arg0) {
 				// Don't think this is ever used
-				MCLogger.log("SocketIO EVENT_MESSAGE " + arg0[0].toString()); //$NON-NLS-1$
+				MCLogger.log("SocketIO EVENT_MESSAGE {}", arg0[0]); //$NON-NLS-1$
 			}
 		})
-		.on(EVENT_PROJECT_CREATION, new Emitter.Listener() {
+		.on(EVENT_PROJECT_CREATION, new EventListener(EVENT_PROJECT_CREATION, true) {
 			@Override
-			public void call(Object... arg0) {
-				MCLogger.log(EVENT_PROJECT_CREATION + ": " + arg0[0].toString()); //$NON-NLS-1$
-
-				try {
-					JSONObject event = new JSONObject(arg0[0].toString());
-					onProjectCreation(event);
-				} catch (JSONException e) {
-					MCLogger.logError("Error parsing JSON: " + arg0[0].toString(), e); //$NON-NLS-1$
-				}
+			protected void handle(JSONObject event) throws JSONException {
+				onProjectCreation(new ProjectCreation(event));
 			}
 		})
-		.on(EVENT_PROJECT_CHANGED, new Emitter.Listener() {
+		// Merged with the other events for the project that arrive soon after
+		.on(EVENT_PROJECT_CHANGED, new EventListener(EVENT_PROJECT_CHANGED, true, false) {
 			@Override
-			public void call(Object... arg0) {
-				MCLogger.log(EVENT_PROJECT_CHANGED + ": " + arg0[0].toString()); //$NON-NLS-1$
-
-				try {
-					JSONObject event = new JSONObject(arg0[0].toString());
-					onProjectChanged(event);
-				} catch (JSONException e) {
-					MCLogger.logError("Error parsing JSON: " + arg0[0].toString(), e); //$NON-NLS-1$
-				}
+			protected void handle(JSONObject event) throws JSONException {
+				coalescer.add(new ProjectChanged(event));
 			}
 		})
-		.on(EVENT_PROJECT_SETTINGS_CHANGED, new Emitter.Listener() {
+		.on(EVENT_PROJECT_SETTINGS_CHANGED, new EventListener(EVENT_PROJECT_SETTINGS_CHANGED, true) {
 			@Override
-			public void call(Object... arg0) {
-				MCLogger.log(EVENT_PROJECT_SETTINGS_CHANGED + ": " + arg0[0].toString()); //$NON-NLS-1$
-
-				try {
-					JSONObject event = new JSONObject(arg0[0].toString());
-					onProjectSettingsChanged(event);
-				} catch (JSONException e) {
-					MCLogger.logError("Error parsing JSON: " + arg0[0].toString(), e); //$NON-NLS-1$
-				}
+			protected void handle(JSONObject event) throws JSONException {
+				onProjectSettingsChanged(new ProjectSettingsChanged(event));
 			}
 		})
-		.on(EVENT_PROJECT_STATUS_CHANGE, new Emitter.Listener() {
+		// Merged with the other events for the project that arrive soon after
+		.on(EVENT_PROJECT_STATUS_CHANGE, new EventListener(EVENT_PROJECT_STATUS_CHANGE, true, false) {
 			@Override
-			public void call(Object... arg0) {
-				MCLogger.log(EVENT_PROJECT_STATUS_CHANGE + ": " + arg0[0].toString()); //$NON-NLS-1$
-
-				try {
-					JSONObject event = new JSONObject(arg0[0].toString());
-					onProjectStatusChanged(event);
-				} catch (JSONException e) {
-					MCLogger.logError("Error parsing JSON: " + arg0[0].toString(), e); //$NON-NLS-1$
-				}
+			protected void handle(JSONObject event) throws JSONException {
+				coalescer.add(new StatusChanged(event));
 			}
 		})
-		.on(EVENT_PROJECT_RESTART, new Emitter.Listener() {
+		.on(EVENT_PROJECT_RESTART, new EventListener(EVENT_PROJECT_RESTART, true) {
 			@Override
-			public void call(Object... arg0) {
-				MCLogger.log(EVENT_PROJECT_RESTART + ": " + arg0[0].toString()); //$NON-NLS-1$
-
-				try {
-					JSONObject event = new JSONObject(arg0[0].toString());
-					onProjectRestart(event);
-				} catch (JSONException e) {
-					MCLogger.logError("Error parsing JSON: " + arg0[0].toString(), e); //$NON-NLS-1$
-				}
+			protected void handle(JSONObject event) throws JSONException {
+				onProjectRestart(new ProjectRestart(event));
 			}
 		})
-		.on(EVENT_PROJECT_CLOSED, new Emitter.Listener() {
+		.on(EVENT_PROJECT_CLOSED, new EventListener(EVENT_PROJECT_CLOSED, true) {
 			@Override
-			public void call(Object... arg0) {
-				MCLogger.log(EVENT_PROJECT_CLOSED + ": " + arg0[0].toString()); //$NON-NLS-1$
-
-				try {
-					JSONObject event = new JSONObject(arg0[0].toString());
-					onProjectClosed(event);
-				} catch (JSONException e) {
-					MCLogger.logError("Error parsing JSON: " + arg0[0].toString(), e); //$NON-NLS-1$
-				}
+			protected void handle(JSONObject event) throws JSONException {
+				onProjectClosed(new ProjectClosed(event));
 			}
 		})
-		.on(EVENT_PROJECT_DELETION, new Emitter.Listener() {
+		.on(EVENT_PROJECT_DELETION, new EventListener(EVENT_PROJECT_DELETION, true) {
 			@Override
-			public void call(Object... arg0) {
-				MCLogger.log(EVENT_PROJECT_DELETION + ": " + arg0[0].toString()); //$NON-NLS-1$
-
-				try {
-					JSONObject event = new JSONObject(arg0[0].toString());
-					onProjectDeletion(event);
-				} catch (JSONException e) {
-					MCLogger.logError("Error parsing JSON: " + arg0[0].toString(), e); //$NON-NLS-1$
-				}
+			protected void handle(JSONObject event) throws JSONException {
+				onProjectDeletion(new ProjectDeletion(event));
 			}
 		})
-		.on(EVENT_CONTAINER_LOGS, new Emitter.Listener() {
+		// can't print this whole thing because the logs strings flood the output
+		.on(EVENT_CONTAINER_LOGS, new EventListener(EVENT_CONTAINER_LOGS, false) {
 			@Override
-			public void call(Object... arg0) {
-				// can't print this whole thing because the logs strings flood the output
-				MCLogger.log(EVENT_CONTAINER_LOGS);
-
-				try {
-					JSONObject event = new JSONObject(arg0[0].toString());
-					onContainerLogs(event);
-				} catch (JSONException e) {
-					MCLogger.logError("Error parsing JSON: " + arg0[0].toString(), e); //$NON-NLS-1$
-				}
+			protected String getKey(JSONObject event) {
+				// Keep log updates from waiting behind slower events for the same project
+				return super.getKey(event) + "/" + EVENT_CONTAINER_LOGS; //$NON-NLS-1$
+			}
+
+			@Override
+			protected void handle(JSONObject event) throws JSONException {
+				onContainerLogs(new ContainerLogs(event));
 			}
 		})
-		.on(EVENT_LOG_UPDATE, new Emitter.Listener() {
+		// can't print this whole thing because the logs strings flood the output
+		.on(EVENT_LOG_UPDATE, new EventListener(EVENT_LOG_UPDATE, false) {
 			@Override
-			public void call(Object... arg0) {
-				// can't print this whole thing because the logs strings flood the output
-				MCLogger.log(EVENT_LOG_UPDATE);
-
-				try {
-					JSONObject event = new JSONObject(arg0[0].toString());
-					onLogUpdate(event);
-				} catch (JSONException e) {
-					MCLogger.logError("Error parsing JSON: " + arg0[0].toString(), e); //$NON-NLS-1$
-				}
+			protected String getKey(JSONObject event) {
+				// Keep log updates from waiting behind slower events for the same project
+				return super.getKey(event) + "/" + event.optString(MCConstants.KEY_LOG_TYPE) + "/" + event.optString(MCConstants.KEY_LOG_NAME); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+
+			@Override
+			protected void handle(JSONObject event) throws JSONException {
+				onLogUpdate(new LogUpdate(event));
 			}
 		})
-		.on(EVENT_PROJECT_VALIDATED, new Emitter.Listener() {
+		.on(EVENT_PROJECT_VALIDATED, new EventListener(EVENT_PROJECT_VALIDATED, true) {
 			@Override
-			public void call(Object... arg0) {
-				MCLogger.log(EVENT_PROJECT_VALIDATED + ": " + arg0[0].toString()); //$NON-NLS-1$
+			protected void handle(JSONObject event) throws JSONException {
+				onValidationEvent(new ProjectValidated(event));
+			}
+		});
 
-				try {
-					JSONObject event = new JSONObject(arg0[0].toString());
-					onValidationEvent(event);
-				} catch (JSONException e) {
-					MCLogger.logError("Error parsing JSON: " + arg0[0].toString(), e); //$NON-NLS-1$
+		if (connect) {
+			socket.connect();
+			MCLogger.log("Created MicroclimateSocket connected to " + socketUri); //$NON-NLS-1$
+		}
+	}
+	
+	/**
+	 * Listener for the Microclimate events. The payload socket.io delivers is used directly
+	 * and is only turned into a string for logging if info logging is enabled. The handler
+	 * is run by the dispatcher, in order with the other events that have the same key.
+	 */
+	private abstract class EventListener implements Emitter.Listener {
+		private final String eventName;
+		private final boolean logPayload;
+		// If false the handler is run on the socket thread so it must not block
+		private final boolean dispatch;
+		private final Counter received;
+		private final Histogram handleTime;
+		private final Histogram latency;
+
+		private EventListener(String eventName, boolean logPayload) {
+			this(eventName, logPayload, true);
+		}
+
+		private EventListener(String eventName, boolean logPayload, boolean dispatch) {
+			this.eventName = eventName;
+			this.logPayload = logPayload;
+			this.dispatch = dispatch;
+			this.received = Metrics.counter(Metrics.SOCKET_EVENTS, eventName);
+			this.handleTime = Metrics.histogram(Metrics.SOCKET_EVENT_TIME, eventName);
+			this.latency = Metrics.histogram(Metrics.SOCKET_EVENT_LATENCY, eventName);
+		}
+
+		@Override
+		public void call(Object... arg0) {
+			final long receivedTime = System.nanoTime();
+			received.increment();
+			final JSONObject event;
+			try {
+				event = SocketEvent.toJSON(arg0);
+			} catch (JSONException e) {
+				MCLogger.logError("Error parsing JSON for the " + eventName + " event: " //$NON-NLS-1$ //$NON-NLS-2$
+						+ String.valueOf(arg0.length > 0 ? arg0[0] : null), e);
+				return;
+			}
+			SocketEventRecorder recorder = SocketEventRecorder.getInstance();
+			if (recorder != null) {
+				recorder.record(eventName, event);
+			}
+			if (MCLogger.isInfoEnabled()) {
+				MCLogger.log(logPayload ? eventName + ": " + event.toString() : eventName); //$NON-NLS-1$
+			}
+			if (!dispatch) {
+				// The coalescer records the latency when the merged event is applied
+				run(event);
+				return;
+			}
+			String key = getKey(event);
+			String projectID = event.optString(MCConstants.KEY_PROJECT_ID, null);
+			if (projectID != null && projectID.equals(key)) {
+				// Apply any merged events for the project first to keep the order
+				coalescer.flush(projectID);
+			}
+			dispatcher.dispatch(key, new Runnable() {
+				@Override
+				public void run() {
+					EventListener.this.run(event);
+					latency.recordSince(receivedTime);
 				}
+			});
+		}
+
+		private void run(JSONObject event) {
+			long start = System.nanoTime();
+			try {
+				handle(event);
+			} catch (JSONException e) {
+				MCLogger.logError("Error parsing JSON for the " + eventName + " event: " + event.toString(), e); //$NON-NLS-1$ //$NON-NLS-2$
+			} finally {
+				handleTime.recordSince(start);
 			}
-		});
+		}
 
-		socket.connect();
+		/**
+		 * Events with the same key are handled in order, by default the key is the project id.
+		 */
+		protected String getKey(JSONObject event) {
+			return event.optString(MCConstants.KEY_PROJECT_ID, SocketEventDispatcher.CONNECTION_KEY);
+		}
 
-		MCLogger.log("Created MicroclimateSocket connected to " + socketUri); //$NON-NLS-1$
+		protected abstract void handle(JSONObject event) throws JSONException;
 	}
 	
+	/**
+	 * Dispatch any events that are waiting to be merged and wait for all of the events received
+	 * so far to be handled. Returns false if the timeout passed first.
+	 */
+	public boolean awaitIdle(long timeoutMs) throws InterruptedException {
+		coalescer.flushAll();
+		return dispatcher.awaitIdle(timeoutMs);
+	}
+
 	public void close() {
+		coalescer.dispose();
+		dispatcher.dispose();
 		if (socket != null) {
 			if (socket.connected()) {
 				socket.disconnect();
@@ -280,8 +364,9 @@ public class MicroclimateSocket {
 		}
 	}
 	
-	private void onProjectCreation(JSONObject event) throws JSONException {
-		String projectID = event.getString(MCConstants.KEY_PROJECT_ID);
+	private void onProjectCreation(ProjectCreation event) {
+		String projectID = event.projectID;
+		mcConnection.invalidateCache(projectID);
 		mcConnection.refreshApps(projectID);
 		MicroclimateApplication app = mcConnection.getAppByID(projectID);
 		if (app != null) {
@@ -290,7 +375,7 @@ public class MicroclimateSocket {
 			MCLogger.logError("No application found matching the project id for the project creation event: " + projectID); //$NON-NLS-1$
 		}
 		MCUtil.updateConnection(mcConnection);
-		String projectName = event.has(MCConstants.KEY_NAME) ? event.getString(MCConstants.KEY_NAME) : null;
+		String projectName = event.name;
 		if (projectName != null) {
 			IOperationHandler handler = projectCreateHandlers.get(projectName);
 			if (handler != null) {
@@ -299,8 +384,9 @@ public class MicroclimateSocket {
 		}
 	}
 
-	private void onProjectChanged(JSONObject event) throws JSONException {
-		String projectID = event.getString(MCConstants.KEY_PROJECT_ID);
+	void onProjectChanged(ProjectChanged event) {
+		String projectID = event.projectID;
+		mcConnection.invalidateCache(projectID);
 		MicroclimateApplication app = mcConnection.getAppByID(projectID);
 		if (app == null) {
 			MCLogger.logError("No application found matching the project id for the project changed event: " + projectID); //$NON-NLS-1$
@@ -308,26 +394,22 @@ public class MicroclimateSocket {
 		}
 		
 		app.setEnabled(true);
+		// The next refresh should apply the project json again
+		app.invalidateFingerprint();
 		
 		// Update container id
-		String containerId = null;
-		if (event.has(MCConstants.KEY_CONTAINER_ID)) {
-		    containerId = event.getString(MCConstants.KEY_CONTAINER_ID);
-		}
-		app.setContainerId(containerId);
+		app.setContainerId(event.containerId);
 	
         // Update ports
-        JSONObject portsObj = event.getJSONObject(MCConstants.KEY_PORTS);
-
-        if (portsObj != null && portsObj.has(MCConstants.KEY_EXPOSED_PORT)) {
-        	int port = MCUtil.parsePort(portsObj.getString(MCConstants.KEY_EXPOSED_PORT));
+        if (event.exposedPort != null) {
+        	int port = MCUtil.parsePort(event.exposedPort);
     		app.setHttpPort(port);
         } else {
         	MCLogger.logError("No http port on project changed event for: " + app.name); //$NON-NLS-1$
         }
 
-		if (portsObj != null && portsObj.has(MCConstants.KEY_EXPOSED_DEBUG_PORT)) {
-			int debugPort = MCUtil.parsePort(portsObj.getString(MCConstants.KEY_EXPOSED_DEBUG_PORT));
+		if (event.exposedDebugPort != null) {
+			int debugPort = MCUtil.parsePort(event.exposedDebugPort);
 			app.setDebugPort(debugPort);
 			if (StartMode.DEBUG_MODES.contains(app.getStartMode()) && debugPort != -1) {
 				app.reconnectDebugger();
@@ -336,14 +418,14 @@ public class MicroclimateSocket {
 			app.setDebugPort(-1);
 		}
 		
-		if (event.has(MCConstants.KEY_AUTO_BUILD)) {
-			boolean autoBuild = event.getBoolean(MCConstants.KEY_AUTO_BUILD);
-			app.setAutoBuild(autoBuild);
+		if (event.autoBuild != null) {
+			app.setAutoBuild(event.autoBuild.booleanValue());
 		}
 	}
 	
-	private void onProjectSettingsChanged(JSONObject event) throws JSONException {
-		String projectID = event.getString(MCConstants.KEY_PROJECT_ID);
+	private void onProjectSettingsChanged(ProjectSettingsChanged event) {
+		String projectID = event.projectID;
+		mcConnection.invalidateCache(projectID);
 		MicroclimateApplication app = mcConnection.getAppByID(projectID);
 		if (app == null) {
 			MCLogger.logError("No application found matching the project id for the project settings changed event: " + projectID); //$NON-NLS-1$
@@ -351,47 +433,48 @@ public class MicroclimateSocket {
 		}
 		
 		app.setEnabled(true);
+		// The next refresh should apply the project json again
+		app.invalidateFingerprint();
 		
 		// Update context root
-		if (event.has(MCConstants.KEY_CONTEXT_ROOT)) {
-			app.setContextRoot(event.getString(MCConstants.KEY_CONTEXT_ROOT));
+		if (event.contextRoot != null) {
+			app.setContextRoot(event.contextRoot);
 		}
 		
 		// TODO: need to update ports?
 	}
 
-	private void onProjectStatusChanged(JSONObject event) throws JSONException {
-		String projectID = event.getString(MCConstants.KEY_PROJECT_ID);
+	void onProjectStatusChanged(StatusChanged event) {
+		String projectID = event.projectID;
+		mcConnection.invalidateCache(projectID);
 		MicroclimateApplication app = mcConnection.getAppByID(projectID);
 		if (app == null) {
-			// Likely a new project is being created
+			// Likely a new project is being created, the refresh updates the connection
 			mcConnection.refreshApps(projectID);
-			MCUtil.updateConnection(mcConnection);
 			return;
 		}
 		
 		app.setEnabled(true);
+		// The next refresh should apply the project json again
+		app.invalidateFingerprint();
 		
-		if (event.has(MCConstants.KEY_APP_STATUS)) {
-			String appStatus = event.getString(MCConstants.KEY_APP_STATUS);
-			app.setAppStatus(appStatus);
+		if (event.appStatus != null) {
+			app.setAppStatus(event.appStatus);
 		}
 
 		// Update build status if the project is not started or starting.
-		if (event.has(MCConstants.KEY_BUILD_STATUS)) {
-			String buildStatus = event.getString(MCConstants.KEY_BUILD_STATUS);
-			String detail = ""; //$NON-NLS-1$
-			if (event.has(MCConstants.KEY_DETAILED_BUILD_STATUS)) {
-				detail = event.getString(MCConstants.KEY_DETAILED_BUILD_STATUS);
-			}
-			app.setBuildStatus(buildStatus, detail);
+		if (event.buildStatus != null) {
+			String detail = event.detailedBuildStatus != null ? event.detailedBuildStatus : ""; //$NON-NLS-1$
+			app.setBuildStatus(event.buildStatus, detail);
+			BuildLogMonitor.logChanged(app);
 		}
 		
 		MCUtil.updateApplication(app);
 	}
 
-	private void onProjectRestart(JSONObject event) throws JSONException {
-		String projectID = event.getString(MCConstants.KEY_PROJECT_ID);
+	private void onProjectRestart(ProjectRestart event) {
+		String projectID = event.projectID;
+		mcConnection.invalidateCache(projectID);
 		MicroclimateApplication app = mcConnection.getAppByID(projectID);
 		if (app == null) {
 			MCLogger.logError("No application found matching the project id for the project restart event: " + projectID); //$NON-NLS-1$
@@ -399,10 +482,12 @@ public class MicroclimateSocket {
 		}
 		
 		app.setEnabled(true);
+		// The next refresh should apply the project json again
+		app.invalidateFingerprint();
 		
-		String status = event.getString(MCConstants.KEY_STATUS);
+		String status = event.status;
 		if (!MCConstants.REQUEST_STATUS_SUCCESS.equalsIgnoreCase(status)) {
-			MCLogger.logError("Project restart failed on the application: " + event.toString()); //$NON-NLS-1$
+			MCLogger.logError("Project restart failed on the application: " + app.name + ", status: " + status); //$NON-NLS-1$ //$NON-NLS-2$
 			MCUtil.openDialog(true,
 					Messages.MicroclimateSocket_ErrRestartingProjectDialogTitle,
 					NLS.bind(Messages.MicroclimateSocket_ErrRestartingProjectDialogMsg,
@@ -410,12 +495,9 @@ public class MicroclimateSocket {
 			return;
 		}
 
-		// This event should always have a 'ports' sub-object
-		JSONObject portsObj = event.getJSONObject(MCConstants.KEY_PORTS);
-
-		// The ports object should always have an http port
-		if (portsObj != null && portsObj.has(MCConstants.KEY_EXPOSED_PORT)) {
-			int port = MCUtil.parsePort(portsObj.getString(MCConstants.KEY_EXPOSED_PORT));
+		// This event should always have a 'ports' sub-object with an http port
+		if (event.exposedPort != null) {
+			int port = MCUtil.parsePort(event.exposedPort);
 			app.setHttpPort(port);
 		} else {
 			MCLogger.logError("No http port on project restart event for: " + app.name); //$NON-NLS-1$
@@ -423,12 +505,12 @@ public class MicroclimateSocket {
 
 		// Debug port will be missing if the restart was into Run mode.
 		int debugPort = -1;
-		if (portsObj != null && portsObj.has(MCConstants.KEY_EXPOSED_DEBUG_PORT)) {
-			debugPort = MCUtil.parsePort(portsObj.getString(MCConstants.KEY_EXPOSED_DEBUG_PORT));
+		if (event.exposedDebugPort != null) {
+			debugPort = MCUtil.parsePort(event.exposedDebugPort);
 		}
 		app.setDebugPort(debugPort);
 		
-		StartMode startMode = StartMode.get(event);
+		StartMode startMode = event.startMode;
 		app.setStartMode(startMode);
 		
 		// Update the application
@@ -442,19 +524,22 @@ public class MicroclimateSocket {
 		}
 	}
 	
-	private void onProjectClosed(JSONObject event) throws JSONException {
-		String projectID = event.getString(MCConstants.KEY_PROJECT_ID);
+	private void onProjectClosed(ProjectClosed event) {
+		String projectID = event.projectID;
+		mcConnection.invalidateCache(projectID);
 		MicroclimateApplication app = mcConnection.getAppByID(projectID);
 		if (app == null) {
 			MCLogger.logError("No application found for project being closed: " + projectID); //$NON-NLS-1$
 			return;
 		}
 		app.setEnabled(false);
+		app.invalidateFingerprint();
 		MCUtil.updateConnection(mcConnection);
 	}
 
-	private void onProjectDeletion(JSONObject event) throws JSONException {
-		String projectID = event.getString(MCConstants.KEY_PROJECT_ID);
+	private void onProjectDeletion(ProjectDeletion event) {
+		String projectID = event.projectID;
+		mcConnection.invalidateCache(projectID);
 		MicroclimateApplication app = mcConnection.removeApp(projectID);
 		if (app == null) {
 			MCLogger.logError("No application found for project being deleted: " + projectID); //$NON-NLS-1$
@@ -466,20 +551,24 @@ public class MicroclimateSocket {
 
 	public void registerOldSocketConsole(OldSocketConsole console) {
 		MCLogger.log("Register socketConsole for projectID " + console.projectID); //$NON-NLS-1$
-		this.oldSocketConsoles.add(console);
+		this.oldSocketConsoles.register(new ConsoleRegistry.Key(console.projectID), console);
 	}
 
 	public void deregisterOldSocketConsole(OldSocketConsole console) {
-		this.oldSocketConsoles.remove(console);
+		this.oldSocketConsoles.deregister(new ConsoleRegistry.Key(console.projectID), console);
 	}
 	
 	public void registerSocketConsole(SocketConsole console) {
 		MCLogger.log("Register socketConsole for project: " + console.app.name); //$NON-NLS-1$
-		this.socketConsoles.add(console);
+		this.socketConsoles.register(getConsoleKey(console), console);
 	}
 
 	public void deregisterSocketConsole(SocketConsole console) {
-		this.socketConsoles.remove(console);
+		this.socketConsoles.deregister(getConsoleKey(console), console);
+	}
+
+	private static ConsoleRegistry.Key getConsoleKey(SocketConsole console) {
+		return new ConsoleRegistry.Key(console.app.projectID, console.logInfo.type, console.logInfo.logName);
 	}
 	
 	public void registerProjectCreateHandler(String projectName, IOperationHandler handler) {
@@ -490,45 +579,46 @@ public class MicroclimateSocket {
 		this.projectCreateHandlers.remove(projectName);
 	}
 
-	private void onContainerLogs(JSONObject event) throws JSONException {
-		String projectID = event.getString(MCConstants.KEY_PROJECT_ID);
-		String logContents = event.getString(MCConstants.KEY_LOGS);
-		MCLogger.log("Update logs for project " + projectID); //$NON-NLS-1$
+	private void onContainerLogs(ContainerLogs event) {
+		String projectID = event.projectID;
+		if (MCLogger.isInfoEnabled()) {
+			MCLogger.log("Update logs for project " + projectID); //$NON-NLS-1$
+		}
 
-		for (OldSocketConsole console : this.oldSocketConsoles) {
-			if (console.projectID.equals(projectID)) {
-				try {
-					console.update(logContents);
-				}
-				catch(IOException e) {
-					MCLogger.logError("Error updating console " + console.getName(), e);	// $NON-NLS-1$
+		for (OldSocketConsole console : this.oldSocketConsoles.get(new ConsoleRegistry.Key(projectID))) {
+			try {
+				if (event.offset < 0) {
+					console.update(event.logs);
+				} else {
+					console.update(event.offset, event.logs, event.reset);
 				}
 			}
+			catch(IOException e) {
+				MCLogger.logError("Error updating console " + console.getName(), e);	// $NON-NLS-1$
+			}
 		}
 	}
 	
-	private void onLogUpdate(JSONObject event) throws JSONException {
-		String projectID = event.getString(MCConstants.KEY_PROJECT_ID);
-		String type = event.getString(MCConstants.KEY_LOG_TYPE);
-		String logName = event.getString(MCConstants.KEY_LOG_NAME);
-		MCLogger.log("Update the " + logName + " log for project: " + projectID); //$NON-NLS-1$ //$NON-NLS-2$
-
-		for (SocketConsole console : this.socketConsoles) {
-			if (console.app.projectID.equals(projectID) && console.logInfo.isThisLogInfo(type, logName)) {
-				try {
-					String logContents = event.getString(MCConstants.KEY_LOGS);
-					boolean reset = event.getBoolean(MCConstants.KEY_LOG_RESET);
-					console.update(logContents, reset);
-				}
-				catch(IOException e) {
-					MCLogger.logError("Error updating console " + console.getName(), e);	// $NON-NLS-1$
-				}
+	private void onLogUpdate(LogUpdate event) {
+		String projectID = event.projectID;
+		String type = event.logType;
+		String logName = event.logName;
+		if (MCLogger.isInfoEnabled()) {
+			MCLogger.log("Update the " + logName + " log for project: " + projectID); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		for (SocketConsole console : this.socketConsoles.get(new ConsoleRegistry.Key(projectID, type, logName))) {
+			try {
+				console.update(event.logs, event.reset);
+			}
+			catch(IOException e) {
+				MCLogger.logError("Error updating console " + console.getName(), e);	// $NON-NLS-1$
 			}
 		}
 	}
 	
-	private void onValidationEvent(JSONObject event) throws JSONException {
-		String projectID = event.getString(MCConstants.KEY_PROJECT_ID);
+	private void onValidationEvent(ProjectValidated event) throws JSONException {
+		String projectID = event.projectID;
 		MicroclimateApplication app = mcConnection.getAppByID(projectID);
 		if (app == null) {
 			MCLogger.logError("No application found for project: " + projectID); //$NON-NLS-1$
@@ -539,15 +629,15 @@ public class MicroclimateSocket {
 		app.resetValidation();
 		
 		// If the validation is successful then just return
-		String status = event.getString(MCConstants.KEY_VALIDATION_STATUS);
+		String status = event.validationStatus;
 		if (MCConstants.VALUE_STATUS_SUCCESS.equals(status)) {
 			// Nothing to do
 			return;
 		}
 		
 		// If the validation is not successful, create validation objects for each problem
-		if (event.has(MCConstants.KEY_VALIDATION_RESULTS)) {
-			JSONArray results = event.getJSONArray(MCConstants.KEY_VALIDATION_RESULTS);
+		if (event.results != null) {
+			JSONArray results = event.results;
 			for (int i = 0; i < results.length(); i++) {
 				JSONObject result = results.getJSONObject(i);
 				String severity = result.getString(MCConstants.KEY_SEVERITY);
@@ -0,0 +1,295 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.microclimate.core.internal.connection;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import com.ibm.microclimate.core.internal.IResponseHandler;
+import com.ibm.microclimate.core.internal.JSONStreamReader;
+import com.ibm.microclimate.core.internal.MCLogger;
+import com.ibm.microclimate.core.internal.constants.MCConstants;
+
+/**
+ * The fields of a project from the Microclimate project list that are used by the tools.
+ * Read straight from the response stream so no JSONObject is built for each project.
+ * Instances are immutable so they can be shared through the response cache.
+ */
+public class ProjectInfo {
+
+	public static final IResponseHandler<List<ProjectInfo>> LIST_HANDLER = new IResponseHandler<List<ProjectInfo>>() {
+		@Override
+		public List<ProjectInfo> handle(Reader reader) throws IOException, JSONException {
+			return readList(new JSONStreamReader(reader));
+		}
+	};
+
+	/**
+	 * Reads a single project. Returns null if the response is not a project object, for example
+	 * if the single project endpoint is not supported.
+	 */
+	public static final IResponseHandler<ProjectInfo> HANDLER = new IResponseHandler<ProjectInfo>() {
+		@Override
+		public ProjectInfo handle(Reader reader) throws IOException {
+			try {
+				JSONStreamReader jsonReader = new JSONStreamReader(reader);
+				if (jsonReader.peek() != JSONStreamReader.Token.BEGIN_OBJECT) {
+					return null;
+				}
+				ProjectInfo info = read(jsonReader);
+				return info.projectID == null ? null : info;
+			} catch (JSONException e) {
+				MCLogger.log("The response is not a project object: " + e.getMessage()); //$NON-NLS-1$
+				return null;
+			}
+		}
+	};
+
+	public final String projectID;
+	public final String name;
+	public final String buildType;
+	public final String language;
+	public final String locOnDisk;
+	public final String action;
+	public final String appStatus;
+	public final String buildStatus;
+	public final String detailedBuildStatus;
+	public final String containerId;
+	// False if the project has no ports object
+	public final boolean hasPorts;
+	public final String exposedPort;
+	public final String exposedDebugPort;
+	// The top level context root if set, otherwise the one in the custom object
+	public final String contextRoot;
+	public final String startMode;
+	// Null if not set
+	public final Boolean autoBuild;
+
+	private ProjectInfo(Builder builder) {
+		this.projectID = builder.projectID;
+		this.name = builder.name;
+		this.buildType = builder.buildType;
+		this.language = builder.language;
+		this.locOnDisk = builder.locOnDisk;
+		this.action = builder.action;
+		this.appStatus = builder.appStatus;
+		this.buildStatus = builder.buildStatus;
+		this.detailedBuildStatus = builder.detailedBuildStatus;
+		this.containerId = builder.containerId;
+		this.hasPorts = builder.hasPorts;
+		this.exposedPort = builder.exposedPort;
+		this.exposedDebugPort = builder.exposedDebugPort;
+		this.contextRoot = builder.contextRoot != null ? builder.contextRoot : builder.customContextRoot;
+		this.startMode = builder.startMode;
+		this.autoBuild = builder.autoBuild;
+	}
+
+	private static class Builder {
+		private String projectID, name, buildType, language, locOnDisk, action, appStatus, buildStatus,
+				detailedBuildStatus, containerId, exposedPort, exposedDebugPort, contextRoot, customContextRoot, startMode;
+		private boolean hasPorts = false;
+		private Boolean autoBuild;
+	}
+
+	/**
+	 * Read an array of projects. Entries without a project ID or with a field of the wrong type
+	 * are logged and skipped. Malformed JSON fails the whole list.
+	 */
+	public static List<ProjectInfo> readList(JSONStreamReader reader) throws IOException, JSONException {
+		List<ProjectInfo> projects = new ArrayList<ProjectInfo>();
+		reader.beginArray();
+		int depth = reader.getDepth();
+		while (reader.hasNext()) {
+			ProjectInfo info;
+			try {
+				info = read(reader);
+			} catch (JSONException e) {
+				MCLogger.logError("Error parsing project json, skipping the project", e); //$NON-NLS-1$
+				// Get past the rest of this project, throws again if the JSON is malformed
+				if (reader.getDepth() > depth) {
+					reader.skipToDepth(depth);
+				} else {
+					reader.skipValue();
+				}
+				continue;
+			}
+			if (info.projectID == null) {
+				MCLogger.logError("Project json is missing the " + MCConstants.KEY_PROJECT_ID + " field"); //$NON-NLS-1$ //$NON-NLS-2$
+			} else {
+				projects.add(info);
+			}
+		}
+		reader.endArray();
+		return Collections.unmodifiableList(projects);
+	}
+
+	/**
+	 * Read a single project object, skipping any fields that are not used.
+	 */
+	public static ProjectInfo read(JSONStreamReader reader) throws IOException, JSONException {
+		Builder builder = new Builder();
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String key = reader.nextName();
+			if (reader.peek() == JSONStreamReader.Token.NULL) {
+				reader.nextNull();
+				continue;
+			}
+			switch (key) {
+				case MCConstants.KEY_PROJECT_ID:
+					builder.projectID = reader.nextString();
+					break;
+				case MCConstants.KEY_NAME:
+					builder.name = reader.nextString();
+					break;
+				case MCConstants.KEY_BUILD_TYPE:
+					builder.buildType = reader.nextString();
+					break;
+				case MCConstants.KEY_LANGUAGE:
+					builder.language = reader.nextString();
+					break;
+				case MCConstants.KEY_LOC_DISK:
+					builder.locOnDisk = reader.nextString();
+					break;
+				case MCConstants.KEY_ACTION:
+					builder.action = reader.nextString();
+					break;
+				case MCConstants.KEY_APP_STATUS:
+					builder.appStatus = reader.nextString();
+					break;
+				case MCConstants.KEY_BUILD_STATUS:
+					builder.buildStatus = reader.nextString();
+					break;
+				case MCConstants.KEY_DETAILED_BUILD_STATUS:
+					builder.detailedBuildStatus = reader.nextString();
+					break;
+				case MCConstants.KEY_CONTAINER_ID:
+					builder.containerId = reader.nextString();
+					break;
+				case MCConstants.KEY_CONTEXTROOT:
+					builder.contextRoot = reader.nextString();
+					break;
+				case MCConstants.KEY_START_MODE:
+					builder.startMode = reader.nextString();
+					break;
+				case MCConstants.KEY_AUTO_BUILD:
+					builder.autoBuild = reader.nextBoolean();
+					break;
+				case MCConstants.KEY_PORTS:
+					readPorts(reader, builder);
+					break;
+				case MCConstants.KEY_CUSTOM:
+					readCustom(reader, builder);
+					break;
+				default:
+					reader.skipValue();
+					break;
+			}
+		}
+		reader.endObject();
+		return new ProjectInfo(builder);
+	}
+
+	private static void readPorts(JSONStreamReader reader, Builder builder) throws IOException, JSONException {
+		if (reader.peek() != JSONStreamReader.Token.BEGIN_OBJECT) {
+			reader.skipValue();
+			return;
+		}
+		builder.hasPorts = true;
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String key = reader.nextName();
+			if (MCConstants.KEY_EXPOSED_PORT.equals(key)) {
+				builder.exposedPort = reader.nextString();
+			} else if (MCConstants.KEY_EXPOSED_DEBUG_PORT.equals(key)) {
+				builder.exposedDebugPort = reader.nextString();
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+	}
+
+	private static void readCustom(JSONStreamReader reader, Builder builder) throws IOException, JSONException {
+		if (reader.peek() != JSONStreamReader.Token.BEGIN_OBJECT) {
+			reader.skipValue();
+			return;
+		}
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String key = reader.nextName();
+			if (MCConstants.KEY_CONTEXTROOT.equals(key)) {
+				builder.customContextRoot = reader.nextString();
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+	}
+
+	/**
+	 * Get the project information from a JSON object that has already been parsed,
+	 * for example the payload of a socket event.
+	 */
+	public static ProjectInfo fromJSON(JSONObject obj) throws JSONException {
+		Builder builder = new Builder();
+		builder.projectID = getString(obj, MCConstants.KEY_PROJECT_ID);
+		builder.name = getString(obj, MCConstants.KEY_NAME);
+		builder.buildType = getString(obj, MCConstants.KEY_BUILD_TYPE);
+		builder.language = getString(obj, MCConstants.KEY_LANGUAGE);
+		builder.locOnDisk = getString(obj, MCConstants.KEY_LOC_DISK);
+		builder.action = getString(obj, MCConstants.KEY_ACTION);
+		builder.appStatus = getString(obj, MCConstants.KEY_APP_STATUS);
+		builder.buildStatus = getString(obj, MCConstants.KEY_BUILD_STATUS);
+		builder.detailedBuildStatus = getString(obj, MCConstants.KEY_DETAILED_BUILD_STATUS);
+		builder.containerId = getString(obj, MCConstants.KEY_CONTAINER_ID);
+		builder.contextRoot = getString(obj, MCConstants.KEY_CONTEXTROOT);
+		builder.startMode = getString(obj, MCConstants.KEY_START_MODE);
+		if (obj.has(MCConstants.KEY_AUTO_BUILD) && !obj.isNull(MCConstants.KEY_AUTO_BUILD)) {
+			builder.autoBuild = obj.getBoolean(MCConstants.KEY_AUTO_BUILD);
+		}
+		JSONObject ports = obj.optJSONObject(MCConstants.KEY_PORTS);
+		if (ports != null) {
+			builder.hasPorts = true;
+			builder.exposedPort = getString(ports, MCConstants.KEY_EXPOSED_PORT);
+			builder.exposedDebugPort = getString(ports, MCConstants.KEY_EXPOSED_DEBUG_PORT);
+		}
+		JSONObject custom = obj.optJSONObject(MCConstants.KEY_CUSTOM);
+		if (custom != null) {
+			builder.customContextRoot = getString(custom, MCConstants.KEY_CONTEXTROOT);
+		}
+		return new ProjectInfo(builder);
+	}
+
+	private static String getString(JSONObject obj, String key) throws JSONException {
+		if (!obj.has(key) || obj.isNull(key)) {
+			return null;
+		}
+		return obj.getString(key);
+	}
+
+	public boolean isDeleting() {
+		return MCConstants.VALUE_ACTION_DELETING.equals(action);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s id=%s name=%s appStatus=%s buildStatus=%s", //$NON-NLS-1$
+				ProjectInfo.class.getSimpleName(), projectID, name, appStatus, buildStatus);
+	}
+}
@@ -0,0 +1,225 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.microclimate.core.internal.connection;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import com.ibm.microclimate.core.internal.constants.MCConstants;
+import com.ibm.microclimate.core.internal.constants.StartMode;
+
+/**
+ * Typed records for the Microclimate socket events. Each event is decoded once from the
+ * JSONObject delivered by socket.io and the handlers only use the decoded fields.
+ */
+public abstract class SocketEvent {
+
+	public final String projectID;
+
+	protected SocketEvent(JSONObject event) throws JSONException {
+		this.projectID = event.getString(MCConstants.KEY_PROJECT_ID);
+	}
+
+	protected SocketEvent(String projectID) {
+		this.projectID = projectID;
+	}
+
+	/**
+	 * Get the payload of a socket event as a JSONObject. socket.io delivers objects
+	 * already parsed so they are used as is, anything else is parsed.
+	 */
+	public static JSONObject toJSON(Object[] args) throws JSONException {
+		if (args == null || args.length == 0 || args[0] == null) {
+			throw new JSONException("The socket event has no payload"); //$NON-NLS-1$
+		}
+		if (args[0] instanceof JSONObject) {
+			return (JSONObject) args[0];
+		}
+		return new JSONObject(args[0].toString());
+	}
+
+	protected static String getString(JSONObject event, String key) throws JSONException {
+		if (!event.has(key) || event.isNull(key)) {
+			return null;
+		}
+		return event.getString(key);
+	}
+
+	public static class ProjectCreation extends SocketEvent {
+		public final String name;
+
+		public ProjectCreation(JSONObject event) throws JSONException {
+			super(event);
+			name = getString(event, MCConstants.KEY_NAME);
+		}
+	}
+
+	/**
+	 * Base class for the events that carry the project's ports.
+	 */
+	public static abstract class PortsEvent extends SocketEvent {
+		// False if the event has no ports object
+		public final boolean hasPorts;
+		public final String exposedPort;
+		public final String exposedDebugPort;
+
+		protected PortsEvent(JSONObject event) throws JSONException {
+			super(event);
+			JSONObject ports = event.optJSONObject(MCConstants.KEY_PORTS);
+			hasPorts = ports != null;
+			exposedPort = ports == null ? null : getString(ports, MCConstants.KEY_EXPOSED_PORT);
+			exposedDebugPort = ports == null ? null : getString(ports, MCConstants.KEY_EXPOSED_DEBUG_PORT);
+		}
+
+		protected PortsEvent(PortsEvent ports) {
+			super(ports.projectID);
+			hasPorts = ports.hasPorts;
+			exposedPort = ports.exposedPort;
+			exposedDebugPort = ports.exposedDebugPort;
+		}
+	}
+
+	public static class ProjectChanged extends PortsEvent {
+		public final String containerId;
+		// Null if not set
+		public final Boolean autoBuild;
+
+		public ProjectChanged(JSONObject event) throws JSONException {
+			super(event);
+			containerId = getString(event, MCConstants.KEY_CONTAINER_ID);
+			autoBuild = event.has(MCConstants.KEY_AUTO_BUILD) ? Boolean.valueOf(event.getBoolean(MCConstants.KEY_AUTO_BUILD)) : null;
+		}
+
+		private ProjectChanged(ProjectChanged newer, Boolean autoBuild) {
+			super(newer);
+			this.containerId = newer.containerId;
+			this.autoBuild = autoBuild;
+		}
+
+		/**
+		 * Merge with a newer event for the same project. The container and ports always come
+		 * from the newer event, the auto build setting is kept if the newer event does not have it.
+		 */
+		public ProjectChanged merge(ProjectChanged newer) {
+			return new ProjectChanged(newer, newer.autoBuild != null ? newer.autoBuild : autoBuild);
+		}
+	}
+
+	public static class ProjectSettingsChanged extends SocketEvent {
+		// Null if not set
+		public final String contextRoot;
+
+		public ProjectSettingsChanged(JSONObject event) throws JSONException {
+			super(event);
+			contextRoot = getString(event, MCConstants.KEY_CONTEXT_ROOT);
+		}
+	}
+
+	public static class StatusChanged extends SocketEvent {
+		// Each is null if not included in the event
+		public final String appStatus;
+		public final String buildStatus;
+		public final String detailedBuildStatus;
+
+		public StatusChanged(JSONObject event) throws JSONException {
+			super(event);
+			appStatus = getString(event, MCConstants.KEY_APP_STATUS);
+			buildStatus = getString(event, MCConstants.KEY_BUILD_STATUS);
+			detailedBuildStatus = getString(event, MCConstants.KEY_DETAILED_BUILD_STATUS);
+		}
+
+		private StatusChanged(String projectID, String appStatus, String buildStatus, String detailedBuildStatus) {
+			super(projectID);
+			this.appStatus = appStatus;
+			this.buildStatus = buildStatus;
+			this.detailedBuildStatus = detailedBuildStatus;
+		}
+
+		/**
+		 * Merge with a newer event for the same project. Each status comes from the newer
+		 * event if it has it, the build status detail always goes with its build status.
+		 */
+		public StatusChanged merge(StatusChanged newer) {
+			boolean newBuildStatus = newer.buildStatus != null;
+			return new StatusChanged(projectID,
+					newer.appStatus != null ? newer.appStatus : appStatus,
+					newBuildStatus ? newer.buildStatus : buildStatus,
+					newBuildStatus ? newer.detailedBuildStatus : detailedBuildStatus);
+		}
+	}
+
+	public static class ProjectRestart extends PortsEvent {
+		public final String status;
+		public final StartMode startMode;
+
+		public ProjectRestart(JSONObject event) throws JSONException {
+			super(event);
+			status = event.getString(MCConstants.KEY_STATUS);
+			startMode = StartMode.get(event);
+		}
+	}
+
+	public static class ProjectClosed extends SocketEvent {
+		public ProjectClosed(JSONObject event) throws JSONException {
+			super(event);
+		}
+	}
+
+	public static class ProjectDeletion extends SocketEvent {
+		public ProjectDeletion(JSONObject event) throws JSONException {
+			super(event);
+		}
+	}
+
+	public static class ContainerLogs extends SocketEvent {
+		public final String logs;
+		// The position of the logs in the whole log if they are a delta, -1 if they are the whole log
+		public final long offset;
+		public final boolean reset;
+
+		public ContainerLogs(JSONObject event) throws JSONException {
+			super(event);
+			logs = event.getString(MCConstants.KEY_LOGS);
+			offset = event.optLong(MCConstants.KEY_LOG_OFFSET, -1);
+			reset = event.optBoolean(MCConstants.KEY_LOG_RESET, false);
+		}
+	}
+
+	public static class LogUpdate extends SocketEvent {
+		public final String logType;
+		public final String logName;
+		public final String logs;
+		public final boolean reset;
+
+		public LogUpdate(JSONObject event) throws JSONException {
+			super(event);
+			logType = event.getString(MCConstants.KEY_LOG_TYPE);
+			logName = event.getString(MCConstants.KEY_LOG_NAME);
+			String contents = getString(event, MCConstants.KEY_LOGS);
+			logs = contents == null ? "" : contents; //$NON-NLS-1$
+			reset = event.optBoolean(MCConstants.KEY_LOG_RESET, false);
+		}
+	}
+
+	public static class ProjectValidated extends SocketEvent {
+		public final String validationStatus;
+		// Null if there are no results
+		public final JSONArray results;
+
+		public ProjectValidated(JSONObject event) throws JSONException {
+			super(event);
+			validationStatus = event.getString(MCConstants.KEY_VALIDATION_STATUS);
+			results = event.optJSONArray(MCConstants.KEY_VALIDATION_RESULTS);
+		}
+	}
+}
@@ -0,0 +1,240 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.microclimate.core.internal.connection;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import com.ibm.microclimate.core.internal.MCLogger;
+import com.ibm.microclimate.core.internal.connection.SocketEvent.ProjectChanged;
+import com.ibm.microclimate.core.internal.connection.SocketEvent.StatusChanged;
+import com.ibm.microclimate.core.internal.metrics.Histogram;
+import com.ibm.microclimate.core.internal.metrics.Metrics;
+
+/**
+ * Merges the project status changed and project changed events that arrive for a project
+ * within a short window so that a burst of events, for example during a build, is applied
+ * to the application model (and refreshed in the UI) once. The latest value of each field wins.
+ * The merged events are applied through the dispatcher so they stay in order with the other
+ * events for the project.
+ *
+ * The latency of the merged events, from when the first of them was received to when they
+ * were applied, is recorded under the socket event latency metric for each event.
+ */
+public class SocketEventCoalescer {
+
+	public static final String WINDOW_PROPERTY = "com.ibm.microclimate.socket.coalesceWindow"; //$NON-NLS-1$
+	private static final long DEFAULT_WINDOW_MS = 100;
+
+	// Only used to fire the flushes, the events are applied by the dispatcher
+	private static final ScheduledExecutorService flushScheduler;
+	static {
+		ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "Microclimate socket event coalescer"); //$NON-NLS-1$
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		scheduler.setRemoveOnCancelPolicy(true);
+		flushScheduler = scheduler;
+	}
+
+	private static final Histogram projectChangedLatency =
+			Metrics.histogram(Metrics.SOCKET_EVENT_LATENCY, MicroclimateSocket.EVENT_PROJECT_CHANGED);
+	private static final Histogram statusChangedLatency =
+			Metrics.histogram(Metrics.SOCKET_EVENT_LATENCY, MicroclimateSocket.EVENT_PROJECT_STATUS_CHANGE);
+
+	/**
+	 * One refresh of all of the applications, shared by the status changes for unknown projects
+	 * from one flush. The first of them to run does the refresh and the others wait for it, so
+	 * they never wait on a refresh that is queued behind them.
+	 */
+	private class SharedRefresh {
+		// Guarded by this
+		private boolean done = false;
+
+		private synchronized void run() {
+			if (!done) {
+				done = true;
+				MCLogger.log("Refreshing the applications for status changes on unknown projects"); //$NON-NLS-1$
+				mcConnection.refreshApps(null);
+			}
+		}
+	}
+
+	private static class PendingEvents {
+		private ProjectChanged projectChanged;
+		private StatusChanged statusChanged;
+		// When the first of the merged events was received
+		private final long receivedTime = System.nanoTime();
+	}
+
+	private final MicroclimateSocket mcSocket;
+	private final MicroclimateConnection mcConnection;
+	private final SocketEventDispatcher dispatcher;
+	private final long window;
+
+	// Guarded by this
+	private final Map<String, PendingEvents> pending = new LinkedHashMap<String, PendingEvents>();
+	private ScheduledFuture<?> scheduledFlush = null;
+	private boolean disposed = false;
+
+	public SocketEventCoalescer(MicroclimateSocket mcSocket, MicroclimateConnection mcConnection, SocketEventDispatcher dispatcher) {
+		this.mcSocket = mcSocket;
+		this.mcConnection = mcConnection;
+		this.dispatcher = dispatcher;
+		this.window = Long.getLong(WINDOW_PROPERTY, DEFAULT_WINDOW_MS);
+	}
+
+	public void add(ProjectChanged event) {
+		if (window <= 0) {
+			dispatchProjectChanged(event, System.nanoTime());
+			return;
+		}
+		synchronized (this) {
+			PendingEvents events = getPending(event.projectID);
+			events.projectChanged = events.projectChanged == null ? event : events.projectChanged.merge(event);
+			scheduleFlush();
+		}
+	}
+
+	public void add(StatusChanged event) {
+		if (window <= 0) {
+			dispatchStatusChanged(event, System.nanoTime(), null);
+			return;
+		}
+		synchronized (this) {
+			PendingEvents events = getPending(event.projectID);
+			events.statusChanged = events.statusChanged == null ? event : events.statusChanged.merge(event);
+			scheduleFlush();
+		}
+	}
+
+	/**
+	 * Dispatch any pending events for the project now. Called before any other event
+	 * for the project is dispatched so the events stay in order. The events are queued while
+	 * holding the lock so that a flush of all of the events cannot queue them after a later
+	 * event for the project.
+	 */
+	public synchronized void flush(String projectID) {
+		if (pending.isEmpty()) {
+			return;
+		}
+		PendingEvents events = pending.remove(projectID);
+		if (events != null) {
+			dispatch(events, null);
+		}
+	}
+
+	/**
+	 * Dispatch all of the pending events. The status changes for projects that are not known yet
+	 * are handled by one refresh rather than a refresh for each. Each event is still dispatched
+	 * on its project's key so it stays in order with the other events for the project.
+	 */
+	public synchronized void flushAll() {
+		if (scheduledFlush != null) {
+			scheduledFlush.cancel(false);
+			scheduledFlush = null;
+		}
+		if (pending.isEmpty()) {
+			return;
+		}
+		// Whether a project is known is checked when the event is applied, not here, since
+		// looking up the application takes the connection lock
+		int statusOnly = 0;
+		for (PendingEvents projectEvents : pending.values()) {
+			if (projectEvents.projectChanged == null) {
+				statusOnly++;
+			}
+		}
+		// With only one the handler refreshes just the one project
+		SharedRefresh refresh = statusOnly > 1 ? new SharedRefresh() : null;
+		for (PendingEvents projectEvents : pending.values()) {
+			dispatch(projectEvents, refresh);
+		}
+		pending.clear();
+	}
+
+	public synchronized void dispose() {
+		disposed = true;
+		pending.clear();
+		if (scheduledFlush != null) {
+			scheduledFlush.cancel(false);
+			scheduledFlush = null;
+		}
+	}
+
+	// Must hold the lock
+	private PendingEvents getPending(String projectID) {
+		PendingEvents events = pending.get(projectID);
+		if (events == null) {
+			events = new PendingEvents();
+			pending.put(projectID, events);
+		}
+		return events;
+	}
+
+	// Must hold the lock
+	private void scheduleFlush() {
+		if (scheduledFlush != null || disposed) {
+			return;
+		}
+		scheduledFlush = flushScheduler.schedule(new Runnable() {
+			@Override
+			public void run() {
+				flushAll();
+			}
+		}, window, TimeUnit.MILLISECONDS);
+	}
+
+	// Must hold the lock, the dispatcher only queues the events
+	private void dispatch(PendingEvents events, SharedRefresh refresh) {
+		// The two events change different fields so the order between them does not matter
+		if (events.projectChanged != null) {
+			dispatchProjectChanged(events.projectChanged, events.receivedTime);
+		}
+		if (events.statusChanged != null) {
+			dispatchStatusChanged(events.statusChanged, events.receivedTime, events.projectChanged == null ? refresh : null);
+		}
+	}
+
+	private void dispatchProjectChanged(final ProjectChanged event, final long receivedTime) {
+		dispatcher.dispatch(event.projectID, new Runnable() {
+			@Override
+			public void run() {
+				mcSocket.onProjectChanged(event);
+				projectChangedLatency.recordSince(receivedTime);
+			}
+		});
+	}
+
+	private void dispatchStatusChanged(final StatusChanged event, final long receivedTime, final SharedRefresh refresh) {
+		dispatcher.dispatch(event.projectID, new Runnable() {
+			@Override
+			public void run() {
+				// If the refresh does not pick up the project the handler refreshes just this project
+				if (refresh != null && mcConnection.getAppByID(event.projectID) == null) {
+					refresh.run();
+				}
+				mcSocket.onProjectStatusChanged(event);
+				statusChangedLatency.recordSince(receivedTime);
+			}
+		});
+	}
+}
@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.microclimate.core.internal.connection;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.ibm.microclimate.core.internal.MCLogger;
+
+/**
+ * Runs the work for the socket events off the socket.io event thread. Events with the same key
+ * (usually the project id) are run one at a time in the order they arrived, events with different
+ * keys run in parallel on a pool of daemon threads shared by all connections.
+ */
+public class SocketEventDispatcher {
+
+	public static final String MAX_THREADS_PROPERTY = "com.ibm.microclimate.socket.eventThreads"; //$NON-NLS-1$
+	private static final int DEFAULT_MAX_THREADS = 4;
+	private static final long IDLE_THREAD_TIMEOUT_SECONDS = 30;
+	// Number of tasks a queue runs before giving up its thread so a busy project cannot starve the others
+	private static final int MAX_BATCH = 32;
+
+	// Key for events that are not for a particular project
+	public static final String CONNECTION_KEY = ""; //$NON-NLS-1$
+
+	private static final ThreadPoolExecutor executor;
+	static {
+		int maxThreads = Math.max(1, Integer.getInteger(MAX_THREADS_PROPERTY, DEFAULT_MAX_THREADS));
+		executor = new ThreadPoolExecutor(maxThreads, maxThreads, IDLE_THREAD_TIMEOUT_SECONDS, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+					private final AtomicInteger count = new AtomicInteger();
+
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread thread = new Thread(r, "Microclimate socket event #" + count.incrementAndGet()); //$NON-NLS-1$
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	private final String name;
+
+	// Queues that have work pending or running, a queue is removed once it is empty
+	private final Map<String, SerialQueue> queues = new HashMap<String, SerialQueue>();
+
+	private boolean disposed = false;
+
+	public SocketEventDispatcher(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Queue the task to run after any other tasks with the same key. Never blocks.
+	 */
+	public void dispatch(String key, Runnable task) {
+		SerialQueue queue;
+		synchronized (queues) {
+			if (disposed) {
+				MCLogger.log("Dropping socket event for " + key + " since the dispatcher for " + name + " has been disposed"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				return;
+			}
+			queue = queues.get(key);
+			if (queue == null) {
+				queue = new SerialQueue(key);
+				queues.put(key, queue);
+			}
+			queue.tasks.add(task);
+			if (queue.scheduled) {
+				// Will be picked up by the running drain
+				return;
+			}
+			queue.scheduled = true;
+		}
+		try {
+			executor.execute(queue);
+		} catch (RejectedExecutionException e) {
+			MCLogger.logError("Failed to run the socket event for " + key, e); //$NON-NLS-1$
+			synchronized (queues) {
+				queues.remove(key);
+				queues.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Wait until there are no events pending or running, for tests and benchmarks that need
+	 * the events they sent to have been handled. Returns false if the timeout passed first.
+	 */
+	public boolean awaitIdle(long timeoutMs) throws InterruptedException {
+		long end = System.currentTimeMillis() + timeoutMs;
+		synchronized (queues) {
+			while (!queues.isEmpty()) {
+				long remaining = end - System.currentTimeMillis();
+				if (remaining <= 0) {
+					return false;
+				}
+				queues.wait(remaining);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Drop any pending events. Events that are already running are left to finish.
+	 */
+	public void dispose() {
+		synchronized (queues) {
+			disposed = true;
+			for (SerialQueue queue : queues.values()) {
+				queue.tasks.clear();
+			}
+			queues.clear();
+			queues.notifyAll();
+		}
+	}
+
+	private class SerialQueue implements Runnable {
+		private final String key;
+		// Guarded by the queues lock
+		private final ArrayDeque<Runnable> tasks = new ArrayDeque<Runnable>();
+		private boolean scheduled = false;
+
+		private SerialQueue(String key) {
+			this.key = key;
+		}
+
+		@Override
+		public void run() {
+			for (int count = 0; ; count++) {
+				Runnable task;
+				synchronized (queues) {
+					task = tasks.poll();
+					if (task == null) {
+						scheduled = false;
+						if (queues.get(key) == this) {
+							queues.remove(key);
+							if (queues.isEmpty()) {
+								queues.notifyAll();
+							}
+						}
+						return;
+					}
+					if (count == MAX_BATCH) {
+						// Go to the back of the pool's queue, this queue is still scheduled
+						tasks.addFirst(task);
+						break;
+					}
+				}
+				try {
+					task.run();
+				} catch (Throwable t) {
+					MCLogger.logError("An error occurred handling a socket event for " + key, t); //$NON-NLS-1$
+				}
+			}
+			try {
+				executor.execute(this);
+			} catch (RejectedExecutionException e) {
+				MCLogger.logError("Failed to run the socket events for " + key, e); //$NON-NLS-1$
+			}
+		}
+	}
+}
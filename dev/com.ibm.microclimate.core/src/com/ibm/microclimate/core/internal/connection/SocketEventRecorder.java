@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.microclimate.core.internal.connection;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import com.ibm.microclimate.core.internal.MCLogger;
+
+/**
+ * Records the socket events received from Microclimate to a trace file so that a session can be
+ * replayed later, for example to load test the event handling. Each line of the trace is a JSON
+ * object with the time the event was received in microseconds since recording started, the event
+ * name and the event data.
+ *
+ * Recording is off unless it is started, either by setting the trace file system property before
+ * the plugin starts or by calling start.
+ */
+public class SocketEventRecorder {
+
+	public static final String TRACE_FILE_PROPERTY = "com.ibm.microclimate.socket.traceFile"; //$NON-NLS-1$
+
+	public static final String
+			KEY_TIME = "time", //$NON-NLS-1$
+			KEY_EVENT = "event", //$NON-NLS-1$
+			KEY_DATA = "data"; //$NON-NLS-1$
+
+	private static final long FLUSH_INTERVAL_NS = 1000000000L;
+
+	private static volatile SocketEventRecorder instance = null;
+	static {
+		String traceFile = System.getProperty(TRACE_FILE_PROPERTY);
+		if (traceFile != null && !traceFile.isEmpty()) {
+			start(Paths.get(traceFile));
+		}
+	}
+
+	/**
+	 * The active recorder, or null if the events are not being recorded.
+	 */
+	public static SocketEventRecorder getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Start recording to the given file, replacing any recording in progress.
+	 * Returns false if the file could not be opened.
+	 */
+	public static synchronized boolean start(Path traceFile) {
+		stop();
+		try {
+			instance = new SocketEventRecorder(traceFile);
+			MCLogger.log("Recording socket events to " + traceFile); //$NON-NLS-1$
+			return true;
+		} catch (IOException e) {
+			MCLogger.logError("Failed to open the socket event trace file " + traceFile, e); //$NON-NLS-1$
+			return false;
+		}
+	}
+
+	/**
+	 * Stop recording, if the events are being recorded, and close the trace file.
+	 */
+	public static synchronized void stop() {
+		SocketEventRecorder recorder = instance;
+		instance = null;
+		if (recorder != null) {
+			recorder.close();
+		}
+	}
+
+	private final Path traceFile;
+	private final long startTime = System.nanoTime();
+
+	// Guarded by this
+	private BufferedWriter writer;
+	private long lastFlush = startTime;
+	private int eventCount = 0;
+
+	private SocketEventRecorder(Path traceFile) throws IOException {
+		this.traceFile = traceFile;
+		writer = Files.newBufferedWriter(traceFile, StandardCharsets.UTF_8);
+	}
+
+	public void record(String eventName, JSONObject data) {
+		long now = System.nanoTime();
+		String line;
+		try {
+			JSONObject entry = new JSONObject();
+			entry.put(KEY_TIME, (now - startTime) / 1000);
+			entry.put(KEY_EVENT, eventName);
+			entry.put(KEY_DATA, data);
+			line = entry.toString();
+		} catch (JSONException e) {
+			MCLogger.logError("Failed to record the " + eventName + " event", e); //$NON-NLS-1$ //$NON-NLS-2$
+			return;
+		}
+
+		synchronized (this) {
+			if (writer == null) {
+				return;
+			}
+			try {
+				writer.write(line);
+				writer.newLine();
+				eventCount++;
+				if (now - lastFlush > FLUSH_INTERVAL_NS) {
+					writer.flush();
+					lastFlush = now;
+				}
+			} catch (IOException e) {
+				MCLogger.logError("Failed to write to the socket event trace file " + traceFile + ", recording stopped", e); //$NON-NLS-1$ //$NON-NLS-2$
+				closeWriter();
+			}
+		}
+	}
+
+	public synchronized int getEventCount() {
+		return eventCount;
+	}
+
+	private synchronized void close() {
+		if (writer != null) {
+			MCLogger.log("Recorded " + eventCount + " socket events to " + traceFile); //$NON-NLS-1$ //$NON-NLS-2$
+			closeWriter();
+		}
+	}
+
+	// Must hold the lock
+	private void closeWriter() {
+		try {
+			writer.close();
+		} catch (IOException e) {
+			MCLogger.logError("Failed to close the socket event trace file " + traceFile, e); //$NON-NLS-1$
+		}
+		writer = null;
+	}
+}
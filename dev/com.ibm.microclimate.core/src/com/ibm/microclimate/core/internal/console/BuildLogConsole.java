@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2018 IBM Corporation and others.
+ * Copyright (c) 2018, 2019 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v2.0
  * which accompanies this distribution, and is available at
@@ -19,15 +19,27 @@ import org.eclipse.ui.console.IOConsoleOutputStream;
 import com.ibm.microclimate.core.MicroclimateCorePlugin;
 import com.ibm.microclimate.core.internal.MCLogger;
 import com.ibm.microclimate.core.internal.MicroclimateApplication;
+import com.ibm.microclimate.core.internal.metrics.Counter;
+import com.ibm.microclimate.core.internal.metrics.Metrics;
 
 public class BuildLogConsole extends IOConsole {
-	
+
+	// Length of the start and end of the shown log that are kept to check if a full copy of the log extends it
+	private static final int MATCH_LENGTH = 1024;
+
+	private static final Counter charsWritten = Metrics.counter(Metrics.CONSOLE_CHARS_WRITTEN, "build"); //$NON-NLS-1$
+
 	private final MicroclimateApplication app;
 	private final IOConsoleOutputStream outputStream;
-	private double lastModified = 0;
 	private final BuildLogMonitor monitor;
-	private final Thread monitorThread;
-	
+	private double lastModified = 0;
+	// Bytes of the log received so far
+	private long byteOffset = 0;
+	// Characters of the log shown so far
+	private long length = 0;
+	private String head = ""; //$NON-NLS-1$
+	private String tail = ""; //$NON-NLS-1$
+
 	public BuildLogConsole(String name, MicroclimateApplication app) {
 		super(name, MicroclimateConsoleFactory.MC_CONSOLE_TYPE,
 				MicroclimateCorePlugin.getIcon(MicroclimateCorePlugin.DEFAULT_ICON_PATH),
@@ -35,41 +47,81 @@ public class BuildLogConsole extends IOConsole {
 		this.app = app;
 		outputStream = newOutputStream();
 		monitor = new BuildLogMonitor(this);
-		monitorThread = new Thread(monitor, name);
-		monitorThread.start();
+		monitor.start();
 	}
-	
+
 	public MicroclimateApplication getApp() {
 		return app;
 	}
-	
-	public boolean hasChanged(double timestamp) {
+
+	public synchronized boolean hasChanged(double timestamp) {
 		if (timestamp > lastModified) {
 			return true;
 		}
 		return false;
 	}
-	
-	public synchronized void update(String content, double lastModified, boolean replace) {
+
+	public synchronized long getByteOffset() {
+		return byteOffset;
+	}
+
+	/**
+	 * Update the console with more of the log. If content is the whole log then only the
+	 * part that is not shown yet is written, unless the log was replaced in which case
+	 * the console is cleared first.
+	 */
+	public synchronized void update(String content, double lastModified, long byteOffset, boolean wholeLog) {
 		if (outputStream.isClosed()) {
 			return;
 		}
-		MCLogger.log("Updating build log for: " + app.name); //$NON-NLS-1$
 		this.lastModified = lastModified;
-		if (replace) {
-			clearConsole();
+		this.byteOffset = byteOffset;
+		if (content.isEmpty()) {
+			return;
+		}
+
+		String newContent = content;
+		if (wholeLog) {
+			if (extendsShownLog(content)) {
+				newContent = content.substring((int) length);
+			} else {
+				MCLogger.log("Replacing build log for: " + app.name); //$NON-NLS-1$
+				clearConsole();
+				length = 0;
+				head = ""; //$NON-NLS-1$
+				tail = ""; //$NON-NLS-1$
+			}
+		}
+		if (newContent.isEmpty()) {
+			return;
 		}
+
+		MCLogger.log("Appending {} characters to the build log for: {}", newContent.length(), app.name); //$NON-NLS-1$
+		if (head.length() < MATCH_LENGTH) {
+			head = head + newContent.substring(0, Math.min(newContent.length(), MATCH_LENGTH - head.length()));
+		}
+		String end = tail + newContent;
+		tail = end.substring(Math.max(0, end.length() - MATCH_LENGTH));
+		length += newContent.length();
 		try {
-			outputStream.write(content);
+			outputStream.write(newContent);
+			charsWritten.add(newContent.length());
 		} catch (IOException e) {
 			MCLogger.logError("Failed to write to the build console for application: " + app.name, e); //$NON-NLS-1$
 		}
 	}
 
+	// Must hold the lock
+	private boolean extendsShownLog(String content) {
+		if (length == 0 || content.length() < length) {
+			return length == 0;
+		}
+		return content.startsWith(head) && content.regionMatches((int) length - tail.length(), tail, 0, tail.length());
+	}
+
 	@Override
 	protected synchronized void dispose() {
 		monitor.dispose();
-		monitorThread.interrupt();
 		try {
 			outputStream.close();
 		} catch (IOException e) {
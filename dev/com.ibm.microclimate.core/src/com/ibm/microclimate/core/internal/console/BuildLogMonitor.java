@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2018 IBM Corporation and others.
+ * Copyright (c) 2018, 2019 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v2.0
  * which accompanies this distribution, and is available at
@@ -13,6 +13,10 @@ package com.ibm.microclimate.core.internal.console;
 
 import java.io.IOException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 import com.ibm.microclimate.core.internal.HttpUtil;
 import com.ibm.microclimate.core.internal.HttpUtil.HttpResult;
@@ -20,63 +24,183 @@ import com.ibm.microclimate.core.internal.MCLogger;
 import com.ibm.microclimate.core.internal.MicroclimateApplication;
 import com.ibm.microclimate.core.internal.constants.MCConstants;
 
-public class BuildLogMonitor implements Runnable {
-	
-	private boolean disposed = false;
-	
+/**
+ * Keeps a build log console up to date for servers that do not stream the build log over
+ * the socket. The log is checked by the shared ConsolePollingService rather than a thread
+ * for each console. Only the part of the log that the console does not have yet is requested,
+ * using a byte range, so a large build log is not downloaded again every time it changes.
+ */
+public class BuildLogMonitor implements IConsolePollSource {
+
+	// Build status changes trigger a check right away so the polling can back off a long way
+	private static final long MIN_POLL_INTERVAL_MS = 2000;
+	private static final long MAX_POLL_INTERVAL_MS = 20000;
+
+	private static final String HEADER_RANGE = "Range"; //$NON-NLS-1$
+	private static final String HEADER_CONTENT_RANGE = "Content-Range"; //$NON-NLS-1$
+	private static final int PARTIAL_CONTENT = 206;
+
+	private static final Set<BuildLogMonitor> monitors = new CopyOnWriteArraySet<BuildLogMonitor>();
+
 	private final BuildLogConsole console;
-	
+	private ConsolePollingService.Registration registration;
+
 	public BuildLogMonitor(BuildLogConsole console) {
 		this.console = console;
 	}
 
+	public synchronized void start() {
+		monitors.add(this);
+		registration = ConsolePollingService.getInstance().register(this, MIN_POLL_INTERVAL_MS, MAX_POLL_INTERVAL_MS);
+	}
+
+	public synchronized void dispose() {
+		monitors.remove(this);
+		if (registration != null) {
+			registration.cancel();
+			registration = null;
+		}
+	}
+
+	/**
+	 * Check the build log for the application now rather than waiting for the next
+	 * poll, for example because its build status changed.
+	 */
+	public static void logChanged(MicroclimateApplication app) {
+		for (BuildLogMonitor monitor : monitors) {
+			if (monitor.console.getApp() == app) {
+				monitor.pollNow();
+			}
+		}
+	}
+
+	private synchronized void pollNow() {
+		if (registration != null) {
+			registration.pollNow();
+		}
+	}
+
 	@Override
-	public void run() {
-		while (!disposed) {
+	public String toString() {
+		return console.getName();
+	}
+
+	@Override
+	public boolean poll() {
+		MicroclimateApplication app = console.getApp();
+		String buildLogPath = MCConstants.APIPATH_PROJECT_LIST + "/" + app.projectID + "/" + MCConstants.KEY_BUILD_LOG;	//$NON-NLS-1$ //$NON-NLS-2$
+		URI uri = app.mcConnection.baseUrl.resolve(buildLogPath);
+		try {
 			// First check if log has changed
-			MicroclimateApplication app = console.getApp();
-			String buildLogPath = MCConstants.APIPATH_PROJECT_LIST + "/" + app.projectID + "/" + MCConstants.KEY_BUILD_LOG;	//$NON-NLS-1$
-			URI uri = app.mcConnection.baseUrl.resolve(buildLogPath);
-			try {
-				HttpResult result = HttpUtil.head(uri);
-				if (result.isGoodResponse) {
-					String timestampStr = result.getHeader(MCConstants.KEY_BUILD_LOG_LAST_MODIFIED);
-					double timestamp = Double.parseDouble(timestampStr);
-					if (console.hasChanged(timestamp)) {
-						// Now get the contents
-						result = HttpUtil.get(uri);
-						if (result.isGoodResponse ) {
-							timestampStr = result.getHeader(MCConstants.KEY_BUILD_LOG_LAST_MODIFIED);
-							timestamp = Double.parseDouble(timestampStr);
-							String contents = result.response;
-							console.update(contents, timestamp, true);
-						} else {
-							MCLogger.logError("Get request failed for " + uri + ": " + result.error); //$NON-NLS-1$
-						}
+			HttpResult result = HttpUtil.head(uri);
+			if (!result.isGoodResponse) {
+				MCLogger.logError("Head request failed for " + uri + ": " + result.error); //$NON-NLS-1$ //$NON-NLS-2$
+				return false;
+			}
+			double timestamp = getTimestamp(result);
+			if (!console.hasChanged(timestamp)) {
+				return false;
+			}
+
+			long offset = console.getByteOffset();
+			if (offset > 0) {
+				result = HttpUtil.get(uri, Collections.singletonMap(HEADER_RANGE, "bytes=" + offset + "-")); //$NON-NLS-1$ //$NON-NLS-2$
+				if (result.responseCode == HttpResult.RANGE_NOT_SATISFIABLE) {
+					// Nothing past the offset, but if the log got shorter it was replaced
+					long length = getContentLength(result.getHeader(HEADER_CONTENT_RANGE));
+					if (length < 0 || length >= offset) {
+						console.update("", timestamp, offset, false); //$NON-NLS-1$
+						return true;
+					}
+					result = HttpUtil.get(uri);
+				} else if (result.responseCode == PARTIAL_CONTENT) {
+					long[] range = getRange(result.getHeader(HEADER_CONTENT_RANGE));
+					if (range != null && range[0] == offset) {
+						console.update(result.response, getTimestamp(result, timestamp), range[1] + 1, false);
+						return true;
 					}
-				} else {
-					MCLogger.logError("Head request failed for " + uri + ": " + result.error); //$NON-NLS-1$
+					// Not the range that was asked for
+					result = HttpUtil.get(uri);
 				}
-			} catch (IOException e) {
-				MCLogger.logError("Head request failed for uri: " + uri, e); //$NON-NLS-1$
-			} catch (NumberFormatException e) {
-				MCLogger.logError("Invalid timestamp returned for uri: " + uri, e); //$NON-NLS-1$
-			} catch (Exception e) {
-				MCLogger.logError("Exception processing result for uri: " + uri, e); //$NON-NLS-1$
+			} else {
+				result = HttpUtil.get(uri);
 			}
-			
-			try {
-				Thread.sleep(5000);
-			} catch (InterruptedException e) {
-				// Ignore
+
+			if (result.isGoodResponse && result.response != null) {
+				// The server sent the whole log, only append it if it extends what is shown
+				String contents = result.response;
+				long length = contents.getBytes(StandardCharsets.UTF_8).length;
+				console.update(contents, getTimestamp(result, timestamp), length, true);
+				return true;
+			} else {
+				MCLogger.logError("Get request failed for " + uri + ": " + result.error); //$NON-NLS-1$ //$NON-NLS-2$
 			}
+		} catch (IOException e) {
+			MCLogger.logError("Request for the build log failed for uri: " + uri, e); //$NON-NLS-1$
+		} catch (NumberFormatException e) {
+			MCLogger.logError("Invalid timestamp returned for uri: " + uri, e); //$NON-NLS-1$
+		} catch (Exception e) {
+			MCLogger.logError("Exception processing result for uri: " + uri, e); //$NON-NLS-1$
 		}
+		return false;
 	}
 
-	public synchronized void dispose() {
-		if (!disposed) {
-			disposed = true;
+	private static double getTimestamp(HttpResult result) {
+		return Double.parseDouble(result.getHeader(MCConstants.KEY_BUILD_LOG_LAST_MODIFIED));
+	}
+
+	private static double getTimestamp(HttpResult result, double defaultTimestamp) {
+		String timestampStr = result.getHeader(MCConstants.KEY_BUILD_LOG_LAST_MODIFIED);
+		return timestampStr == null ? defaultTimestamp : Double.parseDouble(timestampStr);
+	}
+
+	/**
+	 * Parse a content range of the form "bytes first-last/length". Returns the first and
+	 * last byte positions or null if the header is not valid.
+	 */
+	public static long[] getRange(String contentRange) {
+		if (contentRange == null || !contentRange.startsWith("bytes ")) { //$NON-NLS-1$
+			return null;
+		}
+		int dash = contentRange.indexOf('-');
+		int slash = contentRange.indexOf('/');
+		if (dash < 0 || slash < dash) {
+			return null;
+		}
+		try {
+			long first = Long.parseLong(contentRange.substring(6, dash).trim());
+			long last = Long.parseLong(contentRange.substring(dash + 1, slash).trim());
+			if (first < 0 || last < first) {
+				return null;
+			}
+			// The length is a number or * if it is not known
+			String length = contentRange.substring(slash + 1).trim();
+			if (!"*".equals(length) && last >= Long.parseLong(length)) { //$NON-NLS-1$
+				return null;
+			}
+			return new long[] { first, last };
+		} catch (NumberFormatException e) {
+			return null;
 		}
 	}
 
+	/**
+	 * Get the complete length from a content range such as "bytes &#42;/length". Returns -1
+	 * if the length is not known.
+	 */
+	public static long getContentLength(String contentRange) {
+		if (contentRange == null) {
+			return -1;
+		}
+		int slash = contentRange.indexOf('/');
+		if (slash < 0) {
+			return -1;
+		}
+		try {
+			long length = Long.parseLong(contentRange.substring(slash + 1).trim());
+			return length < 0 ? -1 : length;
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
 }
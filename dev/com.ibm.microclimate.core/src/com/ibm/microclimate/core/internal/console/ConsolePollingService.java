@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.microclimate.core.internal.console;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.ibm.microclimate.core.internal.MCLogger;
+import com.ibm.microclimate.core.internal.metrics.IGauge;
+import com.ibm.microclimate.core.internal.metrics.Metrics;
+
+/**
+ * Polls all of the registered console sources on a small shared pool of daemon threads
+ * rather than a thread for each console. Each source has its own interval which starts
+ * at the minimum, doubles each time a poll finds nothing new up to the maximum, and goes
+ * back to the minimum as soon as there is new output. Polls of the same source never overlap.
+ */
+public class ConsolePollingService {
+
+	public static final String THREADS_PROPERTY = "com.ibm.microclimate.console.pollThreads"; //$NON-NLS-1$
+	private static final int DEFAULT_THREADS = 2;
+	private static final long IDLE_THREAD_TIMEOUT_SECONDS = 30;
+
+	private static final ConsolePollingService instance = new ConsolePollingService();
+
+	public static ConsolePollingService getInstance() {
+		return instance;
+	}
+
+	private final ScheduledThreadPoolExecutor executor;
+
+	private ConsolePollingService() {
+		int threads = Math.max(1, Integer.getInteger(THREADS_PROPERTY, DEFAULT_THREADS));
+		executor = new ScheduledThreadPoolExecutor(threads, new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "Microclimate console poller #" + count.incrementAndGet()); //$NON-NLS-1$
+				thread.setDaemon(true);
+				thread.setPriority(Thread.MIN_PRIORITY + 1);
+				return thread;
+			}
+		});
+		executor.setKeepAliveTime(IDLE_THREAD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		executor.allowCoreThreadTimeOut(true);
+		executor.setRemoveOnCancelPolicy(true);
+		Metrics.registerGauge(Metrics.CONSOLE_POLLS_SCHEDULED, new IGauge() {
+			@Override
+			public long getValue() {
+				return executor.getQueue().size();
+			}
+		});
+	}
+
+	/**
+	 * Start polling the source. The first poll happens right away. The returned registration
+	 * must be cancelled when the console is disposed.
+	 */
+	public Registration register(IConsolePollSource source, long minIntervalMs, long maxIntervalMs) {
+		Registration registration = new Registration(source, minIntervalMs, Math.max(minIntervalMs, maxIntervalMs));
+		registration.pollNow();
+		return registration;
+	}
+
+	public class Registration implements Runnable {
+		private final IConsolePollSource source;
+		private final long minInterval;
+		private final long maxInterval;
+
+		// Guarded by this
+		private long interval;
+		private ScheduledFuture<?> future = null;
+		private boolean running = false;
+		private boolean pollAgain = false;
+		private boolean cancelled = false;
+
+		private Registration(IConsolePollSource source, long minInterval, long maxInterval) {
+			this.source = source;
+			this.minInterval = minInterval;
+			this.maxInterval = maxInterval;
+			this.interval = minInterval;
+		}
+
+		@Override
+		public void run() {
+			synchronized (this) {
+				if (cancelled) {
+					return;
+				}
+				future = null;
+				running = true;
+			}
+			boolean active = false;
+			try {
+				active = source.poll();
+			} catch (Throwable t) {
+				MCLogger.logError("An error occurred polling the console source " + source, t); //$NON-NLS-1$
+			}
+			synchronized (this) {
+				running = false;
+				if (cancelled) {
+					return;
+				}
+				interval = active ? minInterval : Math.min(maxInterval, interval * 2);
+				schedule(pollAgain ? 0 : interval);
+				pollAgain = false;
+			}
+		}
+
+		/**
+		 * Poll the source as soon as possible and go back to the minimum interval,
+		 * for example because it is known to have changed.
+		 */
+		public synchronized void pollNow() {
+			if (cancelled) {
+				return;
+			}
+			interval = minInterval;
+			if (running) {
+				pollAgain = true;
+				return;
+			}
+			if (future != null && !future.cancel(false)) {
+				// Already starting
+				return;
+			}
+			schedule(0);
+		}
+
+		/**
+		 * Stop polling the source. A poll that is already running is left to finish.
+		 */
+		public synchronized void cancel() {
+			cancelled = true;
+			if (future != null) {
+				future.cancel(false);
+				future = null;
+			}
+		}
+
+		// Must hold the lock
+		private void schedule(long delay) {
+			try {
+				future = executor.schedule(this, delay, TimeUnit.MILLISECONDS);
+			} catch (RejectedExecutionException e) {
+				MCLogger.logError("Failed to schedule the poll for the console source " + source, e); //$NON-NLS-1$
+			}
+		}
+	}
+}
@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.microclimate.core.internal.console;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The consoles that receive log events, indexed by project and log so an event can find its
+ * consoles without scanning all of them. Lookups do not lock and can run on the socket threads
+ * while consoles are registered and deregistered from the UI thread. The sets of consoles are
+ * replaced rather than changed so a lookup always sees a consistent set.
+ */
+public class ConsoleRegistry<C> {
+
+	public static final class Key {
+		private final String projectID;
+		// Null for the container logs which are not split by log
+		private final String logType;
+		private final String logName;
+
+		public Key(String projectID, String logType, String logName) {
+			this.projectID = projectID;
+			this.logType = logType;
+			this.logName = logName;
+		}
+
+		public Key(String projectID) {
+			this(projectID, null, null);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return projectID.equals(other.projectID) && equals(logType, other.logType) && equals(logName, other.logName);
+		}
+
+		private static boolean equals(String a, String b) {
+			return a == null ? b == null : a.equals(b);
+		}
+
+		@Override
+		public int hashCode() {
+			int result = projectID.hashCode();
+			result = 31 * result + (logType == null ? 0 : logType.hashCode());
+			result = 31 * result + (logName == null ? 0 : logName.hashCode());
+			return result;
+		}
+
+		@Override
+		public String toString() {
+			return logType == null ? projectID : projectID + "/" + logType + "/" + logName; //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	private final Map<Key, Set<C>> consoles = new ConcurrentHashMap<Key, Set<C>>();
+
+	public synchronized void register(Key key, C console) {
+		Set<C> current = consoles.get(key);
+		Set<C> updated = current == null ? new HashSet<C>(2) : new HashSet<C>(current);
+		updated.add(console);
+		consoles.put(key, Collections.unmodifiableSet(updated));
+	}
+
+	public synchronized void deregister(Key key, C console) {
+		Set<C> current = consoles.get(key);
+		if (current == null || !current.contains(console)) {
+			return;
+		}
+		if (current.size() == 1) {
+			consoles.remove(key);
+			return;
+		}
+		Set<C> updated = new HashSet<C>(current);
+		updated.remove(console);
+		consoles.put(key, Collections.unmodifiableSet(updated));
+	}
+
+	/**
+	 * Get the consoles registered for the key, never null.
+	 */
+	public Set<C> get(Key key) {
+		Set<C> result = consoles.get(key);
+		return result == null ? Collections.<C>emptySet() : result;
+	}
+}
@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.microclimate.core.internal.console;
+
+import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.ui.console.IOConsole;
+import org.eclipse.ui.console.IOConsoleOutputStream;
+
+import com.ibm.microclimate.core.internal.MCLogger;
+import com.ibm.microclimate.core.internal.metrics.Counter;
+import com.ibm.microclimate.core.internal.metrics.Metrics;
+
+/**
+ * Collects the text written to a console and writes it to the console's stream in one call
+ * a short time later, so a stream of small log updates does not cost a console update each.
+ * The flushes for all consoles run on one shared daemon thread and the flushes for one console
+ * never overlap. If the console is to be shown on update it is activated at most once per burst
+ * of output rather than for every write.
+ */
+public class ConsoleWriter {
+
+	private static final long FLUSH_DELAY_MS = 100;
+	// Output after this long without any is a new burst
+	private static final long BURST_GAP_MS = 2000;
+
+	private static final ScheduledExecutorService flushExecutor;
+	static {
+		ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "Microclimate console writer"); //$NON-NLS-1$
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		executor.setKeepAliveTime(30, TimeUnit.SECONDS);
+		executor.allowCoreThreadTimeOut(true);
+		flushExecutor = executor;
+	}
+
+	private static final Counter charsWritten = Metrics.counter(Metrics.CONSOLE_CHARS_WRITTEN, "socket"); //$NON-NLS-1$
+
+	private final IOConsole console;
+	private final IOConsoleOutputStream outputStream;
+
+	// Guarded by this
+	private StringBuilder pending = new StringBuilder();
+	private boolean clearPending = false;
+	private boolean flushScheduled = false;
+	private boolean disposed = false;
+	private volatile boolean activateOnWrite = false;
+
+	// Only used by the flush
+	private long lastOutputTime = 0;
+
+	private final Runnable flushTask = new Runnable() {
+		@Override
+		public void run() {
+			flush();
+		}
+	};
+
+	public ConsoleWriter(IOConsole console, IOConsoleOutputStream outputStream) {
+		this.console = console;
+		this.outputStream = outputStream;
+	}
+
+	/**
+	 * Queue text to be written. If clear is true the console is cleared first and any
+	 * text that has not been written yet is dropped.
+	 */
+	public synchronized void write(String text, boolean clear) {
+		if (disposed) {
+			return;
+		}
+		if (clear) {
+			pending.setLength(0);
+			clearPending = true;
+		}
+		pending.append(text);
+		if (!flushScheduled) {
+			flushScheduled = true;
+			try {
+				flushExecutor.schedule(flushTask, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+			} catch (RejectedExecutionException e) {
+				flushScheduled = false;
+				MCLogger.logError("Failed to schedule the write to the console " + console.getName(), e); //$NON-NLS-1$
+			}
+		}
+	}
+
+	public void setActivateOnWrite(boolean value) {
+		activateOnWrite = value;
+	}
+
+	/**
+	 * Drop any text that has not been written yet. The console disposes the stream.
+	 */
+	public synchronized void dispose() {
+		disposed = true;
+		pending = new StringBuilder();
+	}
+
+	private void flush() {
+		String text;
+		boolean clear;
+		synchronized (this) {
+			flushScheduled = false;
+			if (disposed || (pending.length() == 0 && !clearPending)) {
+				return;
+			}
+			text = pending.toString();
+			clear = clearPending;
+			// Don't hang on to a large buffer after a big write
+			pending = new StringBuilder();
+			clearPending = false;
+		}
+
+		try {
+			if (clear) {
+				console.clearConsole();
+			}
+			if (!text.isEmpty() && !outputStream.isClosed()) {
+				outputStream.write(text);
+				charsWritten.add(text.length());
+			}
+		} catch (IOException e) {
+			MCLogger.logError("Failed to write to the console " + console.getName(), e); //$NON-NLS-1$
+		}
+
+		if (!text.isEmpty()) {
+			long now = System.currentTimeMillis();
+			if (activateOnWrite && now - lastOutputTime > BURST_GAP_MS) {
+				console.activate();
+			}
+			lastOutputTime = now;
+		}
+	}
+}
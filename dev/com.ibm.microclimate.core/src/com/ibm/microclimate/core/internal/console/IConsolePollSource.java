@@ -0,0 +1,26 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.microclimate.core.internal.console;
+
+/**
+ * A source of console output that is checked periodically by the ConsolePollingService.
+ */
+public interface IConsolePollSource {
+
+	/**
+	 * Check the source for new output and write it to the console. Returns true if there
+	 * was new output, which keeps the source on its shortest interval, or false if it was
+	 * idle, which lets the interval back off.
+	 */
+	public boolean poll();
+
+}
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.microclimate.core.internal.console;
+
+import org.eclipse.osgi.util.NLS;
+
+import com.ibm.microclimate.core.internal.messages.Messages;
+
+/**
+ * Tracks how much of a log has been received and works out what has to be written to the console
+ * for each update from the server, which can be the whole log so far or a delta at an offset.
+ * Only the length of the log and the last few characters are kept, not the log itself, so the
+ * memory used does not grow with the log. Updates that are larger than the cap only have their
+ * end written, following a marker saying how much was left out.
+ */
+public class LogStream {
+
+	public static final String MAX_UPDATE_PROPERTY = "com.ibm.microclimate.console.maxUpdateChars"; //$NON-NLS-1$
+	private static final int DEFAULT_MAX_UPDATE = 1024 * 1024;
+
+	// Length of the end of the log that is kept to check that a snapshot continues the same log
+	private static final int FINGERPRINT_LENGTH = 256;
+
+	/**
+	 * What to write to the console for an update.
+	 */
+	public static class Update {
+		// True if the console should be cleared first
+		public final boolean reset;
+		public final String text;
+
+		private Update(boolean reset, String text) {
+			this.reset = reset;
+			this.text = text;
+		}
+	}
+
+	private final int maxUpdate;
+
+	// Guarded by this
+	private long length = 0;
+	private String tail = ""; //$NON-NLS-1$
+
+	public LogStream() {
+		this.maxUpdate = Math.max(FINGERPRINT_LENGTH, Integer.getInteger(MAX_UPDATE_PROPERTY, DEFAULT_MAX_UPDATE));
+	}
+
+	public synchronized long getLength() {
+		return length;
+	}
+
+	/**
+	 * Accept the whole log so far. If it continues the log that has been received then only
+	 * the new part is written, otherwise the log was replaced (for example the container was
+	 * rebuilt) and the console is reset. Returns null if there is nothing to do.
+	 */
+	public synchronized Update acceptSnapshot(String contents) {
+		if (length > 0 && contents.length() >= length
+				&& contents.regionMatches((int) length - tail.length(), tail, 0, tail.length())) {
+			return append(contents, (int) length, false, 0);
+		}
+		if (length == 0 && contents.isEmpty()) {
+			return null;
+		}
+		reset();
+		return append(contents, 0, true, 0);
+	}
+
+	/**
+	 * Accept part of the log that starts at the given offset in the whole log. Any part that was
+	 * received already is skipped and a gap is shown with the truncation marker. Returns null if
+	 * there is nothing to do.
+	 */
+	public synchronized Update acceptDelta(long offset, String delta, boolean resetLog) {
+		if (resetLog) {
+			reset();
+		}
+		if (offset < length) {
+			long overlap = length - offset;
+			if (overlap >= delta.length()) {
+				return resetLog ? new Update(true, "") : null; //$NON-NLS-1$
+			}
+			return append(delta, (int) overlap, resetLog, 0);
+		}
+		return append(delta, 0, resetLog, offset - length);
+	}
+
+	// Must hold the lock
+	private void reset() {
+		length = 0;
+		tail = ""; //$NON-NLS-1$
+	}
+
+	// Must hold the lock
+	private Update append(String contents, int start, boolean resetConsole, long missing) {
+		int newLength = contents.length() - start;
+		if (newLength == 0 && !resetConsole && missing == 0) {
+			return null;
+		}
+
+		// Only keep the end of the log to compare with the next snapshot
+		int tailStart = Math.max(start, contents.length() - FINGERPRINT_LENGTH);
+		String newTail = contents.substring(tailStart);
+		if (newTail.length() < FINGERPRINT_LENGTH) {
+			String prev = tail + newTail;
+			newTail = prev.substring(Math.max(0, prev.length() - FINGERPRINT_LENGTH));
+		}
+		tail = newTail;
+		length += missing + newLength;
+
+		String text;
+		long omitted = missing;
+		if (newLength > maxUpdate) {
+			omitted += newLength - maxUpdate;
+			text = contents.substring(contents.length() - maxUpdate);
+		} else {
+			text = start == 0 ? contents : contents.substring(start);
+		}
+		if (omitted > 0) {
+			text = NLS.bind(Messages.LogTruncatedMsg, Long.toString(omitted)) + text;
+		}
+		return new Update(resetConsole, text);
+	}
+}
@@ -11,6 +11,8 @@
 
 package com.ibm.microclimate.core.internal.console;
 
+import java.util.List;
+
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.ui.console.ConsolePlugin;
@@ -18,14 +20,20 @@ import org.eclipse.ui.console.IConsole;
 import org.eclipse.ui.console.IConsoleManager;
 import org.eclipse.ui.console.IOConsole;
 
+import com.ibm.microclimate.core.MicroclimateCorePlugin;
 import com.ibm.microclimate.core.internal.MCLogger;
 import com.ibm.microclimate.core.internal.MCUtil;
 import com.ibm.microclimate.core.internal.MicroclimateApplication;
+import com.ibm.microclimate.core.internal.constants.MCConstants;
 import com.ibm.microclimate.core.internal.messages.Messages;
 
 public class MicroclimateConsoleFactory {
 
 	static final String MC_CONSOLE_TYPE = "microclimate-console"; //$NON-NLS-1$
+
+	public static final int DEFAULT_CONSOLE_BUFFER_SIZE = 1000000;
+	// Smaller limits would trim the console too often
+	public static final int MIN_CONSOLE_BUFFER_SIZE = 10000;
 	
 	public static IOConsole createApplicationConsole(MicroclimateApplication app) {
 		String appLogName = NLS.bind(Messages.AppConsoleName, app.name);
@@ -37,7 +45,14 @@ public class MicroclimateConsoleFactory {
 	public static IOConsole createBuildConsole(MicroclimateApplication app) {
 		if (app.hasBuildLog()) {
 			String buildLogName = NLS.bind(Messages.BuildConsoleName, app.name);
-			IOConsole buildConsole = new BuildLogConsole(buildLogName, app);
+			IOConsole buildConsole;
+			ProjectLogInfo buildLogInfo = getBuildLogInfo(app);
+			if (buildLogInfo != null) {
+				// The server streams the build log over the socket
+				buildConsole = new SocketConsole(buildLogName, buildLogInfo, app);
+			} else {
+				buildConsole = new BuildLogConsole(buildLogName, app);
+			}
 			onNewConsole(buildConsole);
 			return buildConsole;
 		}
@@ -55,6 +70,54 @@ public class MicroclimateConsoleFactory {
 		return console;
 	}
 
+	private static ProjectLogInfo getBuildLogInfo(MicroclimateApplication app) {
+		List<ProjectLogInfo> logInfos = app.getLogInfos();
+		if (logInfos == null) {
+			return null;
+		}
+		// Prefer the main build log if there is more than one
+		ProjectLogInfo buildLogInfo = null;
+		for (ProjectLogInfo logInfo : logInfos) {
+			if (MCConstants.KEY_LOG_BUILD.equals(logInfo.type)) {
+				if (MCConstants.BUILD_LOG_SHORTNAME.equals(logInfo.logName)) {
+					return logInfo;
+				}
+				if (buildLogInfo == null) {
+					buildLogInfo = logInfo;
+				}
+			}
+		}
+		return buildLogInfo;
+	}
+
+	/**
+	 * Apply the console size preference to all of the open Microclimate consoles.
+	 */
+	public static void updateConsoleBufferSize() {
+		int bufferSize = getConsoleBufferSize();
+		for (IConsole console : ConsolePlugin.getDefault().getConsoleManager().getConsoles()) {
+			if (console instanceof IOConsole && MC_CONSOLE_TYPE.equals(console.getType())) {
+				setWaterMarks((IOConsole) console, bufferSize);
+			}
+		}
+	}
+
+	private static int getConsoleBufferSize() {
+		return MicroclimateCorePlugin.getDefault().getPreferenceStore()
+				.getInt(MicroclimateCorePlugin.CONSOLE_BUFFER_SIZE_PREFSKEY);
+	}
+
+	private static void setWaterMarks(IOConsole console, int bufferSize) {
+		if (bufferSize <= 0) {
+			console.setWaterMarks(-1, -1);
+			return;
+		}
+		// When the console goes over the limit the oldest fifth is dropped in one go,
+		// so the document is not trimmed again on every write
+		int high = Math.max(bufferSize, MIN_CONSOLE_BUFFER_SIZE);
+		console.setWaterMarks(high - high / 5, high);
+	}
+
 	private static void onNewConsole(IOConsole console) {
 		IConsoleManager consoleManager = ConsolePlugin.getDefault().getConsoleManager();
 
@@ -71,6 +134,8 @@ public class MicroclimateConsoleFactory {
 		MCLogger.log(String.format("Creating new application console: %s of type %s", 				//$NON-NLS-1$
 				console.getName(), console.getClass().getSimpleName()));
 
+		setWaterMarks(console, getConsoleBufferSize());
+
 		consoleManager.addConsoles(new IConsole[] { console });
 	}
 }
@@ -28,7 +28,8 @@ public class OldSocketConsole extends IOConsole {
 	private final MicroclimateSocket socket;
 
 	private IOConsoleOutputStream outputStream;
-	private int previousLength = 0;
+	private final LogStream logStream = new LogStream();
+	private final ConsoleWriter writer;
 	private boolean isInitialized = false;
 
 	public OldSocketConsole(String name, MicroclimateApplication app) {
@@ -38,6 +39,7 @@ public class OldSocketConsole extends IOConsole {
 
 		this.projectID = app.projectID;
 		this.outputStream = newOutputStream();
+		this.writer = new ConsoleWriter(this, outputStream);
 		this.socket = app.mcConnection.getMCSocket();
 		socket.registerOldSocketConsole(this);
 
@@ -48,35 +50,41 @@ public class OldSocketConsole extends IOConsole {
 		}
 	}
 
-	public void update(String contents) throws IOException {
-		if (!isInitialized) {
-			// Clear the INITIAL_MSG
-			clearConsole();
-			isInitialized = true;
-		}
+	/**
+	 * Update with the whole log so far.
+	 */
+	public synchronized void update(String contents) throws IOException {
+		write(logStream.acceptSnapshot(contents));
+	}
 
-		String newContents = "";
-		int diff = contents.length() - previousLength;
-		if (diff == 0) {
+	/**
+	 * Update with part of the log starting at the given offset.
+	 */
+	public synchronized void update(long offset, String contents, boolean reset) throws IOException {
+		write(logStream.acceptDelta(offset, contents, reset));
+	}
+
+	// Must hold the lock
+	private void write(LogStream.Update update) throws IOException {
+		// Clear the INITIAL_MSG
+		boolean clear = !isInitialized;
+		isInitialized = true;
+		if (update == null) {
 			// nothing to do
+			if (clear) {
+				writer.write("", true); //$NON-NLS-1$
+			}
 			return;
 		}
-		else if (diff < 0) {
+		if (update.reset) {
 			// The app log was cleared
 			// eg if the dockerfile was changed and the container had to be rebuilt
 			MCLogger.log("Console was cleared");
-			clearConsole();
-			// write the whole new console
-			newContents = contents;
-		}
-		else {
-			// write only the new characters to the console
-			newContents = contents.substring(previousLength, previousLength + diff);
+			clear = true;
 		}
 
-		MCLogger.log(newContents.length() + " new characters to write to " + this.getName());		// $NON-NLS-1$
-		outputStream.write(newContents);
-		previousLength = contents.length();
+		MCLogger.log("{} new characters to write to {}", update.text.length(), getName());		// $NON-NLS-1$
+		writer.write(update.text, clear);
 	}
 
 	@Override
@@ -84,6 +92,7 @@ public class OldSocketConsole extends IOConsole {
 		MCLogger.log("Dispose console " + getName()); //$NON-NLS-1$
 
 		socket.deregisterOldSocketConsole(this);
+		writer.dispose();
 
 		try {
 			outputStream.close();
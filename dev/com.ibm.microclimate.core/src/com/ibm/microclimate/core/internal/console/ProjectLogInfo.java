@@ -31,4 +31,21 @@ public class ProjectLogInfo {
 		return (this.type.equals(logInfo.type) && this.logName.equals(logInfo.logName));
 	}
 
+	// Equal if it is the same log, the same as isThisLogInfo
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof ProjectLogInfo)) {
+			return false;
+		}
+		return isThisLogInfo((ProjectLogInfo) obj);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * type.hashCode() + logName.hashCode();
+	}
+
 }
@@ -29,8 +29,8 @@ public class SocketConsole extends IOConsole {
 	private final MicroclimateSocket socket;
 
 	private IOConsoleOutputStream outputStream;
+	private final ConsoleWriter writer;
 	private boolean isInitialized = false;
-	private boolean showOnUpdate = false;
 
 	public SocketConsole(String consoleName, ProjectLogInfo logInfo, MicroclimateApplication app) {
 		super(consoleName, MicroclimateConsoleFactory.MC_CONSOLE_TYPE,
@@ -40,6 +40,7 @@ public class SocketConsole extends IOConsole {
 		this.app = app;
 		this.logInfo = logInfo;
 		this.outputStream = newOutputStream();
+		this.writer = new ConsoleWriter(this, outputStream);
 		this.socket = app.mcConnection.getMCSocket();
 		socket.registerSocketConsole(this);
 
@@ -51,17 +52,12 @@ public class SocketConsole extends IOConsole {
 		}
 	}
 
-	public void update(String contents, boolean reset) throws IOException {
-		if (!isInitialized || reset) {
-			clearConsole();
-			isInitialized = true;
-		}
+	public synchronized void update(String contents, boolean reset) throws IOException {
+		boolean clear = !isInitialized || reset;
+		isInitialized = true;
 
-		MCLogger.log("Appending contents to log: " + this.getName());		// $NON-NLS-1$
-		outputStream.write(contents);
-		if (showOnUpdate) {
-			activate();
-		}
+		MCLogger.log("Appending contents to log: {}", getName());		// $NON-NLS-1$
+		writer.write(contents, clear);
 	}
 
 	@Override
@@ -69,6 +65,7 @@ public class SocketConsole extends IOConsole {
 		MCLogger.log("Dispose console " + getName()); //$NON-NLS-1$
 
 		socket.deregisterSocketConsole(this);
+		writer.dispose();
 
 		try {
 			app.mcConnection.requestDisableLogStream(app, logInfo);
@@ -81,6 +78,6 @@ public class SocketConsole extends IOConsole {
 	}
 	
 	public void setShowOnUpdate(boolean value) {
-		showOnUpdate = value;
+		writer.setActivateOnWrite(value);
 	}
 }
@@ -64,6 +64,7 @@ public class MCConstants {
 			KEY_LOG_NAME = "logName",
 			KEY_LOG_WORKSPACE_PATH = "workspaceLogPath",
 			KEY_LOG_RESET = "reset",
+			KEY_LOG_OFFSET = "offset",
 
 			KEY_OPEN_STATE = "state",
 			// VALUE_STATE_OPEN = "open",
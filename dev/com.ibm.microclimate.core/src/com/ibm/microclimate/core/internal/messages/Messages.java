@@ -39,6 +39,7 @@ public class Messages extends NLS {
 	public static String AppConsoleName;
 	public static String LogFileConsoleName;
 	public static String LogFileInitialMsg;
+	public static String LogTruncatedMsg;
 
 	public static String FileNotFoundTitle;
 	public static String FileNotFoundMsg;
@@ -0,0 +1,24 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.microclimate.core.internal.metrics;
+
+/**
+ * A value that is read when a metrics snapshot is taken, for example the size of a queue.
+ */
+public interface IGauge {
+
+	/**
+	 * Get the current value. Called from the thread taking the snapshot so it must not block.
+	 */
+	public long getValue();
+
+}
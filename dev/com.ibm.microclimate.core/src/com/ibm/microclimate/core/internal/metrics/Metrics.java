@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package com.ibm.microclimate.core.internal.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.ibm.microclimate.core.internal.MCLogger;
+
+/**
+ * In-process metrics for diagnosing the plugin: counters, gauges and duration histograms, looked
+ * up by name. Callers on hot paths should keep the metric in a field rather than looking it up
+ * each time. Names are dotted with the area first, for example http.requests or socket.events.
+ */
+public class Metrics {
+
+	public static final String
+			HTTP_REQUESTS = "http.requests", //$NON-NLS-1$
+			HTTP_ERRORS = "http.errors", //$NON-NLS-1$
+			HTTP_CACHE_HITS = "http.cacheHits", //$NON-NLS-1$
+			SOCKET_EVENTS = "socket.events", //$NON-NLS-1$
+			SOCKET_EVENT_TIME = "socket.eventTime", //$NON-NLS-1$
+			SOCKET_EVENT_LATENCY = "socket.eventLatency", //$NON-NLS-1$
+			REFRESH_TIME = "connection.refreshApps", //$NON-NLS-1$
+			CONSOLE_CHARS_WRITTEN = "console.charsWritten", //$NON-NLS-1$
+			VIEW_FLUSHES = "view.flushes", //$NON-NLS-1$
+			VIEW_FLUSH_TIME = "view.flushTime", //$NON-NLS-1$
+			VIEW_REFRESH_LATENCY = "view.refreshLatency", //$NON-NLS-1$
+			VIEW_ELEMENTS_REFRESHED = "view.elementsRefreshed", //$NON-NLS-1$
+			LOG_QUEUED = "log.queued", //$NON-NLS-1$
+			LOG_DROPPED = "log.dropped", //$NON-NLS-1$
+			CONSOLE_POLLS_SCHEDULED = "console.pollsScheduled"; //$NON-NLS-1$
+
+	private static final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<String, Counter>();
+	private static final ConcurrentMap<String, IGauge> gauges = new ConcurrentHashMap<String, IGauge>();
+	private static final ConcurrentMap<String, Histogram> histograms = new ConcurrentHashMap<String, Histogram>();
+
+	private Metrics() {}
+
+	public static Counter counter(String name) {
+		Counter counter = counters.get(name);
+		if (counter == null) {
+			Counter newCounter = new Counter();
+			counter = counters.putIfAbsent(name, newCounter);
+			if (counter == null) {
+				counter = newCounter;
+			}
+		}
+		return counter;
+	}
+
+	/**
+	 * Get the counter for one kind of a thing, such as the requests to one endpoint.
+	 */
+	public static Counter counter(String name, String kind) {
+		return counter(name + "." + kind); //$NON-NLS-1$
+	}
+
+	public static Histogram histogram(String name) {
+		Histogram histogram = histograms.get(name);
+		if (histogram == null) {
+			Histogram newHistogram = new Histogram();
+			histogram = histograms.putIfAbsent(name, newHistogram);
+			if (histogram == null) {
+				histogram = newHistogram;
+			}
+		}
+		return histogram;
+	}
+
+	public static Histogram histogram(String name, String kind) {
+		return histogram(name + "." + kind); //$NON-NLS-1$
+	}
+
+	/**
+	 * Add a gauge, replacing any gauge with the same name.
+	 */
+	public static void registerGauge(String name, IGauge gauge) {
+		gauges.put(name, gauge);
+	}
+
+	public static void unregisterGauge(String name) {
+		gauges.remove(name);
+	}
+
+	public static MetricsSnapshot snapshot() {
+		Map<String, Long> counterValues = new HashMap<String, Long>();
+		for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+			counterValues.put(entry.getKey(), entry.getValue().get());
+		}
+		Map<String, Long> gaugeValues = new HashMap<String, Long>();
+		for (Map.Entry<String, IGauge> entry : gauges.entrySet()) {
+			try {
+				gaugeValues.put(entry.getKey(), entry.getValue().getValue());
+			} catch (RuntimeException e) {
+				MCLogger.logError("Failed to read the gauge " + entry.getKey(), e); //$NON-NLS-1$
+			}
+		}
+		Map<String, MetricsSnapshot.HistogramSnapshot> histogramValues = new HashMap<String, MetricsSnapshot.HistogramSnapshot>();
+		for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+			histogramValues.put(entry.getKey(), entry.getValue().snapshot(entry.getKey()));
+		}
+		return new MetricsSnapshot(System.currentTimeMillis(), counterValues, gaugeValues, histogramValues);
+	}
+
+	/**
+	 * Set all the counters and histograms back to zero, for example before reproducing a problem.
+	 * The metrics stay registered so callers holding them keep recording.
+	 */
+	public static void reset() {
+		for (Counter counter : counters.values()) {
+			counter.reset();
+		}
+		for (Histogram histogram : histograms.values()) {
+			histogram.reset();
+		}
+	}
+}
@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package com.ibm.microclimate.core.internal.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * The values of all the metrics at one time, sorted by name.
+ */
+public class MetricsSnapshot {
+
+	/**
+	 * The distribution of the durations recorded by a histogram. Durations are in nanoseconds.
+	 */
+	public static class HistogramSnapshot {
+		public final String name;
+		public final long count;
+		public final long sum;
+		public final long max;
+		private final long[] counts;
+
+		HistogramSnapshot(String name, long[] counts, long sum, long max) {
+			this.name = name;
+			this.counts = counts;
+			long total = 0;
+			for (long count : counts) {
+				total += count;
+			}
+			this.count = total;
+			this.sum = sum;
+			this.max = max;
+		}
+
+		public long getMean() {
+			return count == 0 ? 0 : sum / count;
+		}
+
+		/**
+		 * Get the value that the given percentage of the recorded values are at or below,
+		 * to the precision of the buckets.
+		 */
+		public long getValueAtPercentile(double percentile) {
+			if (count == 0) {
+				return 0;
+			}
+			long target = Math.max(1, (long) Math.ceil(count * percentile / 100));
+			long seen = 0;
+			for (int i = 0; i < counts.length; i++) {
+				seen += counts[i];
+				if (seen >= target) {
+					return Math.min(Histogram.bucketUpperBound(i), max);
+				}
+			}
+			return max;
+		}
+	}
+
+	public final long timestamp;
+	private final SortedMap<String, Long> counters;
+	private final SortedMap<String, Long> gauges;
+	private final SortedMap<String, HistogramSnapshot> histograms;
+
+	MetricsSnapshot(long timestamp, Map<String, Long> counters, Map<String, Long> gauges,
+			Map<String, HistogramSnapshot> histograms) {
+		this.timestamp = timestamp;
+		this.counters = Collections.unmodifiableSortedMap(new TreeMap<String, Long>(counters));
+		this.gauges = Collections.unmodifiableSortedMap(new TreeMap<String, Long>(gauges));
+		this.histograms = Collections.unmodifiableSortedMap(new TreeMap<String, HistogramSnapshot>(histograms));
+	}
+
+	public SortedMap<String, Long> getCounters() {
+		return counters;
+	}
+
+	public SortedMap<String, Long> getGauges() {
+		return gauges;
+	}
+
+	public SortedMap<String, HistogramSnapshot> getHistograms() {
+		return histograms;
+	}
+
+	/**
+	 * Get the value of the counter, or 0 if nothing has been counted.
+	 */
+	public long getCounter(String name) {
+		Long value = counters.get(name);
+		return value == null ? 0 : value.longValue();
+	}
+
+	/**
+	 * Format the snapshot as text for the log or a dialog. Durations are shown in milliseconds.
+	 */
+	public String format() {
+		StringBuilder sb = new StringBuilder();
+		if (!counters.isEmpty()) {
+			sb.append("Counters:\n"); //$NON-NLS-1$
+			for (Map.Entry<String, Long> entry : counters.entrySet()) {
+				sb.append("  ").append(entry.getKey()).append(" = ").append(entry.getValue()).append('\n'); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+		if (!gauges.isEmpty()) {
+			sb.append("Gauges:\n"); //$NON-NLS-1$
+			for (Map.Entry<String, Long> entry : gauges.entrySet()) {
+				sb.append("  ").append(entry.getKey()).append(" = ").append(entry.getValue()).append('\n'); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+		if (!histograms.isEmpty()) {
+			sb.append("Durations (ms):\n"); //$NON-NLS-1$
+			for (HistogramSnapshot histogram : histograms.values()) {
+				sb.append("  ").append(histogram.name) //$NON-NLS-1$
+						.append(": count=").append(histogram.count) //$NON-NLS-1$
+						.append(" mean=").append(toMillis(histogram.getMean())) //$NON-NLS-1$
+						.append(" p50=").append(toMillis(histogram.getValueAtPercentile(50))) //$NON-NLS-1$
+						.append(" p90=").append(toMillis(histogram.getValueAtPercentile(90))) //$NON-NLS-1$
+						.append(" p99=").append(toMillis(histogram.getValueAtPercentile(99))) //$NON-NLS-1$
+						.append(" max=").append(toMillis(histogram.max)) //$NON-NLS-1$
+						.append('\n');
+			}
+		}
+		return sb.toString();
+	}
+
+	private static String toMillis(long nanos) {
+		return String.format("%.3f", nanos / 1000000.0); //$NON-NLS-1$
+	}
+
+	@Override
+	public String toString() {
+		return format();
+	}
+}
@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.microclimate.test;
+
+import java.util.List;
+
+import com.ibm.microclimate.core.internal.MicroclimateApplication;
+import com.ibm.microclimate.core.internal.MicroclimateObjectFactory;
+import com.ibm.microclimate.core.internal.connection.MicroclimateConnection;
+import com.ibm.microclimate.core.internal.constants.AppState;
+import com.ibm.microclimate.test.server.FakeMicroclimateServer;
+import com.ibm.microclimate.test.server.FakeProject;
+
+import junit.framework.TestCase;
+
+/**
+ * Base for the tests that run a connection against the fake Microclimate server. A new server
+ * and connection are set up for each test.
+ */
+public abstract class BaseFakeServerTest extends TestCase {
+	
+	protected FakeMicroclimateServer server;
+	protected MicroclimateConnection connection;
+	
+	/**
+	 * Add the projects that the server has when the connection is made.
+	 */
+	protected abstract void addProjects(FakeMicroclimateServer server) throws Exception;
+	
+	@Override
+	protected void setUp() throws Exception {
+		server = new FakeMicroclimateServer();
+		addProjects(server);
+		server.start();
+		connection = MicroclimateObjectFactory.createMicroclimateConnection(server.getBaseUri());
+	}
+	
+	@Override
+	protected void tearDown() {
+		if (connection != null) {
+			connection.close();
+		}
+		server.stop();
+	}
+	
+	/**
+	 * Count the projects whose application is missing or has a different state, and any
+	 * applications that the server does not have, such as for a deleted project.
+	 */
+	protected int countMismatched() {
+		List<FakeProject> projects = server.getProjects();
+		int mismatched = Math.max(0, connection.getApps().size() - projects.size());
+		for (FakeProject project : projects) {
+			MicroclimateApplication app = connection.getAppByID(project.projectID);
+			if (app == null || app.getAppState() != AppState.get(project.getAppStatus())) {
+				mismatched++;
+			}
+		}
+		return mismatched;
+	}
+}
@@ -59,7 +59,10 @@ import junit.framework.TestCase;
 
 public abstract class BaseTest extends TestCase {
 
-	protected static final String MICROCLIMATE_URI = "http://localhost:9090";
+	// Set this property to run the tests against a Microclimate that is not on localhost:9090
+	public static final String MICROCLIMATE_URI_PROPERTY = "com.ibm.microclimate.test.uri";
+	
+	protected static final String MICROCLIMATE_URI = System.getProperty(MICROCLIMATE_URI_PROPERTY, "http://localhost:9090");
 	
 	protected static final String MARKER_TYPE = "com.ibm.microclimate.core.validationMarker";
 	
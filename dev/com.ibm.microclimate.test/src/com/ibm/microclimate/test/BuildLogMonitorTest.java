@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+
+package com.ibm.microclimate.test;
+
+import com.ibm.microclimate.core.internal.console.BuildLogMonitor;
+
+import junit.framework.TestCase;
+
+/**
+ * Checks the parsing of the Content-Range headers for the build log requests.
+ */
+public class BuildLogMonitorTest extends TestCase {
+	
+	public void testRange() {
+		checkRange("bytes 0-99/100", 0, 99);
+		checkRange("bytes 100-149/*", 100, 149);
+		checkRange("bytes 5-5/6", 5, 5);
+		checkRange("bytes  7 - 9 / 20", 7, 9);
+	}
+	
+	public void testMalformedRange() {
+		String[] headers = { null, "", "bytes", "bytes ", "items 0-9/10", "0-9/10", "bytes 0-9", "bytes */10",
+				"bytes -9/10", "bytes 0-/10", "bytes a-9/10", "bytes 0-b/10", "bytes 9/10-11", "bytes 9-0/10",
+				"bytes -5--1/10", "bytes 0-10/10", "bytes 0-9/x" };
+		for (String header : headers) {
+			assertNull("The range should not be valid: " + header, BuildLogMonitor.getRange(header));
+		}
+	}
+	
+	public void testContentLength() {
+		assertEquals(100, BuildLogMonitor.getContentLength("bytes */100"));
+		assertEquals(100, BuildLogMonitor.getContentLength("bytes 0-9/100"));
+		assertEquals(-1, BuildLogMonitor.getContentLength(null));
+		assertEquals(-1, BuildLogMonitor.getContentLength("bytes 0-9/*"));
+		assertEquals(-1, BuildLogMonitor.getContentLength("bytes 0-9"));
+		assertEquals(-1, BuildLogMonitor.getContentLength("bytes */"));
+		assertEquals(-1, BuildLogMonitor.getContentLength("bytes */-5"));
+		assertEquals(-1, BuildLogMonitor.getContentLength("bytes */12a"));
+	}
+	
+	private static void checkRange(String header, long first, long last) {
+		long[] range = BuildLogMonitor.getRange(header);
+		assertNotNull("The range should be valid: " + header, range);
+		assertEquals(first, range[0]);
+		assertEquals(last, range[1]);
+	}
+}
@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.microclimate.test;
+
+import com.ibm.microclimate.core.internal.MCEclipseApplication;
+import com.ibm.microclimate.core.internal.MicroclimateApplication;
+import com.ibm.microclimate.core.internal.console.MicroclimateConsoleFactory;
+import com.ibm.microclimate.core.internal.console.ProjectLogInfo;
+import com.ibm.microclimate.core.internal.console.SocketConsole;
+import com.ibm.microclimate.core.internal.constants.AppState;
+import com.ibm.microclimate.core.internal.constants.MCConstants;
+import com.ibm.microclimate.core.internal.metrics.Metrics;
+import com.ibm.microclimate.test.server.FakeMicroclimateServer;
+import com.ibm.microclimate.test.server.FakeProject;
+import com.ibm.microclimate.test.util.Condition;
+import com.ibm.microclimate.test.util.MicroclimateUtil;
+import com.ibm.microclimate.test.util.TestUtil;
+
+/**
+ * Runs the connection against the fake Microclimate server, so these tests do not need a real
+ * Microclimate and can put more load on the plugin than a real one could easily produce.
+ */
+public class FakeServerTest extends BaseFakeServerTest {
+
+	private static final int PROJECT_COUNT = 200;
+	
+	@Override
+	protected void addProjects(FakeMicroclimateServer server) {
+		server.addProjects(PROJECT_COUNT);
+	}
+	
+	public void testProjectList() throws Exception {
+		assertEquals("The connection should have all of the projects", PROJECT_COUNT, connection.getApps().size());
+		for (FakeProject project : server.getProjects()) {
+			MicroclimateApplication app = connection.getAppByID(project.projectID);
+			assertNotNull("There should be an application for " + project, app);
+			assertEquals("The application name should match", project.name, app.name);
+			assertEquals("The application should be started", AppState.STARTED, app.getAppState());
+		}
+	}
+	
+	public void testCreateAndDelete() throws Exception {
+		FakeProject project = server.createProject("fakeservertest", "liberty");
+		assertTrue("The application should be created", MicroclimateUtil.waitForProject(connection, project.name, 30, 1));
+		MicroclimateApplication app = connection.getAppByName(project.name);
+		assertTrue("The application should start", MicroclimateUtil.waitForAppState(app, AppState.STARTED, 30, 1));
+		
+		server.removeProject(project);
+		assertTrue("The application should be removed", TestUtil.wait(new Condition() {
+			@Override
+			public boolean test() {
+				return connection.getAppByID(project.projectID) == null;
+			}
+		}, 30, 1));
+		assertEquals("Only the created application should be removed", PROJECT_COUNT, connection.getApps().size());
+	}
+	
+	public void testStatusStorm() throws Exception {
+		final int events = 20 * PROJECT_COUNT + PROJECT_COUNT / 2;
+		long start = System.currentTimeMillis();
+		server.statusStorm(events, 0);
+		long sent = System.currentTimeMillis();
+		assertTrue("The events should be handled", connection.getMCSocket().awaitIdle(60000));
+		assertTrue("Every application should have its last status", TestUtil.wait(new Condition() {
+			@Override
+			public boolean test() {
+				return countMismatched() == 0;
+			}
+		}, 30, 1));
+		TestUtil.print("Status storm of " + events + " events sent in " + (sent - start) + "ms and handled in "
+				+ (System.currentTimeMillis() - start) + "ms");
+	}
+	
+	public void testLogFlood() throws Exception {
+		FakeProject project = server.getProjects().get(0);
+		MCEclipseApplication app = (MCEclipseApplication) connection.getAppByID(project.projectID);
+		
+		// The log updates are only handled if there is a console for the log
+		SocketConsole console = MicroclimateConsoleFactory.createLogFileConsole(app, new ProjectLogInfo(MCConstants.KEY_LOG_APP, "app.log", null));
+		app.addConsole(console);
+		
+		final long written = getCharsWritten();
+		long start = System.currentTimeMillis();
+		final long chars = server.logFlood(project, MCConstants.KEY_LOG_APP, "app.log", 100000, 100, 0);
+		assertTrue("The log updates should be handled", connection.getMCSocket().awaitIdle(60000));
+		assertTrue("All of the log should be written to the console", TestUtil.wait(new Condition() {
+			@Override
+			public boolean test() {
+				return getCharsWritten() - written >= chars;
+			}
+		}, 30, 1));
+		assertEquals("Only the log should be written to the console", chars, getCharsWritten() - written);
+		TestUtil.print("Log flood of " + chars + " characters handled in " + (System.currentTimeMillis() - start) + "ms");
+		
+		// The connection should still be responsive
+		server.setAppStatus(project, "stopped");
+		assertTrue("The status change after the flood should be handled", MicroclimateUtil.waitForAppState(app, AppState.STOPPED, 30, 1));
+	}
+	
+	private static long getCharsWritten() {
+		return Metrics.snapshot().getCounter(Metrics.CONSOLE_CHARS_WRITTEN + ".socket");
+	}
+}
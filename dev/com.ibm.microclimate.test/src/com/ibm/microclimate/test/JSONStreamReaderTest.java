@@ -0,0 +1,282 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+
+package com.ibm.microclimate.test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+import org.json.JSONException;
+
+import com.ibm.microclimate.core.internal.JSONStreamReader;
+import com.ibm.microclimate.core.internal.JSONStreamReader.Token;
+
+import junit.framework.TestCase;
+
+/**
+ * Checks the JSON pull parser that reads the project list and single project responses.
+ */
+public class JSONStreamReaderTest extends TestCase {
+	
+	private static final String DOCUMENT = "{\"name\":\"caf\\u00e9 \\\"x\\\"\\\\\\/\\b\\f\\n\\r\\t\",\"count\":-12.5e3,"
+			+ "\"ok\":true,\"none\":null,\"list\":[1,\"two\",false,{}, []],\"long\":9007199254740993}";
+	
+	public void testTokens() throws Exception {
+		checkDocument(new JSONStreamReader(new StringReader(DOCUMENT)));
+	}
+	
+	public void testOneCharacterReads() throws Exception {
+		// Every token is split across a refill of the read buffer
+		checkDocument(new JSONStreamReader(new OneCharReader(DOCUMENT)));
+	}
+	
+	public void testBufferBoundary() throws Exception {
+		// Put each token of the document across the 8192 character buffer boundary in turn
+		for (int padding = 8192 - DOCUMENT.length(); padding <= 8192; padding++) {
+			checkDocument(new JSONStreamReader(new StringReader(spaces(padding) + DOCUMENT)));
+		}
+	}
+	
+	public void testLongString() throws Exception {
+		String value = spaces(20000).replace(' ', 'a') + "\\u0041";
+		JSONStreamReader reader = new JSONStreamReader(new StringReader("[\"" + value + "\"]"));
+		reader.beginArray();
+		String result = reader.nextString();
+		assertEquals(20001, result.length());
+		assertTrue(result.endsWith("aA"));
+		reader.endArray();
+		assertEquals(Token.END_DOCUMENT, reader.peek());
+	}
+	
+	public void testLiteralsAsStrings() throws Exception {
+		JSONStreamReader reader = new JSONStreamReader(new StringReader("[12, -0.5, 1e10, true, false, null, \"true\", \"7\"]"));
+		reader.beginArray();
+		assertEquals("12", reader.nextString());
+		assertEquals("-0.5", reader.nextString());
+		assertEquals("1e10", reader.nextString());
+		assertEquals("true", reader.nextString());
+		assertEquals("false", reader.nextString());
+		assertNull(reader.nextString());
+		assertTrue("A boolean can be a string", reader.nextBoolean());
+		assertEquals("A number can be a string", 7, reader.nextLong());
+		reader.endArray();
+	}
+	
+	public void testEmpty() throws Exception {
+		JSONStreamReader reader = new JSONStreamReader(new StringReader(" [ ] "));
+		reader.beginArray();
+		assertFalse(reader.hasNext());
+		reader.endArray();
+		assertEquals(Token.END_DOCUMENT, reader.peek());
+		
+		reader = new JSONStreamReader(new StringReader("{}"));
+		reader.beginObject();
+		assertFalse(reader.hasNext());
+		reader.endObject();
+		assertEquals(Token.END_DOCUMENT, reader.peek());
+		
+		reader = new JSONStreamReader(new StringReader("[{},[],{\"a\":[]}]"));
+		reader.beginArray();
+		reader.beginObject();
+		reader.endObject();
+		reader.beginArray();
+		reader.endArray();
+		reader.beginObject();
+		assertEquals("a", reader.nextName());
+		reader.beginArray();
+		assertFalse(reader.hasNext());
+		reader.endArray();
+		reader.endObject();
+		reader.endArray();
+	}
+	
+	public void testSkipValue() throws Exception {
+		JSONStreamReader reader = new JSONStreamReader(new StringReader(
+				"{\"skip\":{\"a\":[1,{\"b\":\"}]\\\"\"},[[]]],\"c\":{}},\"keep\":\"yes\",\"skip2\":[{\"x\":null}],\"last\":1}"));
+		reader.beginObject();
+		assertEquals("skip", reader.nextName());
+		reader.skipValue();
+		assertEquals("keep", reader.nextName());
+		assertEquals("yes", reader.nextString());
+		assertEquals("skip2", reader.nextName());
+		reader.skipValue();
+		// Skipping a name skips only the name
+		reader.skipValue();
+		assertEquals(1, reader.nextLong());
+		reader.endObject();
+		assertEquals(Token.END_DOCUMENT, reader.peek());
+	}
+	
+	public void testSkipToDepth() throws Exception {
+		JSONStreamReader reader = new JSONStreamReader(new StringReader("[{\"a\":{\"b\":[1,2,3]},\"c\":2},\"next\"]"));
+		reader.beginArray();
+		int depth = reader.getDepth();
+		reader.beginObject();
+		reader.nextName();
+		reader.beginObject();
+		reader.nextName();
+		reader.beginArray();
+		reader.nextLong();
+		reader.skipToDepth(depth);
+		assertEquals(depth, reader.getDepth());
+		assertEquals("next", reader.nextString());
+		reader.endArray();
+	}
+	
+	public void testWrongType() throws Exception {
+		JSONStreamReader reader = new JSONStreamReader(new StringReader("[{\"a\":1},\"maybe\",null,\"x\"]"));
+		reader.beginArray();
+		try {
+			reader.nextString();
+			fail("An object is not a string");
+		} catch (JSONException e) {
+			// Expected
+		}
+		// A value that is not read is left for the next call
+		reader.skipValue();
+		try {
+			reader.nextBoolean();
+			fail("maybe is not a boolean");
+		} catch (JSONException e) {
+			// Expected
+		}
+		try {
+			reader.nextLong();
+			fail("null is not a number");
+		} catch (JSONException e) {
+			// Expected
+		}
+		assertEquals("x", reader.nextString());
+		reader.endArray();
+	}
+	
+	public void testMalformed() throws Exception {
+		checkMalformed("[1 2]");
+		checkMalformed("{\"a\" 1}");
+		checkMalformed("{\"a\":1 \"b\":2}");
+		checkMalformed("{a:1}");
+		checkMalformed("[nope]");
+		checkMalformed("[\"bad escape \\u12G4\"]");
+		checkMalformed("[1] [2]");
+		checkMalformed("[,]");
+	}
+	
+	public void testTruncated() throws Exception {
+		checkMalformed("");
+		checkMalformed("[");
+		checkMalformed("[1,");
+		checkMalformed("{\"a\"");
+		checkMalformed("{\"a\":");
+		checkMalformed("{\"a\":\"unterminated");
+		checkMalformed("[\"escape\\");
+		checkMalformed("[\"\\u00");
+		checkMalformed("{\"a\":{\"b\":[1,2]}");
+	}
+	
+	public void testMalformedIsFinal() throws Exception {
+		JSONStreamReader reader = new JSONStreamReader(new StringReader("[1 2, 3]"));
+		reader.beginArray();
+		assertEquals(1, reader.nextLong());
+		JSONException error = null;
+		try {
+			reader.peek();
+		} catch (JSONException e) {
+			error = e;
+		}
+		assertNotNull("The missing comma should be an error", error);
+		try {
+			reader.skipValue();
+			fail("The reader should not carry on after malformed input");
+		} catch (JSONException e) {
+			assertSame(error, e);
+		}
+	}
+	
+	private static void checkDocument(JSONStreamReader reader) throws Exception {
+		assertEquals(Token.BEGIN_OBJECT, reader.peek());
+		reader.beginObject();
+		assertEquals("name", reader.nextName());
+		assertEquals("caf\u00e9 \"x\"\\/\b\f\n\r\t", reader.nextString());
+		assertEquals("count", reader.nextName());
+		assertEquals(Token.NUMBER, reader.peek());
+		assertEquals(-12500, reader.nextLong());
+		assertEquals("ok", reader.nextName());
+		assertEquals(Token.BOOLEAN, reader.peek());
+		assertTrue(reader.nextBoolean());
+		assertEquals("none", reader.nextName());
+		assertEquals(Token.NULL, reader.peek());
+		reader.nextNull();
+		assertEquals("list", reader.nextName());
+		reader.beginArray();
+		assertEquals(1, reader.nextLong());
+		assertEquals("two", reader.nextString());
+		assertFalse(reader.nextBoolean());
+		reader.beginObject();
+		assertFalse(reader.hasNext());
+		reader.endObject();
+		reader.beginArray();
+		reader.endArray();
+		assertFalse(reader.hasNext());
+		reader.endArray();
+		assertEquals("long", reader.nextName());
+		assertEquals(9007199254740993L, reader.nextLong());
+		assertFalse(reader.hasNext());
+		reader.endObject();
+		assertEquals(Token.END_DOCUMENT, reader.peek());
+	}
+	
+	private static void checkMalformed(String json) throws IOException {
+		JSONStreamReader reader = new JSONStreamReader(new StringReader(json));
+		try {
+			reader.skipValue();
+			reader.peek();
+			fail("The JSON should be malformed: " + json);
+		} catch (JSONException e) {
+			// Expected
+		}
+	}
+	
+	private static String spaces(int count) {
+		StringBuilder builder = new StringBuilder(count);
+		for (int i = 0; i < count; i++) {
+			builder.append(' ');
+		}
+		return builder.toString();
+	}
+	
+	/**
+	 * Returns one character from each read, so the reader has to refill its buffer for every character.
+	 */
+	private static class OneCharReader extends Reader {
+		private final String text;
+		private int pos = 0;
+		
+		OneCharReader(String text) {
+			this.text = text;
+		}
+		
+		@Override
+		public int read(char[] cbuf, int off, int len) {
+			if (pos == text.length()) {
+				return -1;
+			}
+			cbuf[off] = text.charAt(pos++);
+			return 1;
+		}
+		
+		@Override
+		public void close() {
+			// Nothing to close
+		}
+	}
+}
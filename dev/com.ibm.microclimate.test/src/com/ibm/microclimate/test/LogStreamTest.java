@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+
+package com.ibm.microclimate.test;
+
+import com.ibm.microclimate.core.internal.console.LogStream;
+import com.ibm.microclimate.core.internal.console.LogStream.Update;
+
+import junit.framework.TestCase;
+
+/**
+ * Checks what is written to a console for the whole log or parts of it from the server.
+ */
+public class LogStreamTest extends TestCase {
+	
+	private static final String MARKER_END = " characters of the log were not shown ...]\n";
+	
+	private LogStream stream;
+	
+	@Override
+	protected void setUp() {
+		stream = new LogStream();
+	}
+	
+	@Override
+	protected void tearDown() {
+		System.clearProperty(LogStream.MAX_UPDATE_PROPERTY);
+	}
+	
+	public void testSnapshots() {
+		checkUpdate(stream.acceptSnapshot("line1\n"), true, "line1\n");
+		checkUpdate(stream.acceptSnapshot("line1\nline2\n"), false, "line2\n");
+		assertNull("The same snapshot again should write nothing", stream.acceptSnapshot("line1\nline2\n"));
+		assertEquals(12, stream.getLength());
+		assertNull("An empty log should write nothing", new LogStream().acceptSnapshot(""));
+	}
+	
+	public void testShorterSnapshot() {
+		stream.acceptSnapshot("line1\nline2\n");
+		checkUpdate(stream.acceptSnapshot("new\n"), true, "new\n");
+		assertEquals(4, stream.getLength());
+		checkUpdate(stream.acceptSnapshot("new\nmore\n"), false, "more\n");
+	}
+	
+	public void testSameLengthDifferentTail() {
+		stream.acceptSnapshot("line1\nline2\n");
+		checkUpdate(stream.acceptSnapshot("line1\nline3\n"), true, "line1\nline3\n");
+		// Only the end of the log is compared
+		stream.acceptSnapshot(repeat('a', 1000));
+		checkUpdate(stream.acceptSnapshot("b" + repeat('a', 999) + "c"), false, "c");
+	}
+	
+	public void testDeltas() {
+		checkUpdate(stream.acceptDelta(0, "abc", true), true, "abc");
+		checkUpdate(stream.acceptDelta(3, "def", false), false, "def");
+		assertEquals(6, stream.getLength());
+		assertNull("An empty delta should write nothing", stream.acceptDelta(6, "", false));
+	}
+	
+	public void testOverlappingDelta() {
+		stream.acceptDelta(0, "abcdef", false);
+		assertNull("A delta that was all received should write nothing", stream.acceptDelta(2, "cdef", false));
+		assertNull("A delta that was all received should write nothing", stream.acceptDelta(0, "abc", false));
+		checkUpdate(stream.acceptDelta(4, "efgh", false), false, "gh");
+		assertEquals(8, stream.getLength());
+		checkUpdate(stream.acceptDelta(0, "xyz", true), true, "xyz");
+	}
+	
+	public void testDeltaPastEnd() {
+		stream.acceptDelta(0, "abc", false);
+		Update update = stream.acceptDelta(10, "xyz", false);
+		assertFalse(update.reset);
+		assertTrue("The gap should be marked: " + update.text, update.text.endsWith("7" + MARKER_END + "xyz"));
+		assertEquals(13, stream.getLength());
+		checkUpdate(stream.acceptDelta(13, "!", false), false, "!");
+	}
+	
+	public void testResetDelta() {
+		stream.acceptDelta(0, "abcdef", false);
+		checkUpdate(stream.acceptDelta(0, "new", true), true, "new");
+		assertEquals(3, stream.getLength());
+		checkUpdate(stream.acceptSnapshot("newer"), false, "er");
+	}
+	
+	public void testCap() {
+		System.setProperty(LogStream.MAX_UPDATE_PROPERTY, "300");
+		stream = new LogStream();
+		String log = repeat('a', 500) + repeat('b', 300);
+		Update update = stream.acceptSnapshot(log);
+		assertTrue(update.reset);
+		assertTrue("Only the end should be written: " + update.text, update.text.endsWith("500" + MARKER_END + repeat('b', 300)));
+		assertEquals("The whole log should be counted", 800, stream.getLength());
+		
+		// The next snapshot still matches the end of the log even though not all of it was written
+		checkUpdate(stream.acceptSnapshot(log + "c"), false, "c");
+		
+		update = stream.acceptDelta(802, repeat('d', 400), false);
+		assertTrue("The gap and the start of the delta should be left out: " + update.text,
+				update.text.endsWith("101" + MARKER_END + repeat('d', 300)));
+		assertEquals(1202, stream.getLength());
+	}
+	
+	private static void checkUpdate(Update update, boolean reset, String text) {
+		assertNotNull("There should be an update", update);
+		assertEquals("The console reset", reset, update.reset);
+		assertEquals("The text to write", text, update.text);
+	}
+	
+	private static String repeat(char c, int count) {
+		StringBuilder builder = new StringBuilder(count);
+		for (int i = 0; i < count; i++) {
+			builder.append(c);
+		}
+		return builder.toString();
+	}
+}
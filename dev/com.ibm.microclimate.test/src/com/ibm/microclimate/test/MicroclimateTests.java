@@ -19,7 +19,14 @@ import org.junit.runners.Suite;
 	LibertyDebugTest.class,
 	SpringDebugTest.class,
 	SpringAutoBuildTest.class,
-	NodeValidationTest.class
+	NodeValidationTest.class,
+	FakeServerTest.class,
+	TraceReplayTest.class,
+	SocketEventCoalescerTest.class,
+	ProjectInfoTest.class,
+	JSONStreamReaderTest.class,
+	LogStreamTest.class,
+	BuildLogMonitorTest.class
 })
 
 public class MicroclimateTests {
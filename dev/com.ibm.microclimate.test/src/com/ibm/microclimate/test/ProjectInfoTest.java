@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+
+package com.ibm.microclimate.test;
+
+import java.io.StringReader;
+import java.util.List;
+
+import org.json.JSONException;
+
+import com.ibm.microclimate.core.internal.JSONStreamReader;
+import com.ibm.microclimate.core.internal.connection.ProjectInfo;
+
+import junit.framework.TestCase;
+
+/**
+ * Checks that a project with a bad field in the project list does not stop the other
+ * projects from being read.
+ */
+public class ProjectInfoTest extends TestCase {
+	
+	public void testReadList() throws Exception {
+		List<ProjectInfo> projects = readList("[{\"projectID\":\"p1\",\"name\":\"one\",\"autoBuild\":true,"
+				+ "\"ports\":{\"exposedPort\":\"9080\"}},{\"projectID\":\"p2\",\"name\":\"two\",\"extra\":[1,{\"a\":null}]}]");
+		assertEquals("Both projects should be read", 2, projects.size());
+		assertEquals("p1", projects.get(0).projectID);
+		assertEquals(Boolean.TRUE, projects.get(0).autoBuild);
+		assertEquals("9080", projects.get(0).exposedPort);
+		assertEquals("two", projects.get(1).name);
+		assertNull(projects.get(1).autoBuild);
+	}
+	
+	public void testWrongTypeSkipsProject() throws Exception {
+		List<ProjectInfo> projects = readList("[{\"projectID\":\"p1\",\"containerId\":{\"id\":[1,2]},\"name\":\"one\"},"
+				+ "{\"projectID\":\"p2\"},"
+				+ "{\"projectID\":\"p3\",\"autoBuild\":\"maybe\",\"contextroot\":[\"/\"]},"
+				+ "{\"projectID\":\"p4\",\"contextroot\":[\"/\"]},"
+				+ "{\"projectID\":\"p5\"}]");
+		assertEquals("Only the projects with good fields should be read", 2, projects.size());
+		assertEquals("p2", projects.get(0).projectID);
+		assertEquals("p5", projects.get(1).projectID);
+	}
+	
+	public void testNonObjectSkipped() throws Exception {
+		List<ProjectInfo> projects = readList("[\"p0\",{\"name\":\"noid\"},[{\"projectID\":\"x\"}],{\"projectID\":\"p1\"}]");
+		assertEquals("Only the project object with an ID should be read", 1, projects.size());
+		assertEquals("p1", projects.get(0).projectID);
+	}
+	
+	public void testMalformedList() throws Exception {
+		try {
+			readList("[{\"projectID\":\"p1\"},{\"projectID\":\"p2\" \"name\":\"two\"},{\"projectID\":\"p3\"}]");
+			fail("Malformed JSON should fail the list");
+		} catch (JSONException e) {
+			// Expected
+		}
+		try {
+			readList("[{\"projectID\":\"p1\"},{\"projectID\":\"p2");
+			fail("Truncated JSON should fail the list");
+		} catch (JSONException e) {
+			// Expected
+		}
+	}
+	
+	private static List<ProjectInfo> readList(String json) throws Exception {
+		return ProjectInfo.readList(new JSONStreamReader(new StringReader(json)));
+	}
+}
@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.microclimate.test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.json.JSONObject;
+
+import com.ibm.microclimate.core.internal.connection.SocketEvent.StatusChanged;
+import com.ibm.microclimate.core.internal.connection.SocketEventCoalescer;
+import com.ibm.microclimate.core.internal.connection.SocketEventDispatcher;
+import com.ibm.microclimate.core.internal.constants.MCConstants;
+import com.ibm.microclimate.test.server.FakeMicroclimateServer;
+
+/**
+ * Checks that the merged status changes stay in order with the other events for their project.
+ * The dispatcher only records what is dispatched so the order can be checked exactly.
+ */
+public class SocketEventCoalescerTest extends BaseFakeServerTest {
+	
+	private static final String[] PROJECT_IDS = { "project0", "project1", "project2" };
+	
+	private RecordingDispatcher dispatcher;
+	private SocketEventCoalescer coalescer;
+	
+	@Override
+	protected void addProjects(FakeMicroclimateServer server) {
+		// The events are for projects that the server does not have
+	}
+	
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		dispatcher = new RecordingDispatcher();
+		coalescer = new SocketEventCoalescer(connection.getMCSocket(), connection, dispatcher);
+	}
+	
+	@Override
+	protected void tearDown() {
+		coalescer.dispose();
+		super.tearDown();
+	}
+	
+	public void testStatusThenDeletion() throws Exception {
+		String projectID = PROJECT_IDS[0];
+		coalescer.add(statusChanged(projectID, "starting"));
+		Runnable deletion = deletion(projectID);
+		assertEquals("The merged status should be dispatched first", 0, dispatcher.indexOf(projectID, null));
+		assertEquals("The deletion should be dispatched after the merged status", 1, dispatcher.indexOf(projectID, deletion));
+	}
+	
+	public void testDeletionDuringFlushAll() throws Exception {
+		for (String projectID : PROJECT_IDS) {
+			coalescer.add(statusChanged(projectID, "starting"));
+			coalescer.add(statusChanged(projectID, "started"));
+		}
+		
+		// The deletion arrives on the socket thread while the merged events are being dispatched
+		final String projectID = PROJECT_IDS[PROJECT_IDS.length - 1];
+		final Runnable[] deletion = new Runnable[1];
+		final Thread socketThread = new Thread() {
+			@Override
+			public void run() {
+				deletion[0] = deletion(projectID);
+			}
+		};
+		dispatcher.setOnFirstDispatch(new Runnable() {
+			@Override
+			public void run() {
+				socketThread.start();
+				try {
+					// It has to wait for the flush, give it long enough to get ahead if it does not
+					socketThread.join(500);
+				} catch (InterruptedException e) {
+					// Ignore
+				}
+			}
+		});
+		coalescer.flushAll();
+		socketThread.join(5000);
+		
+		int statusIndex = dispatcher.indexOf(projectID, null);
+		assertTrue("The merged status should be dispatched on the project's key", statusIndex >= 0);
+		assertTrue("The merged status should be dispatched before the deletion", statusIndex < dispatcher.indexOf(projectID, deletion[0]));
+	}
+	
+	private static StatusChanged statusChanged(String projectID, String appStatus) throws Exception {
+		JSONObject event = new JSONObject();
+		event.put(MCConstants.KEY_PROJECT_ID, projectID);
+		event.put(MCConstants.KEY_APP_STATUS, appStatus);
+		return new StatusChanged(event);
+	}
+	
+	// What the socket does for an event that is not merged
+	private Runnable deletion(String projectID) {
+		Runnable task = new Runnable() {
+			@Override
+			public void run() {
+				// Only recorded
+			}
+		};
+		coalescer.flush(projectID);
+		dispatcher.dispatch(projectID, task);
+		return task;
+	}
+	
+	private static class RecordingDispatcher extends SocketEventDispatcher {
+		
+		// Guarded by this
+		private final List<String> keys = new ArrayList<String>();
+		private final List<Runnable> tasks = new ArrayList<Runnable>();
+		private Runnable onFirstDispatch;
+		
+		private RecordingDispatcher() {
+			super("test");
+		}
+		
+		private synchronized void setOnFirstDispatch(Runnable hook) {
+			onFirstDispatch = hook;
+		}
+		
+		@Override
+		public void dispatch(String key, Runnable task) {
+			Runnable hook;
+			synchronized (this) {
+				hook = onFirstDispatch;
+				onFirstDispatch = null;
+			}
+			if (hook != null) {
+				hook.run();
+			}
+			synchronized (this) {
+				keys.add(key);
+				tasks.add(task);
+			}
+		}
+		
+		// The index of the task dispatched for the key, or of the first one for the key if task is null
+		private synchronized int indexOf(String key, Runnable task) {
+			for (int i = 0; i < keys.size(); i++) {
+				if (keys.get(i).equals(key) && (task == null || tasks.get(i) == task)) {
+					return i;
+				}
+			}
+			return -1;
+		}
+	}
+}
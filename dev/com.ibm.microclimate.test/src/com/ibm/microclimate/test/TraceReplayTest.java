@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.microclimate.test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import com.ibm.microclimate.core.internal.MicroclimateApplication;
+import com.ibm.microclimate.core.internal.MicroclimateObjectFactory;
+import com.ibm.microclimate.core.internal.connection.MicroclimateConnection;
+import com.ibm.microclimate.core.internal.connection.SocketEventRecorder;
+import com.ibm.microclimate.core.internal.constants.AppState;
+import com.ibm.microclimate.core.internal.metrics.Metrics;
+import com.ibm.microclimate.core.internal.metrics.MetricsSnapshot;
+import com.ibm.microclimate.core.internal.metrics.MetricsSnapshot.HistogramSnapshot;
+import com.ibm.microclimate.test.server.FakeMicroclimateServer;
+import com.ibm.microclimate.test.server.FakeProject;
+import com.ibm.microclimate.test.server.TraceReplayer;
+import com.ibm.microclimate.test.server.TraceReplayer.TraceEvent;
+import com.ibm.microclimate.test.util.Condition;
+import com.ibm.microclimate.test.util.MicroclimateUtil;
+import com.ibm.microclimate.test.util.TestUtil;
+
+/**
+ * Records a session against the fake Microclimate server and replays the trace into a new
+ * connection at the recorded speed, ten times faster and as fast as possible. Each replay
+ * checks that the applications end up in the recorded state and prints the latency from an
+ * event being received to it being applied to the model.
+ */
+public class TraceReplayTest extends BaseFakeServerTest {
+
+	private static final int PROJECT_COUNT = 20;
+	
+	// Recorded once for all of the tests
+	private static List<TraceEvent> trace;
+	
+	@Override
+	protected void addProjects(FakeMicroclimateServer server) throws Exception {
+		if (trace == null) {
+			trace = record();
+		}
+		new TraceReplayer(server, trace).addProjects();
+	}
+	
+	public void testReplay() throws Exception {
+		replay(1);
+	}
+	
+	public void testReplayTenTimes() throws Exception {
+		replay(10);
+	}
+	
+	public void testReplayMaxSpeed() throws Exception {
+		replay(0);
+	}
+	
+	private void replay(double speed) throws Exception {
+		TraceReplayer replayer = new TraceReplayer(server, trace);
+		Metrics.reset();
+		long elapsed = replayer.replay(speed);
+		// The last events may still be on their way to the client
+		assertTrue("All of the events should be received", TestUtil.wait(new Condition() {
+			@Override
+			public boolean test() {
+				return countReceived(Metrics.snapshot()) >= trace.size();
+			}
+		}, 60, 1));
+		assertTrue("The events should be handled", connection.getMCSocket().awaitIdle(60000));
+		assertTrue("The applications should match the recorded state", TestUtil.wait(new Condition() {
+			@Override
+			public boolean test() {
+				return countMismatched() == 0;
+			}
+		}, 30, 1));
+		TestUtil.print("Replayed " + trace.size() + " events recorded over " + replayer.getDuration() + "ms in "
+				+ elapsed + "ms (speed " + (speed > 0 ? speed + "x" : "max") + ")");
+		printLatencies(Metrics.snapshot());
+	}
+	
+	private static List<TraceEvent> record() throws Exception {
+		FakeMicroclimateServer recordServer = new FakeMicroclimateServer();
+		recordServer.addProjects(PROJECT_COUNT);
+		recordServer.start();
+		MicroclimateConnection recordConnection = null;
+		Path traceFile = Files.createTempFile("microclimate-trace", ".jsonl");
+		try {
+			recordConnection = MicroclimateObjectFactory.createMicroclimateConnection(recordServer.getBaseUri());
+			assertTrue("Recording should start", SocketEventRecorder.start(traceFile));
+			
+			// A project being created, a burst of status changes, a busy log and a project being removed
+			FakeProject project = recordServer.createProject("tracereplaytest", "liberty");
+			assertTrue("The application should be created", MicroclimateUtil.waitForProject(recordConnection, project.name, 30, 1));
+			MicroclimateApplication app = recordConnection.getAppByName(project.name);
+			assertTrue("The application should start", MicroclimateUtil.waitForAppState(app, AppState.STARTED, 30, 1));
+			recordServer.statusStorm(10 * PROJECT_COUNT + PROJECT_COUNT / 2, 1000);
+			recordServer.logFlood(recordServer.getProjects().get(0), "app", "app.log", 5000, 50, 200);
+			recordServer.removeProject(project);
+			assertTrue("The events should be handled", recordConnection.getMCSocket().awaitIdle(60000));
+			
+			SocketEventRecorder.stop();
+			List<TraceEvent> events = TraceReplayer.read(traceFile);
+			assertFalse("Events should be recorded", events.isEmpty());
+			return events;
+		} finally {
+			SocketEventRecorder.stop();
+			if (recordConnection != null) {
+				recordConnection.close();
+			}
+			recordServer.stop();
+			Files.deleteIfExists(traceFile);
+		}
+	}
+	
+	private static long countReceived(MetricsSnapshot snapshot) {
+		long received = 0;
+		for (Map.Entry<String, Long> entry : snapshot.getCounters().entrySet()) {
+			if (entry.getKey().startsWith(Metrics.SOCKET_EVENTS + ".")) {
+				received += entry.getValue();
+			}
+		}
+		return received;
+	}
+	
+	private static void printLatencies(MetricsSnapshot snapshot) {
+		for (Map.Entry<String, HistogramSnapshot> entry : snapshot.getHistograms().entrySet()) {
+			if (!entry.getKey().startsWith(Metrics.SOCKET_EVENT_LATENCY) && !entry.getKey().equals(Metrics.VIEW_REFRESH_LATENCY)) {
+				continue;
+			}
+			HistogramSnapshot histogram = entry.getValue();
+			if (histogram.count > 0) {
+				TestUtil.print(String.format("  %s: count=%d p50=%.3fms p99=%.3fms max=%.3fms", histogram.name, histogram.count,
+						histogram.getValueAtPercentile(50) / 1e6, histogram.getValueAtPercentile(99) / 1e6, histogram.max / 1e6));
+			}
+		}
+	}
+}
@@ -0,0 +1,572 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.microclimate.test.server;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import com.ibm.microclimate.core.internal.connection.MicroclimateSocket;
+import com.ibm.microclimate.core.internal.constants.MCConstants;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A stand-in for Microclimate that runs in the test process so the plugin can be load and
+ * integration tested without a real Microclimate. It serves the REST endpoints the plugin uses
+ * and sends socket.io events through a {@link SocketIOEmitter}. Requests that change a project
+ * (create, restart, build and so on) are answered straight away and the project then goes
+ * through its states on a timer, with an event for each change like the real server.
+ * 
+ * Tests script the load with {@link #addProjects(int)}, {@link #statusStorm(int, int)} and
+ * {@link #logFlood(FakeProject, String, String, int, int, int)}, or replay a recorded session
+ * with a {@link TraceReplayer}.
+ * It can also be run on its own, see {@link #main(String[])}.
+ */
+public class FakeMicroclimateServer {
+
+	public static final String DEFAULT_VERSION = "2019_M6_E";
+	public static final String DEFAULT_WORKSPACE = "/microclimate-workspace";
+
+	private static final String[] BUILD_TYPES = { "liberty", "spring", "nodejs", "swift" };
+	private static final String PROJECT_PATH = "/" + MCConstants.APIPATH_PROJECT_LIST + "/";
+
+	private final SocketIOEmitter emitter = new SocketIOEmitter();
+	private final Map<String, FakeProject> projects = new ConcurrentHashMap<String, FakeProject>();
+	private final AtomicInteger nextPort = new AtomicInteger(32000);
+	private final AtomicLong requests = new AtomicLong();
+
+	private volatile String version = DEFAULT_VERSION;
+	private volatile String workspace = DEFAULT_WORKSPACE;
+	private volatile String namespace = "/";
+	private volatile long responseDelayMs = 0;
+	private volatile long transitionDelayMs = 200;
+
+	private HttpServer server;
+	private ExecutorService requestExecutor;
+	private ScheduledExecutorService scheduler;
+
+	/**
+	 * Start on a free port on the loopback address.
+	 */
+	public void start() throws IOException {
+		start(0);
+	}
+
+	public synchronized void start(int port) throws IOException {
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		server.createContext(SocketIOEmitter.PATH, emitter);
+		server.createContext("/", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				handleRequest(exchange);
+			}
+		});
+		// Long polls hold a thread each so the requests need a pool
+		requestExecutor = Executors.newCachedThreadPool(daemonThreads("Fake Microclimate request"));
+		server.setExecutor(requestExecutor);
+		scheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("Fake Microclimate scheduler"));
+		server.start();
+	}
+
+	public synchronized void stop() {
+		if (server == null) {
+			return;
+		}
+		emitter.disconnectAll();
+		server.stop(0);
+		requestExecutor.shutdownNow();
+		scheduler.shutdownNow();
+		server = null;
+	}
+
+	public synchronized URI getBaseUri() {
+		InetSocketAddress address = server.getAddress();
+		return URI.create("http://" + address.getHostString() + ":" + address.getPort() + "/");
+	}
+
+	public SocketIOEmitter getEmitter() {
+		return emitter;
+	}
+
+	public void setVersion(String version) {
+		this.version = version;
+	}
+
+	public void setWorkspace(String workspace) {
+		this.workspace = workspace;
+	}
+
+	/**
+	 * Use a socket.io namespace such as /default instead of the default namespace.
+	 */
+	public void setSocketNamespace(String namespace) {
+		this.namespace = namespace;
+	}
+
+	/**
+	 * Delay every REST response to simulate a slow or distant server.
+	 */
+	public void setResponseDelay(long delayMs) {
+		this.responseDelayMs = delayMs;
+	}
+
+	/**
+	 * The time between the steps of a build, start or restart.
+	 */
+	public void setTransitionDelay(long delayMs) {
+		this.transitionDelayMs = delayMs;
+	}
+
+	public long getRequestCount() {
+		return requests.get();
+	}
+
+	public List<FakeProject> getProjects() {
+		return new ArrayList<FakeProject>(projects.values());
+	}
+
+	public FakeProject getProject(String projectID) {
+		return projects.get(projectID);
+	}
+
+	/**
+	 * Add a started project, as if it was created before the client connected. No events are sent.
+	 */
+	public FakeProject addProject(String name, String buildType) {
+		return addProject(UUID.randomUUID().toString(), name, buildType);
+	}
+
+	/**
+	 * Add a started project with the given ID, for example one from a recorded trace.
+	 */
+	public FakeProject addProject(String projectID, String name, String buildType) {
+		FakeProject project = newProject(projectID, name, buildType);
+		project.setBuildStatus("success", "");
+		project.setAppStatus("started");
+		projects.put(project.projectID, project);
+		return project;
+	}
+
+	/**
+	 * Add started projects of each build type in turn.
+	 */
+	public List<FakeProject> addProjects(int count) {
+		List<FakeProject> added = new ArrayList<FakeProject>(count);
+		int start = projects.size();
+		for (int i = 0; i < count; i++) {
+			added.add(addProject("project" + (start + i), BUILD_TYPES[(start + i) % BUILD_TYPES.length]));
+		}
+		return added;
+	}
+
+	/**
+	 * Create a project the way Microclimate does: a creation event, then a build and a start.
+	 */
+	public FakeProject createProject(String name, String buildType) {
+		final FakeProject project = newProject(UUID.randomUUID().toString(), name, buildType);
+		projects.put(project.projectID, project);
+		JSONObject event = newEvent(project);
+		put(event, MCConstants.KEY_NAME, name);
+		put(event, MCConstants.KEY_STATUS, MCConstants.REQUEST_STATUS_SUCCESS);
+		emit(MicroclimateSocket.EVENT_PROJECT_CREATION, event);
+		build(project);
+		return project;
+	}
+
+	public void removeProject(FakeProject project) {
+		if (projects.remove(project.projectID) == null) {
+			return;
+		}
+		JSONObject event = newEvent(project);
+		put(event, MCConstants.KEY_STATUS, MCConstants.REQUEST_STATUS_SUCCESS);
+		emit(MicroclimateSocket.EVENT_PROJECT_DELETION, event);
+	}
+
+	public void setAppStatus(FakeProject project, String appStatus) {
+		project.setAppStatus(appStatus);
+		JSONObject event = newEvent(project);
+		put(event, MCConstants.KEY_APP_STATUS, appStatus);
+		emit(MicroclimateSocket.EVENT_PROJECT_STATUS_CHANGE, event);
+	}
+
+	public void setBuildStatus(FakeProject project, String buildStatus, String detailedBuildStatus) {
+		project.setBuildStatus(buildStatus, detailedBuildStatus);
+		JSONObject event = newEvent(project);
+		put(event, MCConstants.KEY_BUILD_STATUS, buildStatus);
+		put(event, MCConstants.KEY_DETAILED_BUILD_STATUS, detailedBuildStatus);
+		emit(MicroclimateSocket.EVENT_PROJECT_STATUS_CHANGE, event);
+	}
+
+	/**
+	 * Send an event with any payload to all clients.
+	 */
+	public void emit(String event, JSONObject data) {
+		emitter.emit(namespace, event, data);
+	}
+
+	/**
+	 * Send the given number of application status changes, spread over all of the projects in
+	 * turn and alternating between stopped and started. If eventsPerSecond is 0 or less they are
+	 * sent as fast as possible. Afterwards the projects have the last status sent for them.
+	 */
+	public void statusStorm(int events, int eventsPerSecond) throws InterruptedException {
+		List<FakeProject> all = getProjects();
+		if (all.isEmpty()) {
+			return;
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < events; i++) {
+			FakeProject project = all.get(i % all.size());
+			boolean started = (i / all.size()) % 2 == 1;
+			setAppStatus(project, started ? "started" : "stopped");
+			pace(start, i + 1, eventsPerSecond);
+		}
+	}
+
+	/**
+	 * Append lines to a log with log-update events of linesPerEvent lines each. If eventsPerSecond
+	 * is 0 or less they are sent as fast as possible. Returns the number of characters sent.
+	 */
+	public long logFlood(FakeProject project, String logType, String logName, int lines, int linesPerEvent,
+			int eventsPerSecond) throws InterruptedException {
+		long start = System.nanoTime();
+		long chars = 0;
+		int eventCount = 0;
+		for (int line = 0; line < lines; line += linesPerEvent) {
+			StringBuilder sb = new StringBuilder();
+			for (int i = line; i < Math.min(lines, line + linesPerEvent); i++) {
+				sb.append(logLine(project, i));
+			}
+			String logs = sb.toString();
+			long offset = project.appendLog(logType, logName, logs.length());
+			JSONObject event = newEvent(project);
+			put(event, MCConstants.KEY_LOG_TYPE, logType);
+			put(event, MCConstants.KEY_LOG_NAME, logName);
+			put(event, MCConstants.KEY_LOGS, logs);
+			put(event, MCConstants.KEY_LOG_RESET, offset == 0);
+			emit(MicroclimateSocket.EVENT_LOG_UPDATE, event);
+			chars += logs.length();
+			pace(start, ++eventCount, eventsPerSecond);
+		}
+		return chars;
+	}
+
+	private static String logLine(FakeProject project, int line) {
+		return String.format("[%tT] %s I SRVE0242I: [%s] [/] request %d served%n",
+				System.currentTimeMillis(), Thread.currentThread().getName(), project.name, line);
+	}
+
+	private static void pace(long start, int sent, int perSecond) throws InterruptedException {
+		if (perSecond <= 0) {
+			return;
+		}
+		long due = start + sent * TimeUnit.SECONDS.toNanos(1) / perSecond;
+		long wait = due - System.nanoTime();
+		if (wait > 0) {
+			TimeUnit.NANOSECONDS.sleep(wait);
+		}
+	}
+
+	private FakeProject newProject(String projectID, String name, String buildType) {
+		String language;
+		if ("liberty".equals(buildType) || "spring".equals(buildType)) {
+			language = "java";
+		} else {
+			language = buildType;
+		}
+		// Leave room for a debug port after each http port
+		return new FakeProject(projectID, name, buildType, language, nextPort.getAndAdd(2));
+	}
+
+	private static JSONObject newEvent(FakeProject project) {
+		JSONObject event = new JSONObject();
+		put(event, MCConstants.KEY_PROJECT_ID, project.projectID);
+		return event;
+	}
+
+	private static void put(JSONObject obj, String key, Object value) {
+		try {
+			obj.put(key, value);
+		} catch (JSONException e) {
+			throw new IllegalArgumentException(e);
+		}
+	}
+
+	// Build then start the project, one step per transition delay
+	private void build(final FakeProject project) {
+		setBuildStatus(project, "inProgress", "Building the application image");
+		schedule(1, new Runnable() {
+			@Override
+			public void run() {
+				setBuildStatus(project, "success", "");
+				setAppStatus(project, "starting");
+			}
+		});
+		schedule(2, new Runnable() {
+			@Override
+			public void run() {
+				setAppStatus(project, "started");
+			}
+		});
+	}
+
+	private void restart(final FakeProject project, final String startMode) {
+		setAppStatus(project, "stopping");
+		schedule(1, new Runnable() {
+			@Override
+			public void run() {
+				setAppStatus(project, "stopped");
+				project.setStartMode(startMode);
+				JSONObject event = newEvent(project);
+				put(event, MCConstants.KEY_STATUS, MCConstants.REQUEST_STATUS_SUCCESS);
+				put(event, MCConstants.KEY_START_MODE, startMode);
+				try {
+					put(event, MCConstants.KEY_PORTS, project.getPorts());
+				} catch (JSONException e) {
+					throw new IllegalStateException(e);
+				}
+				emit(MicroclimateSocket.EVENT_PROJECT_RESTART, event);
+				setAppStatus(project, "starting");
+			}
+		});
+		schedule(2, new Runnable() {
+			@Override
+			public void run() {
+				setAppStatus(project, "started");
+			}
+		});
+	}
+
+	private void schedule(int steps, Runnable step) {
+		ScheduledExecutorService current;
+		synchronized (this) {
+			current = scheduler;
+		}
+		if (current != null && !current.isShutdown()) {
+			current.schedule(step, steps * transitionDelayMs, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	private void handleRequest(HttpExchange exchange) throws IOException {
+		requests.incrementAndGet();
+		try {
+			if (responseDelayMs > 0) {
+				Thread.sleep(responseDelayMs);
+			}
+			String method = exchange.getRequestMethod();
+			String path = exchange.getRequestURI().getPath();
+			byte[] body = SocketIOEmitter.readAll(exchange.getRequestBody());
+			JSONObject payload = body.length == 0 ? new JSONObject() : new JSONObject(new String(body, StandardCharsets.UTF_8));
+
+			if (path.startsWith(PROJECT_PATH)) {
+				String[] parts = path.substring(PROJECT_PATH.length()).split("/", 2);
+				FakeProject project = projects.get(parts[0]);
+				if (project == null) {
+					sendJSON(exchange, 404, "Project not found: " + parts[0]);
+					return;
+				}
+				handleProjectRequest(exchange, method, project, parts.length > 1 ? parts[1] : "", payload);
+				return;
+			}
+
+			String route = method + " " + path;
+			if (route.equals("GET /" + MCConstants.APIPATH_ENV)) {
+				JSONObject env = new JSONObject();
+				env.put(MCConstants.KEY_ENV_MC_VERSION, version);
+				env.put(MCConstants.KEY_ENV_WORKSPACE_LOC, workspace);
+				if (!"/".equals(namespace)) {
+					env.put(MCConstants.KEY_ENV_MC_SOCKET_NAMESPACE, namespace);
+				}
+				sendJSON(exchange, 200, env);
+			} else if (route.equals("GET /" + MCConstants.APIPATH_PROJECT_LIST)) {
+				JSONArray list = new JSONArray();
+				for (FakeProject project : getProjects()) {
+					list.put(project.toJSON());
+				}
+				sendJSON(exchange, 200, list);
+			} else if (route.equals("POST /" + MCConstants.APIPATH_PROJECT_LIST)) {
+				String language = payload.optString(MCConstants.KEY_LANGUAGE);
+				String buildType = "spring".equals(payload.optString(MCConstants.KEY_FRAMEWORK)) ? "spring"
+						: "java".equals(language) ? "liberty" : language;
+				createProject(payload.getString(MCConstants.KEY_NAME), buildType);
+				sendJSON(exchange, 202, "Accepted");
+			} else if (route.equals("GET /" + MCConstants.APIPATH_BASEV2 + "/" + MCConstants.APIPATH_PROJECT_TYPES)) {
+				JSONArray templates = new JSONArray();
+				templates.put(template("Standard Java Microprofile template", "microprofile", "java"));
+				templates.put(template("Spring Boot template", "spring", "java"));
+				templates.put(template("Node.js Express template", "nodejs", "nodejs"));
+				sendJSON(exchange, 200, templates);
+			} else if (route.equals("POST /" + MCConstants.APIPATH_BASEV2 + "/" + MCConstants.APIPATH_PROJECTS)) {
+				String extension = payload.optString(MCConstants.KEY_EXTENSION);
+				createProject(payload.getString(MCConstants.KEY_NAME), extension.contains("spring") ? "spring" : "liberty");
+				sendJSON(exchange, 202, "Accepted");
+			} else if (route.equals("POST /" + MCConstants.APIPATH_BASE + "/" + MCConstants.APIPATH_VALIDATE)
+					|| route.equals("POST /" + MCConstants.APIPATH_BASE + "/" + MCConstants.APIPATH_VALIDATE_GENERATE)) {
+				// Older versions pass the project in the payload
+				FakeProject project = projects.get(payload.optString(MCConstants.KEY_PROJECT_ID));
+				if (project == null) {
+					sendJSON(exchange, 404, "Project not found");
+					return;
+				}
+				validate(project);
+				sendJSON(exchange, 200, "OK");
+			} else {
+				sendJSON(exchange, 404, "Not found: " + route);
+			}
+		} catch (JSONException e) {
+			sendJSON(exchange, 400, e.getMessage());
+		} catch (InterruptedException e) {
+			sendJSON(exchange, 503, "Stopping");
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private void handleProjectRequest(HttpExchange exchange, String method, FakeProject project, String subPath,
+			JSONObject payload) throws IOException, JSONException {
+		String route = method + " " + subPath;
+		if (route.equals("GET ")) {
+			sendJSON(exchange, 200, project.toJSON());
+		} else if (route.equals("DELETE ")) {
+			removeProject(project);
+			sendJSON(exchange, 202, "Accepted");
+		} else if (route.equals("POST " + MCConstants.APIPATH_RESTART)) {
+			restart(project, payload.optString(MCConstants.KEY_START_MODE, "run"));
+			sendJSON(exchange, 202, "Accepted");
+		} else if (route.equals("POST " + MCConstants.APIPATH_BUILD)) {
+			String action = payload.optString(MCConstants.KEY_ACTION);
+			if (MCConstants.VALUE_ACTION_ENABLEAUTOBUILD.equals(action) || MCConstants.VALUE_ACTION_DISABLEAUTOBUILD.equals(action)) {
+				project.setAutoBuild(MCConstants.VALUE_ACTION_ENABLEAUTOBUILD.equals(action));
+				JSONObject event = newEvent(project);
+				event.put(MCConstants.KEY_CONTAINER_ID, project.getContainerId());
+				event.put(MCConstants.KEY_PORTS, project.getPorts());
+				event.put(MCConstants.KEY_AUTO_BUILD, project.isAutoBuild());
+				emit(MicroclimateSocket.EVENT_PROJECT_CHANGED, event);
+			} else {
+				build(project);
+			}
+			sendJSON(exchange, 202, "Accepted");
+		} else if (route.equals("PUT " + MCConstants.APIPATH_CLOSE)) {
+			project.setOpen(false);
+			project.setAppStatus("stopped");
+			emit(MicroclimateSocket.EVENT_PROJECT_CLOSED, newEvent(project));
+			sendJSON(exchange, 200, "OK");
+		} else if (route.equals("PUT " + MCConstants.APIPATH_OPEN)) {
+			project.setOpen(true);
+			build(project);
+			sendJSON(exchange, 200, "OK");
+		} else if (route.equals("GET " + MCConstants.APIPATH_CAPABILITIES)) {
+			JSONObject capabilities = new JSONObject();
+			List<String> startModes = "nodejs".equals(project.language)
+					? Arrays.asList("run", "debugNoInit") : Arrays.asList("run", "debug", "debugNoInit");
+			capabilities.put(MCConstants.KEY_START_MODES, new JSONArray(startModes));
+			capabilities.put(MCConstants.KEY_CONTROL_COMMANDS, new JSONArray(Arrays.asList("restart")));
+			sendJSON(exchange, 200, capabilities);
+		} else if (route.equals("GET " + MCConstants.APIPATH_LOGS)) {
+			JSONObject logs = new JSONObject();
+			logs.put(MCConstants.KEY_LOG_BUILD, new JSONArray().put(new JSONObject().put(MCConstants.KEY_LOG_NAME, "build.log")));
+			logs.put(MCConstants.KEY_LOG_APP, new JSONArray().put(new JSONObject().put(MCConstants.KEY_LOG_NAME, "app.log")));
+			sendJSON(exchange, 200, logs);
+		} else if (subPath.startsWith(MCConstants.APIPATH_LOGS + "/") && (method.equals("POST") || method.equals("DELETE"))) {
+			// Enable or disable a log stream, the logs are only sent by the log floods
+			sendJSON(exchange, 200, "OK");
+		} else if (route.equals("GET " + MCConstants.APIPATH_METRICS_STATUS)) {
+			sendJSON(exchange, 200, new JSONObject().put(MCConstants.KEY_METRICS_AVAILABLE, true));
+		} else if (route.equals("POST " + MCConstants.APIPATH_VALIDATE) || route.equals("POST " + MCConstants.APIPATH_VALIDATE_GENERATE)) {
+			validate(project);
+			sendJSON(exchange, 200, "OK");
+		} else {
+			sendJSON(exchange, 404, "Not found: " + route);
+		}
+	}
+
+	private void validate(FakeProject project) {
+		JSONObject event = newEvent(project);
+		put(event, MCConstants.KEY_VALIDATION_STATUS, MCConstants.VALUE_STATUS_SUCCESS);
+		put(event, MCConstants.KEY_VALIDATION_RESULTS, new JSONArray());
+		emit(MicroclimateSocket.EVENT_PROJECT_VALIDATED, event);
+	}
+
+	private static JSONObject template(String label, String extension, String language) throws JSONException {
+		JSONObject template = new JSONObject();
+		template.put("label", label);
+		template.put("description", label);
+		template.put("extension", extension);
+		template.put("language", language);
+		return template;
+	}
+
+	private static void sendJSON(HttpExchange exchange, int code, Object body) throws IOException {
+		String content;
+		if (body instanceof String) {
+			JSONObject message = new JSONObject();
+			try {
+				message.put("statusCode", code);
+				message.put("message", body);
+			} catch (JSONException e) {
+				throw new IOException(e);
+			}
+			content = message.toString();
+		} else {
+			content = body.toString();
+		}
+		SocketIOEmitter.send(exchange, code, "application/json", content);
+	}
+
+	private static ThreadFactory daemonThreads(final String name) {
+		return new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, name + " " + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+	}
+
+	/**
+	 * Run the server on its own, for pointing an Eclipse with the plugin at it.
+	 * Arguments: [port [number of projects]]
+	 */
+	public static void main(String[] args) throws Exception {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : 9090;
+		int count = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+		FakeMicroclimateServer server = new FakeMicroclimateServer();
+		server.addProjects(count);
+		server.start(port);
+		System.out.println("Fake Microclimate with " + count + " projects at " + server.getBaseUri());
+		Thread.sleep(Long.MAX_VALUE);
+	}
+}
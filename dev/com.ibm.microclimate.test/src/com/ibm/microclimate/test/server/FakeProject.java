@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.microclimate.test.server;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import com.ibm.microclimate.core.internal.constants.MCConstants;
+
+/**
+ * The state of a project on the fake Microclimate server.
+ */
+public class FakeProject {
+
+	public final String projectID;
+	public final String name;
+	public final String buildType;
+	public final String language;
+
+	// Guarded by this
+	private String appStatus = "stopped";
+	private String buildStatus = "queued";
+	private String detailedBuildStatus = "";
+	private String startMode = "run";
+	private boolean autoBuild = true;
+	private boolean open = true;
+	private int httpPort;
+	private int debugPort = -1;
+	private String containerId;
+	// Characters of each log sent so far, keyed by type/name
+	private final Map<String, Long> logLengths = new HashMap<String, Long>();
+
+	public FakeProject(String projectID, String name, String buildType, String language, int httpPort) {
+		this.projectID = projectID;
+		this.name = name;
+		this.buildType = buildType;
+		this.language = language;
+		this.httpPort = httpPort;
+		this.containerId = String.format("%064x", httpPort);
+	}
+
+	public synchronized String getAppStatus() {
+		return appStatus;
+	}
+
+	public synchronized void setAppStatus(String appStatus) {
+		this.appStatus = appStatus;
+	}
+
+	public synchronized String getBuildStatus() {
+		return buildStatus;
+	}
+
+	public synchronized void setBuildStatus(String buildStatus, String detailedBuildStatus) {
+		this.buildStatus = buildStatus;
+		this.detailedBuildStatus = detailedBuildStatus == null ? "" : detailedBuildStatus;
+	}
+
+	public synchronized String getStartMode() {
+		return startMode;
+	}
+
+	public synchronized void setStartMode(String startMode) {
+		this.startMode = startMode;
+		this.debugPort = "run".equals(startMode) ? -1 : httpPort + 1;
+	}
+
+	public synchronized boolean isAutoBuild() {
+		return autoBuild;
+	}
+
+	public synchronized void setAutoBuild(boolean autoBuild) {
+		this.autoBuild = autoBuild;
+	}
+
+	public synchronized boolean isOpen() {
+		return open;
+	}
+
+	public synchronized void setOpen(boolean open) {
+		this.open = open;
+	}
+
+	public synchronized String getContainerId() {
+		return containerId;
+	}
+
+	/**
+	 * Add to the length of a log and return the offset of the added text.
+	 */
+	synchronized long appendLog(String logType, String logName, int length) {
+		String key = logType + "/" + logName;
+		Long current = logLengths.get(key);
+		long offset = current == null ? 0 : current.longValue();
+		logLengths.put(key, Long.valueOf(offset + length));
+		return offset;
+	}
+
+	public synchronized JSONObject getPorts() throws JSONException {
+		JSONObject ports = new JSONObject();
+		ports.put(MCConstants.KEY_EXPOSED_PORT, Integer.toString(httpPort));
+		ports.put("internalPort", "9080");
+		if (debugPort != -1) {
+			ports.put(MCConstants.KEY_EXPOSED_DEBUG_PORT, Integer.toString(debugPort));
+			ports.put("internalDebugPort", "7777");
+		}
+		return ports;
+	}
+
+	public synchronized JSONObject toJSON() throws JSONException {
+		JSONObject project = new JSONObject();
+		project.put(MCConstants.KEY_PROJECT_ID, projectID);
+		project.put(MCConstants.KEY_NAME, name);
+		project.put(MCConstants.KEY_BUILD_TYPE, buildType);
+		project.put(MCConstants.KEY_PROJECT_TYPE, buildType);
+		project.put(MCConstants.KEY_LANGUAGE, language);
+		project.put(MCConstants.KEY_LOC_DISK, "/microclimate-workspace/" + name);
+		project.put(MCConstants.KEY_ACTION, open ? "enable" : "disable");
+		if (!open) {
+			project.put(MCConstants.KEY_OPEN_STATE, MCConstants.VALUE_STATE_CLOSED);
+		}
+		project.put(MCConstants.KEY_APP_STATUS, appStatus);
+		project.put(MCConstants.KEY_BUILD_STATUS, buildStatus);
+		project.put(MCConstants.KEY_DETAILED_BUILD_STATUS, detailedBuildStatus);
+		project.put(MCConstants.KEY_CONTAINER_ID, containerId);
+		project.put(MCConstants.KEY_PORTS, getPorts());
+		project.put(MCConstants.KEY_CONTEXTROOT, "/");
+		project.put(MCConstants.KEY_START_MODE, startMode);
+		project.put(MCConstants.KEY_AUTO_BUILD, autoBuild);
+		return project;
+	}
+
+	@Override
+	public String toString() {
+		return name + " (" + projectID + ")";
+	}
+}
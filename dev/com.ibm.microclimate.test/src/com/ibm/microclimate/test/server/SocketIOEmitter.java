@@ -0,0 +1,324 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.microclimate.test.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/**
+ * Just enough of a socket.io server for the plugin's socket.io client to connect and receive
+ * events: engine.io protocol 3 over XHR long polling with no upgrade to websockets, and socket.io
+ * event packets. Events are only sent, anything the client emits is ignored.
+ */
+public class SocketIOEmitter implements HttpHandler {
+
+	public static final String PATH = "/socket.io/";
+
+	private static final long PING_INTERVAL_MS = 25000;
+	private static final long PING_TIMEOUT_MS = 60000;
+	// Long polls are answered with a noop after this long so the client sends the next one
+	private static final long POLL_TIMEOUT_MS = 20000;
+	private static final String NOOP_PACKET = "6";
+
+	private static class Session {
+		private final String sid = UUID.randomUUID().toString();
+		private final LinkedBlockingQueue<String> packets = new LinkedBlockingQueue<String>();
+		private final Set<String> namespaces = new CopyOnWriteArraySet<String>();
+		private volatile long lastSeen = System.currentTimeMillis();
+		private volatile boolean closed = false;
+	}
+
+	private final Map<String, Session> sessions = new ConcurrentHashMap<String, Session>();
+	private final AtomicLong eventsSent = new AtomicLong();
+
+	/**
+	 * Send an event to every client connected to the namespace, "/" for the default namespace.
+	 */
+	public void emit(String namespace, String event, JSONObject data) {
+		JSONArray args = new JSONArray();
+		args.put(event);
+		args.put(data);
+		String packet = "42" + ("/".equals(namespace) ? "" : namespace + ",") + args.toString();
+		for (Session session : getSessions()) {
+			if (session.namespaces.contains(namespace)) {
+				session.packets.add(packet);
+				eventsSent.incrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * The number of connected clients.
+	 */
+	public int getClientCount() {
+		return getSessions().size();
+	}
+
+	/**
+	 * The number of events queued for clients so far.
+	 */
+	public long getEventsSent() {
+		return eventsSent.get();
+	}
+
+	/**
+	 * Drop all of the clients, as if the server restarted. The clients get an error on their
+	 * next poll and reconnect.
+	 */
+	public void disconnectAll() {
+		for (Session session : sessions.values()) {
+			session.closed = true;
+			// Wake up any waiting poll
+			session.packets.add(NOOP_PACKET);
+		}
+		sessions.clear();
+	}
+
+	private List<Session> getSessions() {
+		List<Session> result = new ArrayList<Session>();
+		long now = System.currentTimeMillis();
+		for (Iterator<Session> it = sessions.values().iterator(); it.hasNext();) {
+			Session session = it.next();
+			if (now - session.lastSeen > PING_INTERVAL_MS + PING_TIMEOUT_MS) {
+				// The client went away without closing
+				it.remove();
+			} else {
+				result.add(session);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public void handle(HttpExchange exchange) throws IOException {
+		try {
+			Map<String, String> query = parseQuery(exchange.getRequestURI());
+			if (!"polling".equals(query.get("transport"))) {
+				sendError(exchange, 0, "Transport unknown");
+				return;
+			}
+			String sid = query.get("sid");
+			if (sid == null) {
+				open(exchange);
+				return;
+			}
+			Session session = sessions.get(sid);
+			if (session == null) {
+				sendError(exchange, 1, "Session ID unknown");
+				return;
+			}
+			session.lastSeen = System.currentTimeMillis();
+			if ("GET".equals(exchange.getRequestMethod())) {
+				poll(exchange, session);
+			} else if ("POST".equals(exchange.getRequestMethod())) {
+				receive(exchange, session);
+			} else {
+				send(exchange, 405, "text/plain", "");
+			}
+		} catch (InterruptedException e) {
+			send(exchange, 500, "text/plain", "");
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private void open(HttpExchange exchange) throws IOException {
+		Session session = new Session();
+		session.namespaces.add("/");
+		sessions.put(session.sid, session);
+		JSONObject handshake = new JSONObject();
+		try {
+			handshake.put("sid", session.sid);
+			handshake.put("upgrades", new JSONArray());
+			handshake.put("pingInterval", PING_INTERVAL_MS);
+			handshake.put("pingTimeout", PING_TIMEOUT_MS);
+		} catch (JSONException e) {
+			throw new IOException(e);
+		}
+		List<String> packets = new ArrayList<String>();
+		packets.add("0" + handshake.toString());
+		// A socket.io 2 server connects the client to the default namespace straight away
+		packets.add("40");
+		sendPayload(exchange, packets);
+	}
+
+	private void poll(HttpExchange exchange, Session session) throws IOException, InterruptedException {
+		List<String> packets = new ArrayList<String>();
+		String first = session.packets.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+		if (session.closed) {
+			sendError(exchange, 1, "Session ID unknown");
+			return;
+		}
+		packets.add(first == null ? NOOP_PACKET : first);
+		session.packets.drainTo(packets);
+		session.lastSeen = System.currentTimeMillis();
+		sendPayload(exchange, packets);
+	}
+
+	private void receive(HttpExchange exchange, Session session) throws IOException {
+		String contentType = exchange.getRequestHeaders().getFirst("Content-type");
+		byte[] body = readAll(exchange.getRequestBody());
+		List<String> packets = contentType != null && contentType.startsWith("application/octet-stream")
+				? decodeBinaryPayload(body) : decodePayload(new String(body, StandardCharsets.UTF_8));
+		for (String packet : packets) {
+			if (packet.isEmpty()) {
+				continue;
+			}
+			switch (packet.charAt(0)) {
+				case '1':
+					// Close
+					session.closed = true;
+					sessions.remove(session.sid);
+					session.packets.add(NOOP_PACKET);
+					break;
+				case '2':
+					// Ping
+					session.packets.add("3" + packet.substring(1));
+					break;
+				case '4':
+					onMessage(session, packet.substring(1));
+					break;
+				default:
+					break;
+			}
+		}
+		send(exchange, 200, "text/html", "ok");
+	}
+
+	private static void onMessage(Session session, String message) {
+		if (message.isEmpty()) {
+			return;
+		}
+		char type = message.charAt(0);
+		String namespace = message.length() > 1 && message.charAt(1) == '/' ? message.substring(1).split(",", 2)[0] : "/";
+		if (type == '0') {
+			// Connect to a namespace
+			session.namespaces.add(namespace);
+			session.packets.add("40" + ("/".equals(namespace) ? "" : namespace));
+		} else if (type == '1') {
+			session.namespaces.remove(namespace);
+		}
+	}
+
+	private static void sendPayload(HttpExchange exchange, List<String> packets) throws IOException {
+		StringBuilder payload = new StringBuilder();
+		for (String packet : packets) {
+			payload.append(packet.length()).append(':').append(packet);
+		}
+		send(exchange, 200, "text/plain; charset=UTF-8", payload.toString());
+	}
+
+	private static void sendError(HttpExchange exchange, int code, String message) throws IOException {
+		JSONObject error = new JSONObject();
+		try {
+			error.put("code", code);
+			error.put("message", message);
+		} catch (JSONException e) {
+			throw new IOException(e);
+		}
+		send(exchange, 400, "application/json", error.toString());
+	}
+
+	static void send(HttpExchange exchange, int code, String contentType, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", contentType);
+		exchange.sendResponseHeaders(code, bytes.length == 0 ? -1 : bytes.length);
+		if (bytes.length > 0) {
+			OutputStream out = exchange.getResponseBody();
+			out.write(bytes);
+			out.close();
+		}
+	}
+
+	static byte[] readAll(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int count;
+		while ((count = in.read(buffer)) != -1) {
+			out.write(buffer, 0, count);
+		}
+		return out.toByteArray();
+	}
+
+	private static Map<String, String> parseQuery(URI uri) {
+		Map<String, String> query = new HashMap<String, String>();
+		String raw = uri.getRawQuery();
+		if (raw == null) {
+			return query;
+		}
+		for (String param : raw.split("&")) {
+			int index = param.indexOf('=');
+			if (index > 0) {
+				query.put(param.substring(0, index), param.substring(index + 1));
+			}
+		}
+		return query;
+	}
+
+	// Text payloads are <length>:<packet> repeated
+	private static List<String> decodePayload(String payload) {
+		List<String> packets = new ArrayList<String>();
+		int pos = 0;
+		while (pos < payload.length()) {
+			int colon = payload.indexOf(':', pos);
+			if (colon < 0) {
+				break;
+			}
+			int length = Integer.parseInt(payload.substring(pos, colon));
+			packets.add(payload.substring(colon + 1, colon + 1 + length));
+			pos = colon + 1 + length;
+		}
+		return packets;
+	}
+
+	// Binary payloads are a type byte, the length as one byte per digit, 255, then the packet
+	private static List<String> decodeBinaryPayload(byte[] payload) {
+		List<String> packets = new ArrayList<String>();
+		int pos = 0;
+		while (pos < payload.length) {
+			boolean binary = payload[pos++] == 1;
+			int length = 0;
+			while (pos < payload.length && (payload[pos] & 0xFF) != 255) {
+				length = length * 10 + payload[pos++];
+			}
+			pos++;
+			if (!binary) {
+				packets.add(new String(payload, pos, length, StandardCharsets.UTF_8));
+			}
+			pos += length;
+		}
+		return packets;
+	}
+}
@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.microclimate.test.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import com.ibm.microclimate.core.internal.connection.MicroclimateSocket;
+import com.ibm.microclimate.core.internal.connection.SocketEventRecorder;
+import com.ibm.microclimate.core.internal.constants.MCConstants;
+
+/**
+ * Replays a socket event trace recorded by {@link SocketEventRecorder} through a
+ * {@link FakeMicroclimateServer}, at the recorded speed, a multiple of it or as fast as possible.
+ * 
+ * The server mirrors the state the events describe so that the plugin sees the same thing
+ * whether it reads it from an event or from a REST request. Call {@link #addProjects()} before
+ * the client connects to add the projects that the trace expects to exist already.
+ */
+public class TraceReplayer {
+
+	private static final String DEFAULT_BUILD_TYPE = "nodejs";
+
+	public static class TraceEvent {
+		/** Microseconds since the recording started */
+		public final long time;
+		public final String event;
+		public final JSONObject data;
+
+		public TraceEvent(long time, String event, JSONObject data) {
+			this.time = time;
+			this.event = event;
+			this.data = data;
+		}
+	}
+
+	/**
+	 * Read a trace file, one event per line.
+	 */
+	public static List<TraceEvent> read(Path traceFile) throws IOException, JSONException {
+		List<TraceEvent> events = new ArrayList<TraceEvent>();
+		try (BufferedReader reader = Files.newBufferedReader(traceFile, StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.trim().isEmpty()) {
+					continue;
+				}
+				JSONObject entry = new JSONObject(line);
+				events.add(new TraceEvent(entry.getLong(SocketEventRecorder.KEY_TIME),
+						entry.getString(SocketEventRecorder.KEY_EVENT),
+						entry.getJSONObject(SocketEventRecorder.KEY_DATA)));
+			}
+		}
+		return events;
+	}
+
+	private final FakeMicroclimateServer server;
+	private final List<TraceEvent> events;
+
+	public TraceReplayer(FakeMicroclimateServer server, List<TraceEvent> events) {
+		this.server = server;
+		this.events = Collections.unmodifiableList(new ArrayList<TraceEvent>(events));
+	}
+
+	public List<TraceEvent> getEvents() {
+		return events;
+	}
+
+	/**
+	 * The length of the recording in milliseconds.
+	 */
+	public long getDuration() {
+		return events.isEmpty() ? 0 : TimeUnit.MICROSECONDS.toMillis(events.get(events.size() - 1).time);
+	}
+
+	/**
+	 * Add a started project to the server for each project that has events in the trace
+	 * before it is created, if any, and that the server does not have yet.
+	 */
+	public List<FakeProject> addProjects() {
+		List<FakeProject> added = new ArrayList<FakeProject>();
+		Set<String> seen = new HashSet<String>();
+		for (TraceEvent event : events) {
+			String projectID = event.data.optString(MCConstants.KEY_PROJECT_ID, null);
+			if (projectID == null || !seen.add(projectID) || server.getProject(projectID) != null
+					|| MicroclimateSocket.EVENT_PROJECT_CREATION.equals(event.event)) {
+				continue;
+			}
+			added.add(server.addProject(projectID, getName(event), DEFAULT_BUILD_TYPE));
+		}
+		return added;
+	}
+
+	/**
+	 * Send the events with the recorded gaps between them divided by the speed, so 1 is the
+	 * recorded speed and 10 is ten times faster. If the speed is 0 or less the events are sent
+	 * as fast as possible. Returns how long the replay took in milliseconds.
+	 */
+	public long replay(double speed) throws InterruptedException {
+		long start = System.nanoTime();
+		for (TraceEvent event : events) {
+			if (speed > 0) {
+				long due = start + (long) (TimeUnit.MICROSECONDS.toNanos(event.time) / speed);
+				long wait = due - System.nanoTime();
+				if (wait > 0) {
+					TimeUnit.NANOSECONDS.sleep(wait);
+				}
+			}
+			send(event);
+		}
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+	}
+
+	private void send(TraceEvent event) {
+		String projectID = event.data.optString(MCConstants.KEY_PROJECT_ID, null);
+		FakeProject project = projectID == null ? null : server.getProject(projectID);
+		if (MicroclimateSocket.EVENT_PROJECT_CREATION.equals(event.event)) {
+			if (project == null && projectID != null) {
+				project = server.addProject(projectID, getName(event), DEFAULT_BUILD_TYPE);
+				// The trace has the status changes as it builds and starts
+				project.setBuildStatus("queued", "");
+				project.setAppStatus("stopped");
+			}
+		} else if (MicroclimateSocket.EVENT_PROJECT_DELETION.equals(event.event)) {
+			if (project != null) {
+				// Sends the deletion event
+				server.removeProject(project);
+				return;
+			}
+		} else if (MicroclimateSocket.EVENT_PROJECT_STATUS_CHANGE.equals(event.event) && project != null) {
+			String appStatus = event.data.optString(MCConstants.KEY_APP_STATUS, null);
+			if (appStatus != null) {
+				project.setAppStatus(appStatus);
+			}
+			String buildStatus = event.data.optString(MCConstants.KEY_BUILD_STATUS, null);
+			if (buildStatus != null) {
+				project.setBuildStatus(buildStatus, event.data.optString(MCConstants.KEY_DETAILED_BUILD_STATUS, ""));
+			}
+		}
+		server.emit(event.event, event.data);
+	}
+
+	private static String getName(TraceEvent event) {
+		String name = event.data.optString(MCConstants.KEY_NAME, null);
+		if (name != null) {
+			return name;
+		}
+		return "project-" + event.data.optString(MCConstants.KEY_PROJECT_ID, "");
+	}
+}
@@ -25,6 +25,7 @@ import org.osgi.framework.BundleContext;
 import com.ibm.microclimate.core.MicroclimateCorePlugin;
 import com.ibm.microclimate.core.internal.MCLogger;
 import com.ibm.microclimate.core.internal.constants.ProjectType;
+import com.ibm.microclimate.ui.internal.debug.DebugEndpointProber;
 import com.ibm.microclimate.ui.internal.debug.NodeJSDebugLauncher;
 import com.ibm.microclimate.ui.internal.views.UpdateHandler;
 
@@ -84,6 +85,7 @@ public class MicroclimateUIPlugin extends AbstractUIPlugin {
 	@Override
 	public void stop(BundleContext context) throws Exception {
 		MicroclimateCorePlugin.setUpdateHandler(null);
+		DebugEndpointProber.getInstance().dispose();
 		plugin = null;
 		super.stop(context);
 	}
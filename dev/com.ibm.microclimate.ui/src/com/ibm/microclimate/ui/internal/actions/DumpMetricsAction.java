@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.microclimate.ui.internal.actions;
+
+import org.eclipse.jface.action.IAction;
+import org.eclipse.jface.viewers.ISelection;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.ui.IViewActionDelegate;
+import org.eclipse.ui.IViewPart;
+
+import com.ibm.microclimate.core.internal.MCLogger;
+import com.ibm.microclimate.core.internal.MCUtil;
+import com.ibm.microclimate.core.internal.metrics.Metrics;
+import com.ibm.microclimate.ui.internal.messages.Messages;
+
+/**
+ * Action in the Microclimate view menu to show the current metrics and write them to the log,
+ * for diagnosing slowdowns.
+ */
+public class DumpMetricsAction implements IViewActionDelegate {
+
+	@Override
+	public void init(IViewPart view) {
+		// Nothing to do
+	}
+
+	@Override
+	public void selectionChanged(IAction action, ISelection selection) {
+		// The metrics are not for the selection so the action is always enabled
+	}
+
+	@Override
+	public void run(IAction action) {
+		String metrics = Metrics.snapshot().format();
+		if (metrics.isEmpty()) {
+			MCUtil.openDialog(false, Messages.DumpMetricsDialogTitle, Messages.DumpMetricsNoneMsg);
+			return;
+		}
+		// The user asked for the metrics so log them even if info logging is off
+		MCLogger.logAlways("Microclimate metrics:\n" + metrics); //$NON-NLS-1$
+		new MetricsDialog(Display.getDefault().getActiveShell(), metrics).open();
+	}
+}
@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+
+package com.ibm.microclimate.ui.internal.actions;
+
+import org.eclipse.jface.dialogs.IDialogConstants;
+import org.eclipse.jface.dialogs.MessageDialog;
+import org.eclipse.jface.resource.JFaceResources;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.dnd.Clipboard;
+import org.eclipse.swt.dnd.TextTransfer;
+import org.eclipse.swt.dnd.Transfer;
+import org.eclipse.swt.events.SelectionAdapter;
+import org.eclipse.swt.events.SelectionEvent;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Text;
+
+import com.ibm.microclimate.ui.internal.messages.Messages;
+
+/**
+ * Resizable dialog showing a metrics snapshot in a scrollable text area that can be copied.
+ */
+public class MetricsDialog extends MessageDialog {
+
+	final String metrics;
+
+	public MetricsDialog(Shell parentShell, String metrics) {
+		super(parentShell, Messages.DumpMetricsDialogTitle, null, Messages.DumpMetricsDialogMsg,
+				MessageDialog.INFORMATION, new String[] { IDialogConstants.OK_LABEL }, 0);
+
+		this.metrics = metrics;
+
+		setShellStyle(getShellStyle() | SWT.RESIZE);
+	}
+
+	@Override
+	protected Control createCustomArea(Composite parent) {
+		Composite composite = new Composite(parent, SWT.NONE);
+		composite.setLayout(new GridLayout(1, false));
+		composite.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, true));
+
+		// Monospace so the columns of the snapshot line up
+		Text text = new Text(composite, SWT.BORDER | SWT.MULTI | SWT.READ_ONLY | SWT.V_SCROLL | SWT.H_SCROLL);
+		text.setFont(JFaceResources.getTextFont());
+		GridData gridData = new GridData(SWT.FILL, SWT.FILL, true, true);
+		gridData.widthHint = 600;
+		gridData.heightHint = 300;
+		text.setLayoutData(gridData);
+		text.setText(metrics);
+
+		Button button = new Button(composite, SWT.PUSH);
+		button.setLayoutData(new GridData(SWT.RIGHT, SWT.CENTER, false, false));
+		button.setText(Messages.DumpMetricsCopyToClipboardButton);
+
+		button.addSelectionListener(new SelectionAdapter() {
+			@Override
+			public void widgetSelected(SelectionEvent e) {
+				Clipboard clipboard = new Clipboard(Display.getDefault());
+				TextTransfer textTransfer = TextTransfer.getInstance();
+				clipboard.setContents(new Object[] { metrics }, new Transfer[] { textTransfer });
+				clipboard.dispose();
+			}
+		});
+
+		return composite;
+	}
+
+	@Override
+	protected boolean isResizable() {
+		return true;
+	}
+}
@@ -36,6 +36,7 @@ import com.ibm.microclimate.core.internal.MCEclipseApplication;
 import com.ibm.microclimate.core.internal.MCLogger;
 import com.ibm.microclimate.core.internal.MCUtil;
 import com.ibm.microclimate.core.internal.constants.AppState;
+import com.ibm.microclimate.core.internal.constants.ProjectCapabilities;
 import com.ibm.microclimate.core.internal.constants.ProjectType;
 import com.ibm.microclimate.core.internal.constants.StartMode;
 import com.ibm.microclimate.ui.MicroclimateUIPlugin;
@@ -46,6 +47,9 @@ import com.ibm.microclimate.ui.internal.messages.Messages;
  */
 public class RestartDebugModeAction implements IObjectActionDelegate, IViewActionDelegate, IActionDelegate2 {
 
+	// How long to wait for the capabilities if they are being fetched again, for example after a build
+	private static final long CAPABILITIES_TIMEOUT_MS = 5000;
+
     protected MCEclipseApplication app;
 
     @Override
@@ -118,26 +122,55 @@ public class RestartDebugModeAction implements IObjectActionDelegate, IViewActio
 	        }
         }
 
+        // The capabilities may have been reset by a build since the action was enabled so
+        // wait for them in a job rather than on the UI thread
+        final MCEclipseApplication restartApp = app;
+        Job job = new Job(NLS.bind(Messages.RestartDebugModeJob, restartApp.name)) {
+        	@Override
+        	protected IStatus run(IProgressMonitor monitor) {
+        		restartInDebugMode(restartApp);
+        		return Status.OK_STATUS;
+        	}
+        };
+        job.schedule();
+    }
+    
+    private static void restartInDebugMode(MCEclipseApplication app) {
+        ProjectCapabilities capabilities;
+        try {
+        	capabilities = app.waitForProjectCapabilities(CAPABILITIES_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+        	Thread.currentThread().interrupt();
+        	capabilities = null;
+        }
+        if (capabilities == null) {
+        	MCUtil.openDialog(true, Messages.ErrorOnRestartDialogTitle, NLS.bind(Messages.RestartDebugModeNoCapabilities, app.name));
+        	return;
+        }
+        
+        // Try debug mode first since it allows debug of initialization.  If not supported use
+        // debugNoInit mode.
+        StartMode startMode;
+        if (capabilities.supportsDebugMode()) {
+        	startMode = StartMode.DEBUG;
+        } else if (capabilities.supportsDebugNoInitMode()) {
+        	startMode = StartMode.DEBUG_NO_INIT;
+        } else {
+        	MCLogger.logError("Project restart in debug mode requested but project does not support any debug modes: " + app.name); //$NON-NLS-1$
+        	MCUtil.openDialog(true, Messages.ErrorOnRestartDialogTitle, NLS.bind(Messages.RestartDebugModeNotSupported, app.name));
+        	return;
+        }
+
         try {
         	// Clear out any old launch and debug target
         	app.clearDebugger();
         	
         	// Restart the project in debug mode. The debugger will be attached when the restart result
         	// event is received from Microclimate.
-        	// Try debug mode first since it allows debug of initialization.  If not supported use
-        	// debugNoInit mode.
-        	if (app.getProjectCapabilities().supportsDebugMode()) {
-        		app.mcConnection.requestProjectRestart(app, StartMode.DEBUG.startMode);
-        	} else if (app.getProjectCapabilities().supportsDebugNoInitMode()) {
-        		app.mcConnection.requestProjectRestart(app, StartMode.DEBUG_NO_INIT.startMode);
-        	} else {
-        		// Should never get here
-        		MCLogger.logError("Project restart in debug mode requested but project does not support any debug modes: " + app.name); //$NON-NLS-1$
-        	}
+        	app.mcConnection.requestProjectRestart(app, startMode.startMode);
 		} catch (Exception e) {
 			MCLogger.logError("Error initiating restart for project: " + app.name, e); //$NON-NLS-1$
 			MCUtil.openDialog(true, Messages.ErrorOnRestartDialogTitle, e.getMessage());
-			return;
 		}
     }
     
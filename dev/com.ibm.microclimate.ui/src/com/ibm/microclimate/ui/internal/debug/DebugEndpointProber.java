@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.microclimate.ui.internal.debug;
+
+import java.net.URI;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import com.ibm.microclimate.core.internal.HttpUtil;
+import com.ibm.microclimate.core.internal.HttpUtil.HttpResult;
+import com.ibm.microclimate.core.internal.MCLogger;
+import com.ibm.microclimate.core.internal.MCUtil;
+import com.ibm.microclimate.core.internal.MicroclimateApplication;
+
+/**
+ * Keeps track of whether a debugger can be attached to the inspector endpoint of each
+ * Node.js application so that enablement checks do not have to make a request.
+ * The endpoints are probed by a background job when the debug port changes, when an
+ * unknown application is checked and again on a slow interval.
+ */
+public class DebugEndpointProber {
+
+	public static final String DEBUG_INFO = "/json/list"; //$NON-NLS-1$
+	public static final String DEVTOOLS_URL_FIELD = "devtoolsFrontendUrl"; //$NON-NLS-1$
+
+	private static final long PROBE_INTERVAL_MS = 30000;
+
+	private static final DebugEndpointProber instance = new DebugEndpointProber();
+
+	public static DebugEndpointProber getInstance() {
+		return instance;
+	}
+
+	private static class ProbeState {
+		// The debug port that was probed, -1 if not probed yet
+		private final int debugPort;
+		private final boolean attachable;
+		private final long probeTime;
+		private final boolean stale;
+
+		private ProbeState(int debugPort, boolean attachable, long probeTime, boolean stale) {
+			this.debugPort = debugPort;
+			this.attachable = attachable;
+			this.probeTime = probeTime;
+			this.stale = stale;
+		}
+	}
+
+	private final Map<MicroclimateApplication, ProbeState> states = new ConcurrentHashMap<MicroclimateApplication, ProbeState>();
+
+	private final Job probeJob = new Job("Check Node.js debug endpoints") { //$NON-NLS-1$
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			probe(monitor);
+			return Status.OK_STATUS;
+		}
+	};
+
+	private DebugEndpointProber() {
+		probeJob.setSystem(true);
+	}
+
+	/**
+	 * Returns the last known state for the application without making a request. If the
+	 * state is not known or is out of date then a probe is requested and false is returned
+	 * until it completes.
+	 */
+	public boolean canAttach(MicroclimateApplication app) {
+		ProbeState state = states.get(app);
+		if (state == null || state.debugPort != app.getDebugPort()) {
+			requestProbe(app);
+			return false;
+		}
+		return state.attachable;
+	}
+
+	/**
+	 * Probe the application's endpoint soon, for example because the debug port changed or
+	 * a debugger was attached.
+	 */
+	public void requestProbe(MicroclimateApplication app) {
+		ProbeState state = states.get(app);
+		states.put(app, new ProbeState(state == null ? -1 : state.debugPort, state != null && state.attachable, 0, true));
+		probeJob.schedule();
+	}
+
+	public void dispose() {
+		probeJob.cancel();
+		states.clear();
+	}
+
+	private void probe(IProgressMonitor monitor) {
+		long now = System.currentTimeMillis();
+		Iterator<Map.Entry<MicroclimateApplication, ProbeState>> iterator = states.entrySet().iterator();
+		while (iterator.hasNext()) {
+			if (monitor.isCanceled()) {
+				return;
+			}
+			Map.Entry<MicroclimateApplication, ProbeState> entry = iterator.next();
+			MicroclimateApplication app = entry.getKey();
+			ProbeState state = entry.getValue();
+			if (app.mcConnection.getAppByID(app.projectID) != app) {
+				// The application has been removed
+				iterator.remove();
+				continue;
+			}
+			int debugPort = app.getDebugPort();
+			if (!state.stale && state.debugPort == debugPort && now - state.probeTime < PROBE_INTERVAL_MS) {
+				continue;
+			}
+			boolean attachable = debugPort != -1 && isAttachable(app, debugPort);
+			// Only replace the state if another probe was not requested in the meantime
+			if (states.replace(app, state, new ProbeState(debugPort, attachable, now, false))
+					&& attachable != state.attachable) {
+				MCUtil.updateApplication(app);
+			}
+		}
+		if (!states.isEmpty() && !monitor.isCanceled()) {
+			probeJob.schedule(PROBE_INTERVAL_MS);
+		}
+	}
+
+	private boolean isAttachable(MicroclimateApplication app, int debugPort) {
+		// If a debugger is already attached then the devtools url field will not be included in the result
+		try {
+			URI uri = new URI("http", null, app.host, debugPort, DEBUG_INFO, null, null); //$NON-NLS-1$
+			HttpResult result = HttpUtil.get(uri);
+			if (result.isGoodResponse) {
+				JSONArray array = new JSONArray(result.response);
+				JSONObject info = array.getJSONObject(0);
+				if (info.has(DEVTOOLS_URL_FIELD)) {
+					String url = info.getString(DEVTOOLS_URL_FIELD);
+					if (url != null && !url.isEmpty()) {
+						return true;
+					}
+				}
+			}
+		} catch (Exception e) {
+			MCLogger.log("Failed to retrieve the debug information for the " + app.name + " app: " + e.getMessage()); //$NON-NLS-1$  //$NON-NLS-2$
+		}
+		return false;
+	}
+}
@@ -40,8 +40,8 @@ import com.ibm.microclimate.ui.internal.messages.Messages;
 @SuppressWarnings("restriction") //$NON-NLS-1$
 public class NodeJSDebugLauncher implements IDebugLauncher {
 	
-	private static final String DEBUG_INFO = "/json/list";
-	private static final String DEVTOOLS_URL_FIELD = "devtoolsFrontendUrl";
+	private static final String DEBUG_INFO = DebugEndpointProber.DEBUG_INFO;
+	private static final String DEVTOOLS_URL_FIELD = DebugEndpointProber.DEVTOOLS_URL_FIELD;
 	
 	public IStatus launchDebugger(MicroclimateApplication app) {
 		String urlString = null;
@@ -55,34 +55,23 @@ public class NodeJSDebugLauncher implements IDebugLauncher {
 			MCLogger.logError("Failed to get the debug URL for the " + app.name + " application.", e); //$NON-NLS-1$ //$NON-NLS-2$
 			return new Status(IStatus.ERROR, MicroclimateUIPlugin.PLUGIN_ID, NLS.bind(Messages.NodeJSDebugURLError, app.name), e);
 		}
-		return openNodeJSDebugger(urlString);
+		IStatus status = openNodeJSDebugger(urlString);
+		// The endpoint no longer allows attaching once a debugger is attached
+		DebugEndpointProber.getInstance().requestProbe(app);
+		return status;
 	}
 	
+	/**
+	 * Reads the state kept by the prober so it is safe to call from the selection path.
+	 */
 	@Override
 	public boolean canAttachDebugger(MicroclimateApplication app) {
-		String host = app.host;
-		int debugPort = app.getDebugPort();
-		
-		// If a debugger is already attached then the devtools url field will not be included in the result
-		try {
-			URI uri = new URI("http", null, host, debugPort, DEBUG_INFO, null, null); //$NON-NLS-1$
-			HttpResult result = HttpUtil.get(uri);
-			if (result.isGoodResponse) {
-				String response = result.response;
-				JSONArray array = new JSONArray(response);
-				JSONObject info = array.getJSONObject(0);
-				if (info.has(DEVTOOLS_URL_FIELD)) {
-					String url = info.getString(DEVTOOLS_URL_FIELD);
-					if (url != null && !url.isEmpty()) {
-						return true;
-					}
-				}
-			}
-		} catch (Exception e) {
-			MCLogger.log("Failed to retrieve the debug information for the " + app.name + " app: " + e.getMessage()); //$NON-NLS-1$  //$NON-NLS-2$
-		}
-		
-		return false;
+		return DebugEndpointProber.getInstance().canAttach(app);
+	}
+	
+	@Override
+	public void debugPortChanged(MicroclimateApplication app) {
+		DebugEndpointProber.getInstance().requestProbe(app);
 	}
 
 	private String getDebugURL(MicroclimateApplication app) throws Exception {
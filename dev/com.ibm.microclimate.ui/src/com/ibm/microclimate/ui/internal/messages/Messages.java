@@ -25,6 +25,8 @@ public class Messages extends NLS {
 
 	public static String PrefsParentPage_DebugTimeoutLabel;
 	public static String PrefsParentPage_ErrInvalidDebugTimeout;
+	public static String PrefsParentPage_ConsoleBufferSizeLabel;
+	public static String PrefsParentPage_ErrInvalidConsoleBufferSize;
 
 	public static String NewConnectionPage_ConnectSucceeded;
 	public static String NewConnectionPage_ErrAConnectionAlreadyExists;
@@ -56,6 +58,9 @@ public class Messages extends NLS {
 	public static String RestartInDebugMode;
 	public static String RestartInRunMode;
 	public static String ErrorOnRestartDialogTitle;
+	public static String RestartDebugModeNoCapabilities;
+	public static String RestartDebugModeNotSupported;
+	public static String RestartDebugModeJob;
 	
 	public static String EnableProjectLabel;
 	public static String DisableProjectLabel;
@@ -149,6 +154,11 @@ public class Messages extends NLS {
 	public static String NewProjectPage_ProjectCreateErrorTitle;
 	public static String NewProjectPage_ProjectCreateErrorMsg;
 	
+	public static String DumpMetricsDialogTitle;
+	public static String DumpMetricsNoneMsg;
+	public static String DumpMetricsDialogMsg;
+	public static String DumpMetricsCopyToClipboardButton;
+	
 	static {
 		// initialize resource bundle
 		NLS.initializeMessages(BUNDLE_NAME, Messages.class);
@@ -39,6 +39,7 @@ import org.eclipse.ui.internal.browser.IBrowserDescriptor;
 
 import com.ibm.microclimate.core.MicroclimateCorePlugin;
 import com.ibm.microclimate.core.internal.MCLogger;
+import com.ibm.microclimate.core.internal.console.MicroclimateConsoleFactory;
 import com.ibm.microclimate.ui.MicroclimateUIPlugin;
 import com.ibm.microclimate.ui.internal.messages.Messages;
 
@@ -51,6 +52,7 @@ public class MicroclimatePrefsParentPage extends PreferencePage implements IWork
 	private static IPreferenceStore prefs;
 
 	private Text debugTimeoutText;
+	private Text consoleBufferSizeText;
 	private Combo webBrowserCombo;
 	private Text selectWebBrowserLabel;
 		
@@ -95,6 +97,26 @@ public class MicroclimatePrefsParentPage extends PreferencePage implements IWork
 				validate();
 			}
 		});
+
+		Label consoleBufferSizeLabel = new Label(composite, SWT.READ_ONLY);
+		consoleBufferSizeLabel.setText(Messages.PrefsParentPage_ConsoleBufferSizeLabel);
+		consoleBufferSizeLabel.setLayoutData(new GridData(GridData.BEGINNING, GridData.FILL, false, false));
+
+		consoleBufferSizeText = new Text(composite, SWT.BORDER);
+		consoleBufferSizeText.setTextLimit(9);
+		consoleBufferSizeText.setText("" + 	//$NON-NLS-1$
+				prefs.getInt(MicroclimateCorePlugin.CONSOLE_BUFFER_SIZE_PREFSKEY));
+
+		GridData consoleBufferSizeData = new GridData(GridData.BEGINNING, GridData.FILL, false, false);
+		consoleBufferSizeData.widthHint = 80;
+		consoleBufferSizeText.setLayoutData(consoleBufferSizeData);
+
+		consoleBufferSizeText.addModifyListener(new ModifyListener() {
+			@Override
+			public void modifyText(ModifyEvent arg0) {
+				validate();
+			}
+		});
 		
 		Label separator = new Label(composite, SWT.HORIZONTAL);
 	    separator.setLayoutData(new GridData(GridData.FILL_HORIZONTAL, GridData.CENTER, true, false, 2, 1));
@@ -159,6 +181,19 @@ public class MicroclimatePrefsParentPage extends PreferencePage implements IWork
 			invalidReason = NLS.bind(Messages.PrefsParentPage_ErrInvalidDebugTimeout, timeoutText);
 		}
 
+		String bufferSizeText = consoleBufferSizeText.getText().trim();
+		boolean goodBufferSize = false;
+		try {
+			int bufferSize = Integer.parseInt(bufferSizeText);
+			goodBufferSize = bufferSize == 0 || bufferSize >= MicroclimateConsoleFactory.MIN_CONSOLE_BUFFER_SIZE;
+		}
+		catch(NumberFormatException e) {}
+
+		if (!goodBufferSize && invalidReason == null) {
+			invalidReason = NLS.bind(Messages.PrefsParentPage_ErrInvalidConsoleBufferSize, bufferSizeText,
+					Integer.toString(MicroclimateConsoleFactory.MIN_CONSOLE_BUFFER_SIZE));
+		}
+
 		setErrorMessage(invalidReason);
 		setValid(invalidReason == null);
 	}
@@ -175,6 +210,10 @@ public class MicroclimatePrefsParentPage extends PreferencePage implements IWork
 
 		// removes any trimmed space
 		debugTimeoutText.setText("" + debugTimeout);
+
+		int consoleBufferSize = Integer.parseInt(consoleBufferSizeText.getText().trim());
+		prefs.setValue(MicroclimateCorePlugin.CONSOLE_BUFFER_SIZE_PREFSKEY, consoleBufferSize);
+		consoleBufferSizeText.setText("" + consoleBufferSize); //$NON-NLS-1$
 		
 		if (this.webBrowserCombo != null) {
 			// The first option in the webBrowserCombo is to not use the default browser.
@@ -197,6 +236,8 @@ public class MicroclimatePrefsParentPage extends PreferencePage implements IWork
 	public void performDefaults() {
 		debugTimeoutText.setText("" + 	//$NON-NLS-1$
 				prefs.getDefaultInt(MicroclimateCorePlugin.DEBUG_CONNECT_TIMEOUT_PREFSKEY));
+		consoleBufferSizeText.setText("" + 	//$NON-NLS-1$
+				prefs.getDefaultInt(MicroclimateCorePlugin.CONSOLE_BUFFER_SIZE_PREFSKEY));
 		webBrowserCombo.select(0);
 	}
 	
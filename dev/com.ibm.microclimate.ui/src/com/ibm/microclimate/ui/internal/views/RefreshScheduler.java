@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.microclimate.ui.internal.views;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.ui.IViewPart;
+import org.eclipse.ui.navigator.CommonNavigator;
+import org.eclipse.ui.navigator.CommonViewer;
+import org.eclipse.ui.progress.UIJob;
+
+import com.ibm.microclimate.core.internal.MicroclimateApplication;
+import com.ibm.microclimate.core.internal.metrics.Counter;
+import com.ibm.microclimate.core.internal.metrics.Histogram;
+import com.ibm.microclimate.core.internal.metrics.Metrics;
+
+/**
+ * Collects the elements of the Microclimate view that need refreshing and refreshes them
+ * together at most once per interval, so that a storm of updates from the socket does not
+ * queue a separate refresh on the UI thread for each one.
+ *
+ * Elements passed to refresh have their children and labels refreshed. Elements passed to update
+ * only have their labels updated, which is all an application needs since it has no children.
+ * A refresh of an element covers any updates of its children and a refresh of the whole view
+ * covers everything.
+ *
+ * The refresh latency, from the first request in a batch to the end of the flush that covers it,
+ * is recorded so that together with the socket event latency it gives the time from an event
+ * being received to the view showing it.
+ */
+public class RefreshScheduler {
+
+	// About a couple of frames, short enough that the view still feels live
+	private static final long FLUSH_INTERVAL_MS = 50;
+
+	private static final Counter flushes = Metrics.counter(Metrics.VIEW_FLUSHES);
+	private static final Counter elementsRefreshed = Metrics.counter(Metrics.VIEW_ELEMENTS_REFRESHED);
+	private static final Histogram flushTime = Metrics.histogram(Metrics.VIEW_FLUSH_TIME);
+	private static final Histogram refreshLatency = Metrics.histogram(Metrics.VIEW_REFRESH_LATENCY);
+
+	private static final RefreshScheduler instance = new RefreshScheduler();
+
+	public static RefreshScheduler getInstance() {
+		return instance;
+	}
+
+	// Guarded by this
+	private boolean refreshAll = false;
+	private final Set<Object> refreshElements = new LinkedHashSet<Object>();
+	private final Set<Object> updateElements = new LinkedHashSet<Object>();
+	private boolean flushScheduled = false;
+	// When the first request since the last flush was made
+	private long requestTime = 0;
+
+	private final UIJob flushJob = new UIJob("Refresh Microclimate view") { //$NON-NLS-1$
+		@Override
+		public IStatus runInUIThread(IProgressMonitor monitor) {
+			flush();
+			return Status.OK_STATUS;
+		}
+	};
+
+	private RefreshScheduler() {
+		flushJob.setSystem(true);
+	}
+
+	/**
+	 * Refresh the element and its children. If the element is null the whole view is refreshed.
+	 */
+	public void refresh(Object element) {
+		synchronized (this) {
+			if (refreshAll) {
+				return;
+			}
+			if (element == null || element == ResourcesPlugin.getWorkspace().getRoot()) {
+				refreshAll = true;
+				refreshElements.clear();
+				updateElements.clear();
+			} else {
+				refreshElements.add(element);
+			}
+			schedule();
+		}
+	}
+
+	/**
+	 * Update the labels of the element only.
+	 */
+	public void update(Object element) {
+		if (element == null) {
+			refresh(null);
+			return;
+		}
+		synchronized (this) {
+			if (refreshAll || refreshElements.contains(element)) {
+				return;
+			}
+			updateElements.add(element);
+			schedule();
+		}
+	}
+
+	// Must hold the lock
+	private void schedule() {
+		// Not rescheduled while waiting so a steady stream of changes cannot hold off the flush
+		if (!flushScheduled) {
+			flushScheduled = true;
+			requestTime = System.nanoTime();
+			flushJob.schedule(FLUSH_INTERVAL_MS);
+		}
+	}
+
+	private void flush() {
+		boolean all;
+		Set<Object> refreshSet;
+		List<Object> updateList;
+		long firstRequest;
+		synchronized (this) {
+			all = refreshAll;
+			refreshSet = new LinkedHashSet<Object>(refreshElements);
+			updateList = new ArrayList<Object>(updateElements);
+			refreshAll = false;
+			refreshElements.clear();
+			updateElements.clear();
+			flushScheduled = false;
+			firstRequest = requestTime;
+		}
+
+		IViewPart part = ViewHelper.getViewPart(MicroclimateExplorerView.VIEW_ID);
+		if (!(part instanceof CommonNavigator)) {
+			return;
+		}
+		CommonViewer viewer = ((CommonNavigator) part).getCommonViewer();
+		if (viewer == null || viewer.getControl() == null || viewer.getControl().isDisposed()) {
+			return;
+		}
+
+		flushes.increment();
+		long start = System.nanoTime();
+		try {
+			refreshViewer(viewer, all, refreshSet, updateList);
+		} finally {
+			flushTime.recordSince(start);
+			refreshLatency.recordSince(firstRequest);
+		}
+	}
+
+	private void refreshViewer(CommonViewer viewer, boolean all, Set<Object> refreshSet, List<Object> updateList) {
+		if (all) {
+			viewer.refresh(ResourcesPlugin.getWorkspace().getRoot());
+			elementsRefreshed.increment();
+			return;
+		}
+
+		for (Object element : refreshSet) {
+			viewer.refresh(element);
+		}
+		elementsRefreshed.add(refreshSet.size());
+
+		List<Object> labelUpdates = new ArrayList<Object>(updateList.size());
+		for (Object element : updateList) {
+			// Covered if the connection it belongs to was refreshed
+			if (element instanceof MicroclimateApplication
+					&& refreshSet.contains(((MicroclimateApplication) element).mcConnection)) {
+				continue;
+			}
+			labelUpdates.add(element);
+		}
+		if (!labelUpdates.isEmpty()) {
+			viewer.update(labelUpdates.toArray(), null);
+			elementsRefreshed.add(labelUpdates.size());
+		}
+	}
+}
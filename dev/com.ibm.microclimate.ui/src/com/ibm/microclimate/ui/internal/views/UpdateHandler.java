@@ -33,7 +33,8 @@ public class UpdateHandler implements IUpdateHandler {
 
 	@Override
 	public void updateApplication(MicroclimateApplication application) {
-		ViewHelper.refreshMicroclimateExplorerView(application);
+		// Applications have no children so only the label needs updating
+		ViewHelper.updateMicroclimateExplorerView(application);
 	}
 
 }
@@ -13,8 +13,6 @@ package com.ibm.microclimate.ui.internal.views;
 
 import java.util.List;
 
-import org.eclipse.core.resources.ResourcesPlugin;
-import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.IViewPart;
 import org.eclipse.ui.IViewReference;
 import org.eclipse.ui.IWorkbenchPage;
@@ -38,14 +36,19 @@ public class ViewHelper {
 		openNavigatorView(MicroclimateExplorerView.VIEW_ID);
 	}
 	
+	/**
+	 * Refresh the element and its children, or the whole view if the element is null.
+	 * The refresh is batched with any other changes made around the same time.
+	 */
 	public static void refreshMicroclimateExplorerView(Object element) {
-		final Object obj = element == null ? ResourcesPlugin.getWorkspace().getRoot() : element;
-		Display.getDefault().asyncExec(new Runnable() {
-            @Override
-            public void run() {
-            	refreshNavigatorView(MicroclimateExplorerView.VIEW_ID, obj);
-            }
-        });
+		RefreshScheduler.getInstance().refresh(element);
+	}
+	
+	/**
+	 * Update the labels of the element without refreshing its children.
+	 */
+	public static void updateMicroclimateExplorerView(Object element) {
+		RefreshScheduler.getInstance().update(element);
 	}
 	
 	public static void expandConnection(MicroclimateConnection connection) {